@@ -35,7 +35,10 @@ class DownloadJsonInvocation extends Invocation<InputStream, Void> {
 
 	@Override
 	protected Void process(InputStream response) {
-		try {
+		if (response == null)
+			return null;
+		// closing the stream releases the connection for further requests
+		try (response) {
 			Files.copy(response, toFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
 			return null;
 		} catch (IOException e) {
@@ -46,8 +46,10 @@ abstract class Invocation<E, T> {
 		}
 		try {
 			var response = WebRequests.call(type, url, sessionId, data());
-			if (response.getStatus() == Status.NO_CONTENT.getStatusCode())
+			if (response.getStatus() == Status.NO_CONTENT.getStatusCode()) {
+				response.close();
 				return process(null);
+			}
 			if (entityClass != null && InputStream.class.isAssignableFrom(entityClass))
 				return process((E) response.getEntityInputStream());
 			var string = response.getEntity(String.class);
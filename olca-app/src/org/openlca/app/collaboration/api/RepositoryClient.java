@@ -3,6 +3,7 @@ package org.openlca.app.collaboration.api;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -12,6 +13,8 @@ import org.openlca.app.collaboration.model.Comment;
 import org.openlca.app.collaboration.model.Restriction;
 import org.openlca.app.collaboration.model.SearchResult;
 import org.openlca.app.collaboration.util.Comments;
+import org.openlca.app.collaboration.util.WebRequests;
+import org.openlca.app.collaboration.util.WebRequests.Request;
 import org.openlca.app.collaboration.util.WebRequests.WebRequestException;
 import org.openlca.app.db.Repository;
 import org.openlca.core.model.ModelType;
@@ -26,10 +29,15 @@ public class RepositoryClient {
 
 	private static final Logger log = LoggerFactory.getLogger(RepositoryClient.class);
 	public static final String API_VERSION = "2.0.0";
+	/**
+	 * The maximum number of data sets that are checked for restrictions in a
+	 * single request; larger sets are checked in parallel requests.
+	 */
+	private static final int RESTRICTION_BATCH_SIZE = 1000;
 	public final String serverUrl;
 	public final String repositoryId;
 	private final String apiUrl;
-	private String sessionId;
+	private volatile String sessionId;
 
 	public RepositoryClient(String serverUrl, String repositoryId) throws IOException {
 		this.serverUrl = serverUrl;
@@ -61,7 +69,35 @@ public class RepositoryClient {
 	}
 
 	public List<Restriction> checkRestrictions(Collection<? extends ModelRef> refs) throws WebRequestException {
-		return executeLoggedIn(new RestrictionCheckInvocation(repositoryId, refs));
+		if (refs.size() <= RESTRICTION_BATCH_SIZE)
+			return executeLoggedIn(new RestrictionCheckInvocation(repositoryId, refs));
+		var batches = new ArrayList<List<ModelRef>>();
+		var batch = new ArrayList<ModelRef>();
+		for (var ref : refs) {
+			batch.add(ref);
+			if (batch.size() == RESTRICTION_BATCH_SIZE) {
+				batches.add(batch);
+				batch = new ArrayList<>();
+			}
+		}
+		if (!batch.isEmpty()) {
+			batches.add(batch);
+		}
+		// the first request logs in if necessary, the others can then be
+		// executed in parallel with the same session
+		var restrictions = executeLoggedIn(new RestrictionCheckInvocation(repositoryId, batches.get(0)));
+		if (restrictions == null)
+			return null;
+		var requests = new ArrayList<Request<List<Restriction>>>();
+		for (var next : batches.subList(1, batches.size())) {
+			requests.add(() -> executeLoggedIn(new RestrictionCheckInvocation(repositoryId, next)));
+		}
+		for (var result : WebRequests.parallel(requests)) {
+			if (result == null)
+				return null;
+			restrictions.addAll(result);
+		}
+		return restrictions;
 	}
 
 	public List<Comment> getAllComments() throws WebRequestException {
@@ -95,7 +131,7 @@ public class RepositoryClient {
 			return invocation.execute();
 		} catch (WebRequestException e) {
 			if (e.getErrorCode() == Status.UNAUTHORIZED.getStatusCode()) {
-				if (!login(true))
+				if (!relogin(invocation.sessionId))
 					return null;
 				invocation.sessionId = sessionId;
 				return invocation.execute();
@@ -107,6 +143,16 @@ public class RepositoryClient {
 		}
 	}
 
+	/**
+	 * Logs in again after the given session expired, unless this was already
+	 * done by a parallel request.
+	 */
+	private synchronized boolean relogin(String expiredSession) throws WebRequestException {
+		if (sessionId != null && !sessionId.equals(expiredSession))
+			return true;
+		return login(true);
+	}
+
 	private boolean login(boolean forceCredentials) throws WebRequestException {
 		var invocation = new LoginInvocation();
 		invocation.baseUrl = apiUrl;
@@ -2,6 +2,7 @@ package org.openlca.app.collaboration.api;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 
 import org.openlca.app.collaboration.model.Restriction;
@@ -46,10 +47,12 @@ class RestrictionCheckInvocation extends Invocation<List<Restriction>, List<Rest
 	protected List<Restriction> process(List<Restriction> restrictions) {
 		if (restrictions == null)
 			return new ArrayList<>();
+		var byRefId = new HashMap<String, ModelRef>();
+		refs.forEach(ref -> byRefId.putIfAbsent(ref.refId, ref));
 		restrictions.forEach(r -> {
-			var ref = refs.stream()
-					.filter(d -> d.refId.equals(r.datasetRefId))
-					.findFirst().get();
+			var ref = byRefId.get(r.datasetRefId);
+			if (ref == null)
+				return;
 			r.modelType = ref.type;
 			r.path = ref.path;
 		});
@@ -1,40 +1,226 @@
 package org.openlca.app.collaboration.navigation.actions;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
+import org.openlca.app.db.Repository;
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.database.NativeSql;
 import org.openlca.core.model.ModelType;
-import org.openlca.git.util.TypedRefIdMap;
+import org.openlca.core.model.descriptors.Descriptor;
 import org.openlca.git.util.TypedRefId;
 import org.openlca.util.Strings;
-
-class ModelReferences {
-
-	private IDatabase database;
-	private TypedRefIdMap<Long> refIdToId = new TypedRefIdMap<>();
-	private EnumMap<ModelType, Map<Long, String>> idToRefId = new EnumMap<>(ModelType.class);
-	private ReferenceMap references = new ReferenceMap();
-	private ReferenceMap usages = new ReferenceMap();
-	private Map<String, Long> nameToParameter = new HashMap<>();
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gnu.trove.map.hash.TLongLongHashMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.map.hash.TObjectLongHashMap;
+import gnu.trove.set.hash.TLongHashSet;
+
+/**
+ * The reference graph of the models in a database: which model references
+ * which other models (e.g. a process its flows) and by which models a model is
+ * used. The nodes of the graph are encoded as primitive `long` values that
+ * contain the model type and ID, and the edges are stored in primitive
+ * adjacency sets.
+ * <p>
+ * The graph is kept in memory for the session and persisted next to the
+ * `git.index` in the repository directory, together with the `last_change`
+ * stamps of the models it was built from. When the graph is requested, these
+ * stamps are compared with the database and the references of the models that
+ * were added, changed, or deleted are read again, in addition to the models
+ * that were registered via the application cache. The graph is rebuilt from
+ * the database when the application cache was cleared completely (e.g. after
+ * an import), as there is no information which models were changed then.
+ * <p>
+ * Changes in the child tables of a model (e.g. exchanges) that are made via
+ * SQL without updating the `last_change` field of the model are not detected
+ * by the stamps; such changes need to be registered via the application cache
+ * (e.g. `Cache.evictAll()`).
+ */
+public class ModelReferences {
+
+	private static final Logger log = LoggerFactory.getLogger(ModelReferences.class);
+
+	private static final String FILE_NAME = "references.graph";
+	private static final int MAGIC = 0x6f6c7267; // olrg
+	private static final int FILE_VERSION = 2;
+
+	/** The lower 56 bits of a node contain the model ID. */
+	private static final long ID_MASK = (1L << 56) - 1;
+
+	/** The types of models that are scanned, in the order of the scan. */
+	private static final ModelType[] TYPES = {
+			ModelType.LOCATION,
+			ModelType.SOURCE,
+			ModelType.ACTOR,
+			ModelType.CURRENCY,
+			ModelType.UNIT_GROUP,
+			ModelType.FLOW_PROPERTY,
+			ModelType.DQ_SYSTEM,
+			ModelType.PARAMETER,
+			ModelType.SOCIAL_INDICATOR,
+			ModelType.IMPACT_CATEGORY,
+			ModelType.IMPACT_METHOD,
+			ModelType.RESULT,
+			ModelType.EPD,
+			ModelType.FLOW,
+			ModelType.PROCESS,
+			ModelType.PRODUCT_SYSTEM,
+			ModelType.PROJECT };
+
+	/** The graph of the current session. */
+	private static ModelReferences cached;
+
+	/** The nodes of changed models and whether all models could be changed. */
+	private static final Object changesLock = new Object();
+	private static final TLongHashSet changed = new TLongHashSet();
+	private static boolean changedAll;
+
+	private final IDatabase database;
+	private final TLongObjectHashMap<String> refIds = new TLongObjectHashMap<>();
+	private final EnumMap<ModelType, TObjectLongHashMap<String>> refIdToId =
+			new EnumMap<>(ModelType.class);
+	private final TLongObjectHashMap<TLongHashSet> references = new TLongObjectHashMap<>();
+	private final TLongObjectHashMap<TLongHashSet> usages = new TLongObjectHashMap<>();
+	/** The `last_change` stamps of the models the graph was built from. */
+	private TLongLongHashMap stamps = new TLongLongHashMap();
+
+	// loaded on demand when scanning parameter redefinitions
+	private TObjectLongHashMap<String> nameToParameter;
 
 	private ModelReferences(IDatabase database) {
 		this.database = database;
 	}
 
+	/**
+	 * Returns the reference graph of the given database. The graph is taken
+	 * from the session or from the repository directory and updated with the
+	 * models that were changed since it was built; it is only built from
+	 * scratch when this is not possible.
+	 */
+	public static synchronized ModelReferences of(IDatabase database) {
+		boolean all;
+		var nodes = new TLongHashSet();
+		synchronized (changesLock) {
+			all = changedAll;
+			nodes.addAll(changed);
+			changedAll = false;
+			changed.clear();
+		}
+
+		// the stamps are read before the graph is updated so that changes
+		// that are made during the update are detected the next time
+		var file = file();
+		var stamps = stampsOf(database);
+		var graph = cached != null && cached.database == database
+				? cached
+				: null;
+		if (graph == null && !all && file != null) {
+			graph = read(file, database);
+		}
+
+		boolean rebuild = graph == null || all;
+		if (!rebuild) {
+			graph.collectChanged(stamps, nodes);
+			if (!nodes.isEmpty()) {
+				rebuild = !graph.update(nodes.toArray());
+			}
+		}
+		if (rebuild) {
+			log.info("build model reference graph of {}", database.getName());
+			graph = new ModelReferences(database);
+			graph.scanAll();
+		}
+
+		graph.stamps = stamps;
+		cached = graph;
+		if ((rebuild || !nodes.isEmpty()) && file != null) {
+			graph.write(file);
+		}
+		return graph;
+	}
+
+	/**
+	 * Scans the full database. Use {@link #of(IDatabase)} instead to reuse an
+	 * existing graph.
+	 */
 	public static ModelReferences scan(IDatabase database) {
-		var refs = new ModelReferences(database);
-		refs.init();
-		refs.scan();
-		return refs;
+		var graph = new ModelReferences(database);
+		graph.scanAll();
+		return graph;
+	}
+
+	/**
+	 * Registers a change of the given model so that its references are updated
+	 * before the graph is used the next time.
+	 */
+	public static void invalidate(Descriptor d) {
+		synchronized (changesLock) {
+			if (d == null || d.type == null) {
+				changedAll = true;
+				return;
+			}
+			for (var type : TYPES) {
+				if (type == d.type) {
+					changed.add(node(d.type, d.id));
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Registers that any model could have been changed so that the graph is
+	 * rebuilt before it is used the next time.
+	 */
+	public static void invalidateAll() {
+		synchronized (changesLock) {
+			changedAll = true;
+			changed.clear();
+		}
+	}
+
+	/**
+	 * Drops the graph of the session, e.g. when the database is closed. The
+	 * stamps of the persisted graph are checked against the database when it
+	 * is loaded again.
+	 * If there are changes that were not applied to the graph yet, the
+	 * persisted graph is deleted, as it does not contain these changes.
+	 */
+	public static void reset() {
+		boolean pending;
+		synchronized (changesLock) {
+			pending = changedAll || !changed.isEmpty();
+			changedAll = false;
+			changed.clear();
+		}
+		synchronized (ModelReferences.class) {
+			cached = null;
+			if (!pending)
+				return;
+			var file = file();
+			if (file == null)
+				return;
+			try {
+				Files.deleteIfExists(file.toPath());
+			} catch (IOException e) {
+				log.warn("failed to delete outdated reference graph " + file, e);
+			}
+		}
 	}
 
 	public Set<ModelReference> get(TypedRefId pair) {
@@ -52,156 +238,186 @@ class ModelReferences {
 		return get(usages, pair);
 	}
 
-	private Set<ModelReference> get(ReferenceMap map, TypedRefId pair) {
+	private Set<ModelReference> get(
+			TLongObjectHashMap<TLongHashSet> map, TypedRefId pair) {
 		var refs = new HashSet<ModelReference>();
-		var typeMap = map.get(pair.type);
-		if (typeMap == null)
+		var ids = refIdToId.get(pair.type);
+		if (ids == null || !ids.containsKey(pair.refId))
 			return refs;
-		var id = refIdToId.get(pair);
-		var idMap = typeMap.get(id);
-		if (idMap == null)
+		var targets = map.get(node(pair.type, ids.get(pair.refId)));
+		if (targets == null)
 			return refs;
-		idMap.keySet().forEach(targetType -> idMap.get(targetType)
-				.forEach(targetId -> {
-					var refId = idToRefId.get(targetType).get(targetId);
-					if (!Strings.nullOrEmpty(refId)) {
-						refs.add(new ModelReference(targetType, targetId, refId));
-					}
-				}));
-		return refs;
-	}
-
-	private void init() {
-		var query = "SELECT id, name FROM tbl_parameters WHERE scope = 'GLOBAL'";
-		NativeSql.on(database).query(query, rs -> {
-			nameToParameter.put(rs.getString(2), rs.getLong(1));
+		targets.forEach(target -> {
+			var refId = refIds.get(target);
+			if (!Strings.nullOrEmpty(refId)) {
+				refs.add(new ModelReference(typeOf(target), idOf(target), refId));
+			}
 			return true;
 		});
+		return refs;
 	}
 
-	private void scan() {
-		scanLocations();
-		scanSources();
-		scanActors();
-		scanCurrencies();
-		scanUnitGroups();
-		scanFlowProperties();
-		scanDQSystems();
-		scanGlobalParameters();
-		scanSocialIndicators();
-		scanImpactCategories();
-		scanImpactMethods();
-		scanResults();
-		scanEpds();
-		scanFlows();
-		scanProcesses();
-		scanProductSystems();
-		scanProjects();
-	}
-
-	private void scanLocations() {
-		scanTable("tbl_locations", true,
-				new ModelField(ModelType.LOCATION, "id"));
-	}
-
-	private void scanSources() {
-		scanTable("tbl_sources", true,
-				new ModelField(ModelType.SOURCE, "id"));
-	}
-
-	private void scanActors() {
-		scanTable("tbl_actors", true,
-				new ModelField(ModelType.ACTOR, "id"));
-	}
+	// region: graph updates
 
-	private void scanCurrencies() {
-		scanTable("tbl_currencies", true,
-				new ModelField(ModelType.CURRENCY, "id"),
-				new ModelField(ModelType.CURRENCY, "f_reference_currency"));
+	private void scanAll() {
+		for (var type : TYPES) {
+			scan(type, null);
+		}
 	}
 
-	private void scanUnitGroups() {
-		scanTable("tbl_unit_groups", true,
-				new ModelField(ModelType.UNIT_GROUP, "id"),
-				new ModelField(ModelType.FLOW_PROPERTY, "f_default_flow_property"));
+	/**
+	 * Reads the references of the given nodes again. Returns false if this is
+	 * not possible and the graph needs to be rebuilt.
+	 */
+	private boolean update(long[] nodes) {
+		try {
+			for (var node : nodes) {
+				var type = typeOf(node);
+				if (type == ModelType.PARAMETER)
+					return false; // names are used in redefinitions
+				remove(node);
+				scan(type, idOf(node));
+			}
+			return true;
+		} catch (Exception e) {
+			log.error("failed to update model reference graph", e);
+			return false;
+		}
 	}
 
-	private void scanFlowProperties() {
-		scanTable("tbl_flow_properties", true,
-				new ModelField(ModelType.FLOW_PROPERTY, "id"),
-				new ModelField(ModelType.UNIT_GROUP, "f_unit_group"));
+	/**
+	 * Removes the node with its outgoing references from the graph. References
+	 * of other models to this node are kept; they are filtered out when the
+	 * model does not exist anymore.
+	 */
+	private void remove(long node) {
+		var refId = refIds.remove(node);
+		if (refId != null) {
+			var ids = refIdToId.get(typeOf(node));
+			if (ids != null) {
+				ids.remove(refId);
+			}
+		}
+		var targets = references.remove(node);
+		if (targets == null)
+			return;
+		targets.forEach(target -> {
+			var sources = usages.get(target);
+			if (sources != null) {
+				sources.remove(node);
+				if (sources.isEmpty()) {
+					usages.remove(target);
+				}
+			}
+			return true;
+		});
 	}
 
-	private void scanDQSystems() {
-		scanTable("tbl_dq_systems", true,
-				new ModelField(ModelType.DQ_SYSTEM, "id"));
+	/**
+	 * Scans the references of the models of the given type. If an ID is given,
+	 * only the references of the model with this ID are scanned.
+	 */
+	private void scan(ModelType type, Long id) {
+		switch (type) {
+			case LOCATION -> scanTable("tbl_locations", true, where("id", id),
+					new ModelField(ModelType.LOCATION, "id"));
+			case SOURCE -> scanTable("tbl_sources", true, where("id", id),
+					new ModelField(ModelType.SOURCE, "id"));
+			case ACTOR -> scanTable("tbl_actors", true, where("id", id),
+					new ModelField(ModelType.ACTOR, "id"));
+			case CURRENCY -> scanTable("tbl_currencies", true, where("id", id),
+					new ModelField(ModelType.CURRENCY, "id"),
+					new ModelField(ModelType.CURRENCY, "f_reference_currency"));
+			case UNIT_GROUP -> scanTable("tbl_unit_groups", true, where("id", id),
+					new ModelField(ModelType.UNIT_GROUP, "id"),
+					new ModelField(ModelType.FLOW_PROPERTY, "f_default_flow_property"));
+			case FLOW_PROPERTY -> scanTable("tbl_flow_properties", true, where("id", id),
+					new ModelField(ModelType.FLOW_PROPERTY, "id"),
+					new ModelField(ModelType.UNIT_GROUP, "f_unit_group"));
+			case DQ_SYSTEM -> scanTable("tbl_dq_systems", true, where("id", id),
+					new ModelField(ModelType.DQ_SYSTEM, "id"));
+			case PARAMETER -> scanGlobalParameters(id);
+			case SOCIAL_INDICATOR -> scanTable("tbl_social_indicators", true, where("id", id),
+					new ModelField(ModelType.SOCIAL_INDICATOR, "id"),
+					new ModelField(ModelType.FLOW_PROPERTY, "f_activity_quantity"));
+			case IMPACT_CATEGORY -> scanImpactCategories(id);
+			case IMPACT_METHOD -> scanImpactMethods(id);
+			case RESULT -> scanResults(id);
+			case EPD -> scanEpds(id);
+			case FLOW -> scanFlows(id);
+			case PROCESS -> scanProcesses(id);
+			case PRODUCT_SYSTEM -> scanProductSystems(id);
+			case PROJECT -> scanProjects(id);
+			default -> {
+			}
+		}
 	}
 
-	private void scanGlobalParameters() {
+	private void scanGlobalParameters(Long id) {
 		var query = "SELECT id, ref_id FROM tbl_parameters WHERE scope = 'GLOBAL'";
+		if (id != null) {
+			query += " AND id = " + id;
+		}
 		NativeSql.on(database).query(query, rs -> {
-			var id = rs.getLong(1);
+			var paramId = rs.getLong(1);
 			var refId = rs.getString(2);
-			putRefId(ModelType.PARAMETER, id, refId);
+			putRefId(ModelType.PARAMETER, paramId, refId);
 			return true;
 		});
 	}
 
-	private void scanSocialIndicators() {
-		scanTable("tbl_social_indicators", true,
-				new ModelField(ModelType.SOCIAL_INDICATOR, "id"),
-				new ModelField(ModelType.FLOW_PROPERTY, "f_activity_quantity"));
-	}
-
-	private void scanImpactCategories() {
-		scanTable("tbl_impact_categories", true,
+	private void scanImpactCategories(Long id) {
+		scanTable("tbl_impact_categories", true, where("id", id),
 				new ModelField(ModelType.IMPACT_CATEGORY, "id"),
 				new ModelField(ModelType.IMPACT_METHOD, "id"),
 				new ModelField(ModelType.SOURCE, "f_source"));
-		scanTable("tbl_impact_factors", false,
+		scanTable("tbl_impact_factors", false, where("f_impact_category", id),
 				new ModelField(ModelType.IMPACT_CATEGORY, "f_impact_category"),
 				new ModelField(ModelType.FLOW, "f_flow"),
 				new ModelField(ModelType.LOCATION, "f_location"));
 	}
 
-	private void scanImpactMethods() {
-		scanTable("tbl_impact_methods", true,
+	private void scanImpactMethods(Long id) {
+		scanTable("tbl_impact_methods", true, where("id", id),
 				new ModelField(ModelType.IMPACT_METHOD, "id"),
 				new ModelField(ModelType.SOURCE, "f_source"));
-		scanTable("tbl_source_links", false,
+		scanTable("tbl_source_links", false, where("f_owner", id),
 				new ModelField(ModelType.IMPACT_METHOD, "f_owner"),
 				new ModelField(ModelType.SOURCE, "f_source"));
-		scanTable("tbl_impact_links", false,
+		scanTable("tbl_impact_links", false, where("f_impact_method", id),
 				new ModelField(ModelType.IMPACT_METHOD, "f_impact_method"),
 				new ModelField(ModelType.IMPACT_CATEGORY, "f_impact_category"));
 	}
 
-	private void scanFlows() {
-		scanTable("tbl_flows", true,
+	private void scanFlows(Long id) {
+		scanTable("tbl_flows", true, where("id", id),
 				new ModelField(ModelType.FLOW, "id"));
-		scanTable("tbl_flow_property_factors", false,
+		scanTable("tbl_flow_property_factors", false, where("f_flow", id),
 				new ModelField(ModelType.FLOW, "f_flow"),
 				new ModelField(ModelType.FLOW_PROPERTY, "f_flow_property"));
 	}
 
-	private void scanProcesses() {
-		var docsToProcess = scanTable("tbl_processes", true, "f_process_doc",
+	private void scanProcesses(Long id) {
+		var docsToProcess = scanTable("tbl_processes", true, where("id", id), "f_process_doc",
 				new ModelField(ModelType.PROCESS, "id"),
 				new ModelField(ModelType.LOCATION, "f_location"),
 				new ModelField(ModelType.DQ_SYSTEM, "f_dq_system"),
 				new ModelField(ModelType.DQ_SYSTEM, "f_exchange_dq_system"),
 				new ModelField(ModelType.DQ_SYSTEM, "f_social_dq_system"));
-		scanTable("tbl_process_docs", false,
-				new ModelField(ModelType.PROCESS, "id", docsToProcess::get),
+		var docOf = id != null
+				? "(SELECT f_process_doc FROM tbl_processes WHERE id = " + id + ")"
+				: null;
+		scanTable("tbl_process_docs", false, docOf != null ? "id = " + docOf : null,
+				new ModelField(ModelType.PROCESS, "id", docsToProcess),
 				new ModelField(ModelType.ACTOR, "f_reviewer"),
 				new ModelField(ModelType.ACTOR, "f_data_documentor"),
 				new ModelField(ModelType.ACTOR, "f_data_generator"),
 				new ModelField(ModelType.ACTOR, "f_dataset_owner"),
 				new ModelField(ModelType.SOURCE, "f_publication"));
-		scanTable("tbl_source_links", false,
-				new ModelField(ModelType.PROCESS, "f_owner", docsToProcess::get),
+		scanTable("tbl_source_links", false, docOf != null ? "f_owner = " + docOf : null,
+				new ModelField(ModelType.PROCESS, "f_owner", docsToProcess),
 				new ModelField(ModelType.SOURCE, "f_source"));
-		scanTable("tbl_exchanges", false,
+		scanTable("tbl_exchanges", false, where("f_owner", id),
 				new ModelField(ModelType.PROCESS, "f_owner"),
 				new ModelField(ModelType.PROCESS, "f_default_provider"),
 				new ModelField(ModelType.FLOW, "f_flow"),
@@ -209,162 +425,373 @@ class ModelReferences {
 				new ModelField(ModelType.FLOW, "f_currency"));
 	}
 
-	private void scanProductSystems() {
-		scanTable("tbl_product_systems", true,
+	private void scanProductSystems(Long id) {
+		scanTable("tbl_product_systems", true, where("id", id),
 				new ModelField(ModelType.PRODUCT_SYSTEM, "id"),
 				new ModelField(ModelType.PROCESS, "f_reference_process"));
-		scanTable("tbl_process_links", false,
+		scanTable("tbl_process_links", false, where("f_product_system", id),
 				new ModelField(ModelType.PRODUCT_SYSTEM, "f_product_system"),
 				new ModelField(ModelType.PROCESS, "f_process"),
 				new ModelField(ModelType.PROCESS, "f_provider"));
-		var setToSystem = scanTable("tbl_parameter_redef_sets", false, "id",
+		var setToSystem = scanTable("tbl_parameter_redef_sets", false,
+				where("f_product_system", id), "id",
 				new ModelField(ModelType.PRODUCT_SYSTEM, "f_product_system"));
-		scanParameterRedefs(ModelType.PRODUCT_SYSTEM, setToSystem::get);
+		scanParameterRedefs(ModelType.PRODUCT_SYSTEM, id != null
+				? "f_owner IN (SELECT id FROM tbl_parameter_redef_sets"
+						+ " WHERE f_product_system = " + id + ")"
+				: null, setToSystem);
 	}
 
-	private void scanProjects() {
-		scanTable("tbl_projects", true,
+	private void scanProjects(Long id) {
+		scanTable("tbl_projects", true, where("id", id),
 				new ModelField(ModelType.PROJECT, "id"),
 				new ModelField(ModelType.IMPACT_METHOD, "f_impact_method"));
-		var variantToProject = scanTable("tbl_project_variants", false, "id",
+		var variantToProject = scanTable("tbl_project_variants", false,
+				where("f_project", id), "id",
 				new ModelField(ModelType.PROJECT, "f_project"),
 				new ModelField(ModelType.PRODUCT_SYSTEM, "f_product_system"));
-		scanParameterRedefs(ModelType.PROJECT, variantToProject::get);
+		scanParameterRedefs(ModelType.PROJECT, id != null
+				? "f_owner IN (SELECT id FROM tbl_project_variants"
+						+ " WHERE f_project = " + id + ")"
+				: null, variantToProject);
 	}
 
-	private void scanEpds() {
-		scanTable("tbl_epds", true,
+	private void scanEpds(Long id) {
+		scanTable("tbl_epds", true, where("id", id),
 				new ModelField(ModelType.EPD, "id"),
 				new ModelField(ModelType.ACTOR, "f_manufacturer"),
 				new ModelField(ModelType.ACTOR, "f_verifier"),
 				new ModelField(ModelType.ACTOR, "f_program_operator"),
 				new ModelField(ModelType.SOURCE, "f_pcr"),
 				new ModelField(ModelType.FLOW, "f_flow"));
-		scanTable("tbl_epd_modules", false,
+		scanTable("tbl_epd_modules", false, where("f_epd", id),
 				new ModelField(ModelType.EPD, "f_epd"),
 				new ModelField(ModelType.RESULT, "f_result"));
 	}
 
-	private void scanResults() {
-		scanTable("tbl_results", true,
+	private void scanResults(Long id) {
+		scanTable("tbl_results", true, where("id", id),
 				new ModelField(ModelType.RESULT, "id"),
 				new ModelField(ModelType.PRODUCT_SYSTEM, "f_product_system"),
 				new ModelField(ModelType.IMPACT_METHOD, "f_impact_method"));
-		scanTable("tbl_flow_results", false,
+		scanTable("tbl_flow_results", false, where("f_result", id),
 				new ModelField(ModelType.RESULT, "f_result"),
 				new ModelField(ModelType.FLOW, "f_flow"),
 				new ModelField(ModelType.LOCATION, "f_location"));
-		scanTable("tbl_impact_results", false,
+		scanTable("tbl_impact_results", false, where("f_result", id),
 				new ModelField(ModelType.RESULT, "f_result"),
 				new ModelField(ModelType.IMPACT_CATEGORY, "f_impact_category"));
 	}
 
-	private void scanParameterRedefs(ModelType ownerType, Function<Long, Long> mediator) {
-		var query = "SELECT f_owner,name FROM tbl_parameter_redefs WHERE context_type IS NULL";
+	private void scanParameterRedefs(
+			ModelType ownerType, String where, TLongLongHashMap mediator) {
+		var params = nameToParameter();
+		var query = "SELECT f_owner, name FROM tbl_parameter_redefs WHERE context_type IS NULL";
+		if (where != null) {
+			query += " AND " + where;
+		}
 		NativeSql.on(database).query(query, rs -> {
 			var ownerId = rs.getLong(1);
-			var actualOwnerId = mediator.apply(ownerId);
-			if (actualOwnerId == null)
+			if (!mediator.containsKey(ownerId))
 				return true;
 			var name = rs.getString(2);
-			var parameterId = nameToParameter.get(name);
-			putRef(ownerType, ownerId, ModelType.PARAMETER, parameterId);
+			if (name == null || !params.containsKey(name))
+				return true;
+			putRef(ownerType, mediator.get(ownerId),
+					ModelType.PARAMETER, params.get(name));
 			return true;
 		});
 	}
 
-	private void scanTable(String table, boolean isRootEntity, ModelField source, ModelField... targets) {
-		scanTable(table, isRootEntity, null, source, targets);
+	private TObjectLongHashMap<String> nameToParameter() {
+		if (nameToParameter != null)
+			return nameToParameter;
+		nameToParameter = new TObjectLongHashMap<>();
+		var query = "SELECT id, name FROM tbl_parameters WHERE scope = 'GLOBAL'";
+		NativeSql.on(database).query(query, rs -> {
+			var name = rs.getString(2);
+			if (name != null) {
+				nameToParameter.put(name, rs.getLong(1));
+			}
+			return true;
+		});
+		return nameToParameter;
+	}
+
+	private static String where(String field, Long id) {
+		return id != null
+				? field + " = " + id
+				: null;
+	}
+
+	private void scanTable(String table, boolean isRootEntity, String where,
+			ModelField source, ModelField... targets) {
+		scanTable(table, isRootEntity, where, null, source, targets);
 	}
 
 	/**
 	 * if idField is not null, idField is queried additionally and a map between
-	 * the value of source.field and value of idField is returned, otherwise an
-	 * empty map
+	 * the value of idField and the value of source.field is returned, otherwise
+	 * an empty map
 	 */
-	private Map<Long, Long> scanTable(String table, boolean isRootEntity, String idField, ModelField source,
-			ModelField... targets) {
-		var targetFields = targets != null
-				? Arrays.stream(targets).map(t -> t.field).toArray(n -> new String[n])
-				: new String[0];
-		var map = new HashMap<Long, Long>();
-		query(table, isRootEntity, source, idField, targetFields, ids -> {
-			var col = 0;
-			var sourceId = ids[col++];
+	private TLongLongHashMap scanTable(String table, boolean isRootEntity,
+			String where, String idField, ModelField source, ModelField... targets) {
+		var fields = new ArrayList<String>();
+		fields.add(source.field);
+		if (idField != null) {
+			fields.add(idField);
+		}
+		for (var target : targets) {
+			fields.add(target.field);
+		}
+		var query = "SELECT " + String.join(",", fields)
+				+ (isRootEntity ? ",ref_id " : "")
+				+ " FROM " + table
+				+ (where != null ? " WHERE " + where : "");
+
+		var map = new TLongLongHashMap();
+		NativeSql.on(database).query(query, rs -> {
+			int col = 1;
+			var sourceId = rs.getLong(col++);
+			if (isRootEntity) {
+				putRefId(source.type, sourceId, rs.getString(fields.size() + 1));
+			}
 			if (idField != null) {
-				map.put(ids[col++], sourceId);
+				map.put(rs.getLong(col++), sourceId);
 			}
 			if (source.mediator != null) {
-				sourceId = source.mediator.apply(sourceId);
+				if (!source.mediator.containsKey(sourceId))
+					return true;
+				sourceId = source.mediator.get(sourceId);
 			}
-			if (targets == null)
-				return;
 			for (var target : targets) {
-				var targetId = ids[col++];
-				if (targetId == 0l)
+				var targetId = rs.getLong(col++);
+				if (targetId == 0L)
 					continue;
 				if (target.mediator != null) {
-					targetId = target.mediator.apply(targetId);
+					if (!target.mediator.containsKey(targetId))
+						continue;
+					targetId = target.mediator.get(targetId);
 				}
 				putRef(source.type, sourceId, target.type, targetId);
 			}
+			return true;
 		});
 		return map;
 	}
 
-	private void query(String table, boolean isRootEntity, ModelField sourceField, String idField, String[] targets,
-			ResultHandler handler) {
-		var fields = new ArrayList<String>();
-		fields.add(sourceField.field);
-		if (idField != null) {
-			fields.add(idField);
+	private void putRef(ModelType sourceType, long sourceId,
+			ModelType targetType, long targetId) {
+		var source = node(sourceType, sourceId);
+		var target = node(targetType, targetId);
+		add(references, source, target);
+		add(usages, target, source);
+	}
+
+	private static void add(
+			TLongObjectHashMap<TLongHashSet> map, long key, long value) {
+		var set = map.get(key);
+		if (set == null) {
+			set = new TLongHashSet(4);
+			map.put(key, set);
 		}
-		fields.addAll(Arrays.asList(targets));
-		var query = "SELECT " + fields.stream().collect(Collectors.joining(","))
-				+ (isRootEntity ? ",ref_id " : "")
-				+ " FROM " + table;
-		NativeSql.on(database).query(query, rs -> {
-			var ids = new long[fields.size()];
-			for (var i = 0; i < fields.size(); i++) {
-				ids[i] += rs.getLong(i + 1);
+		set.add(value);
+	}
+
+	private void putRefId(ModelType type, long id, String refId) {
+		if (refId == null)
+			return;
+		refIds.put(node(type, id), refId);
+		refIdToId.computeIfAbsent(type, t -> new TObjectLongHashMap<>())
+				.put(refId, id);
+	}
+
+	// endregion
+
+	// region: nodes
+
+	private static long node(ModelType type, long id) {
+		return ((long) type.ordinal() << 56) | (id & ID_MASK);
+	}
+
+	private static ModelType typeOf(long node) {
+		return ModelType.values()[(int) (node >>> 56)];
+	}
+
+	private static long idOf(long node) {
+		return node & ID_MASK;
+	}
+
+	/**
+	 * Reads the `last_change` stamps of the scanned models from the database.
+	 * This only reads the tables of the models and not their child tables.
+	 */
+	private static TLongLongHashMap stampsOf(IDatabase database) {
+		var stamps = new TLongLongHashMap();
+		for (var type : TYPES) {
+			var query = "SELECT id, last_change FROM " + tableOf(type);
+			if (type == ModelType.PARAMETER) {
+				query += " WHERE scope = 'GLOBAL'";
 			}
-			var id = ids[0];
-			if (isRootEntity) {
-				var refId = rs.getString(fields.size() + 1);
-				putRefId(sourceField.type, id, refId);
+			NativeSql.on(database).query(query, rs -> {
+				stamps.put(node(type, rs.getLong(1)), rs.getLong(2));
+				return true;
+			});
+		}
+		return stamps;
+	}
+
+	private static String tableOf(ModelType type) {
+		return switch (type) {
+			case LOCATION -> "tbl_locations";
+			case SOURCE -> "tbl_sources";
+			case ACTOR -> "tbl_actors";
+			case CURRENCY -> "tbl_currencies";
+			case UNIT_GROUP -> "tbl_unit_groups";
+			case FLOW_PROPERTY -> "tbl_flow_properties";
+			case DQ_SYSTEM -> "tbl_dq_systems";
+			case PARAMETER -> "tbl_parameters";
+			case SOCIAL_INDICATOR -> "tbl_social_indicators";
+			case IMPACT_CATEGORY -> "tbl_impact_categories";
+			case IMPACT_METHOD -> "tbl_impact_methods";
+			case RESULT -> "tbl_results";
+			case EPD -> "tbl_epds";
+			case FLOW -> "tbl_flows";
+			case PROCESS -> "tbl_processes";
+			case PRODUCT_SYSTEM -> "tbl_product_systems";
+			case PROJECT -> "tbl_projects";
+			default -> throw new IllegalArgumentException(
+					"no reference scan for " + type);
+		};
+	}
+
+	/**
+	 * Adds the nodes of the models that were added, changed, or deleted since
+	 * the graph was built, according to the given current stamps, to the
+	 * given set.
+	 */
+	private void collectChanged(TLongLongHashMap current, TLongHashSet nodes) {
+		current.forEachEntry((node, stamp) -> {
+			if (!stamps.containsKey(node) || stamps.get(node) != stamp) {
+				nodes.add(node);
+			}
+			return true;
+		});
+		stamps.forEachKey(node -> {
+			if (!current.containsKey(node)) {
+				nodes.add(node);
 			}
-			handler.handle(ids);
 			return true;
 		});
 	}
 
-	private void putRef(ModelType sourceType, long sourceId, ModelType targetType, long targetId) {
-		references.computeIfAbsent(sourceType, t -> new HashMap<>())
-				.computeIfAbsent(sourceId, t -> new EnumMap<>(ModelType.class))
-				.computeIfAbsent(targetType, t -> new HashSet<>())
-				.add(targetId);
-		usages.computeIfAbsent(targetType, t -> new HashMap<>())
-				.computeIfAbsent(targetId, t -> new EnumMap<>(ModelType.class))
-				.computeIfAbsent(sourceType, t -> new HashSet<>())
-				.add(sourceId);
+	// endregion
+
+	// region: persistence
+
+	private static File file() {
+		var repo = Repository.get();
+		if (repo == null)
+			return null;
+		var dir = repo.git.getDirectory();
+		return dir != null
+				? new File(dir, FILE_NAME)
+				: null;
+	}
+
+	private static ModelReferences read(File file, IDatabase database) {
+		if (!file.exists())
+			return null;
+		try (var stream = new FileInputStream(file);
+			 var buffer = new BufferedInputStream(stream);
+			 var in = new DataInputStream(buffer)) {
+			if (in.readInt() != MAGIC || in.readInt() != FILE_VERSION)
+				return null;
+			if (!database.getName().equals(in.readUTF()))
+				return null;
+			var graph = new ModelReferences(database);
+			int stampCount = in.readInt();
+			for (int i = 0; i < stampCount; i++) {
+				graph.stamps.put(in.readLong(), in.readLong());
+			}
+			int nodeCount = in.readInt();
+			for (int i = 0; i < nodeCount; i++) {
+				long node = in.readLong();
+				graph.putRefId(typeOf(node), idOf(node), in.readUTF());
+			}
+			int sourceCount = in.readInt();
+			for (int i = 0; i < sourceCount; i++) {
+				long source = in.readLong();
+				int targetCount = in.readInt();
+				for (int j = 0; j < targetCount; j++) {
+					long target = in.readLong();
+					add(graph.references, source, target);
+					add(graph.usages, target, source);
+				}
+			}
+			return graph;
+		} catch (Exception e) {
+			log.warn("failed to read model reference graph from " + file, e);
+			return null;
+		}
 	}
 
-	private void putRefId(ModelType type, long id, String refId) {
-		refIdToId.put(new TypedRefId(type, refId), id);
-		idToRefId.computeIfAbsent(type, t -> new HashMap<>()).put(id, refId);
+	private void write(File file) {
+		var tmp = new File(file.getParentFile(), FILE_NAME + ".tmp");
+		try (var stream = new FileOutputStream(tmp);
+			 var buffer = new BufferedOutputStream(stream);
+			 var out = new DataOutputStream(buffer)) {
+			out.writeInt(MAGIC);
+			out.writeInt(FILE_VERSION);
+			out.writeUTF(database.getName());
+			out.writeInt(stamps.size());
+			for (var it = stamps.iterator(); it.hasNext(); ) {
+				it.advance();
+				out.writeLong(it.key());
+				out.writeLong(it.value());
+			}
+			out.writeInt(refIds.size());
+			for (var it = refIds.iterator(); it.hasNext(); ) {
+				it.advance();
+				out.writeLong(it.key());
+				out.writeUTF(it.value());
+			}
+			out.writeInt(references.size());
+			for (var it = references.iterator(); it.hasNext(); ) {
+				it.advance();
+				out.writeLong(it.key());
+				var targets = it.value();
+				out.writeInt(targets.size());
+				for (var t = targets.iterator(); t.hasNext(); ) {
+					out.writeLong(t.next());
+				}
+			}
+		} catch (IOException e) {
+			log.error("failed to write model reference graph to " + file, e);
+			tmp.delete();
+			return;
+		}
+		try {
+			Files.move(tmp.toPath(), file.toPath(),
+					StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			log.error("failed to write model reference graph to " + file, e);
+		}
 	}
 
-	private class ModelField {
+	// endregion
+
+	private static class ModelField {
 
 		private final ModelType type;
 		private final String field;
-		private final Function<Long, Long> mediator;
+		private final TLongLongHashMap mediator;
 
 		private ModelField(ModelType type, String field) {
 			this(type, field, null);
 		}
 
-		private ModelField(ModelType type, String field, Function<Long, Long> mediator) {
+		private ModelField(ModelType type, String field, TLongLongHashMap mediator) {
 			this.type = type;
 			this.field = field;
 			this.mediator = mediator;
@@ -372,7 +799,7 @@ class ModelReferences {
 
 	}
 
-	public class ModelReference extends TypedRefId {
+	public static class ModelReference extends TypedRefId {
 
 		public final long id;
 
@@ -383,20 +810,4 @@ class ModelReferences {
 
 	}
 
-	private class ReferenceMap extends EnumMap<ModelType, Map<Long, EnumMap<ModelType, Set<Long>>>> {
-
-		private static final long serialVersionUID = 8651176950184800797L;
-
-		public ReferenceMap() {
-			super(ModelType.class);
-		}
-
-	}
-
-	private interface ResultHandler {
-
-		void handle(long[] ids);
-
-	}
-
 }
@@ -19,6 +19,7 @@ public class Ssl {
 	private static KeyStore keyStore;
 	private static CertificateFactory certificateFactory;
 	private static TrustManagerFactory trustManagerFactory;
+	private static volatile int version;
 
 	static {
 		try {
@@ -46,6 +47,14 @@ public class Ssl {
 		}
 	}
 
+	/**
+	 * Is incremented when the trusted certificates change, so that clients
+	 * with an outdated SSL context can be detected.
+	 */
+	static int version() {
+		return version;
+	}
+
 	public static void addCertificate(String name, InputStream stream) {
 		try {
 			var certificate = certificateFactory.generateCertificate(stream);
@@ -58,6 +67,7 @@ public class Ssl {
 	public static void addCertificate(String name, Certificate certificate) {
 		try {
 			keyStore.setCertificateEntry(name, certificate);
+			version++;
 		} catch (Exception e) {
 			log.error("Error adding certificate to keystore", e);
 		}
@@ -66,6 +76,7 @@ public class Ssl {
 	public static void removeCertificate(String name) {
 		try {
 			keyStore.deleteEntry(name);
+			version++;
 		} catch (Exception e) {
 			log.error("Error removing certificate from keystore", e);
 		}
@@ -5,6 +5,13 @@ import java.net.ConnectException;
 import java.net.SocketException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLHandshakeException;
@@ -25,14 +32,28 @@ import com.sun.jersey.api.client.ClientResponse.Status;
 import com.sun.jersey.api.client.WebResource.Builder;
 import com.sun.jersey.api.client.config.ClientConfig;
 import com.sun.jersey.api.client.config.DefaultClientConfig;
+import com.sun.jersey.api.client.filter.GZIPContentEncodingFilter;
 import com.sun.jersey.client.urlconnection.HTTPSProperties;
 
 public class WebRequests {
 
 	private static final Logger log = LoggerFactory.getLogger(WebRequests.class);
 
-	static {
-	}
+	/** The maximum number of redirects that are followed for a request. */
+	private static final int MAX_REDIRECTS = 5;
+
+	/** The maximum number of requests that are executed in parallel. */
+	public static final int MAX_PARALLEL = 4;
+
+	/**
+	 * The shared client. A Jersey client is thread-safe and expensive to
+	 * create; with a shared client, the underlying HTTP connections are kept
+	 * alive and reused for requests to the same server. It is created again
+	 * when the trusted certificates change.
+	 */
+	private static Client client;
+	private static int clientSslVersion = -1;
+	private static ExecutorService executor;
 
 	public static String encodeQuery(String query) {
 		try {
@@ -47,20 +68,76 @@ public class WebRequests {
 	}
 
 	public static ClientResponse call(Type type, String url, String sessionId, Object data) throws WebRequestException {
-		log.info(type.name() + " " + url);
-		var request = builder(url, sessionId, data);
-		try {
-			var response = call(type, request);
-			if (response.getStatus() >= 400 && response.getStatus() <= 599)
-				throw new WebRequestException(url, response);
-			if (response.getStatusInfo().getFamily() == Family.REDIRECTION)
-				return call(type, response.getLocation().toString(), sessionId, data);
-			return response;
-		} catch (Exception e) {
-			if (e instanceof WebRequestException)
-				throw e;
-			throw new WebRequestException(url, e);
+		var target = url;
+		for (var redirects = 0;; redirects++) {
+			log.info(type.name() + " " + target);
+			try {
+				var response = call(type, builder(target, sessionId, data));
+				if (response.getStatus() >= 400 && response.getStatus() <= 599)
+					throw new WebRequestException(target, response);
+				if (response.getStatusInfo().getFamily() != Family.REDIRECTION
+						|| response.getLocation() == null
+						|| redirects >= MAX_REDIRECTS)
+					return response;
+				target = response.getLocation().toString();
+				response.close();
+			} catch (Exception e) {
+				if (e instanceof WebRequestException)
+					throw e;
+				throw new WebRequestException(target, e);
+			}
+		}
+	}
+
+	/**
+	 * Executes the given requests in parallel, with at most
+	 * {@link #MAX_PARALLEL} requests at the same time, and returns their
+	 * results in the order of the requests. If a request fails, the first
+	 * error is thrown after all requests are finished.
+	 */
+	public static <T> List<T> parallel(List<Request<T>> requests) throws WebRequestException {
+		var results = new ArrayList<T>();
+		if (requests.size() == 1) {
+			results.add(requests.get(0).execute());
+			return results;
+		}
+		var futures = new ArrayList<Future<T>>();
+		var pool = executor();
+		for (var request : requests) {
+			futures.add(pool.submit(request::execute));
 		}
+		WebRequestException error = null;
+		for (var future : futures) {
+			try {
+				results.add(future.get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				futures.forEach(f -> f.cancel(true));
+				throw new WebRequestException(e);
+			} catch (ExecutionException e) {
+				results.add(null);
+				if (error != null)
+					continue;
+				error = e.getCause() instanceof WebRequestException w
+						? w
+						: new WebRequestException(e.getCause());
+			}
+		}
+		if (error != null)
+			throw error;
+		return results;
+	}
+
+	private static synchronized ExecutorService executor() {
+		if (executor != null)
+			return executor;
+		var count = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(MAX_PARALLEL, runnable -> {
+			var thread = new Thread(runnable, "web-request-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		return executor;
 	}
 
 	private static ClientResponse call(Type type, Builder builder) {
@@ -79,7 +156,7 @@ public class WebRequests {
 	}
 
 	private static Builder builder(String url, String sessionId, Object data) {
-		var resource = createClient().resource(url);
+		var resource = client().resource(url);
 		var builder = resource.accept(MediaType.APPLICATION_JSON_TYPE, MediaType.TEXT_PLAIN_TYPE,
 				MediaType.APPLICATION_OCTET_STREAM_TYPE);
 		builder.header("lca-cs-client-api-version", RepositoryClient.API_VERSION);
@@ -94,6 +171,15 @@ public class WebRequests {
 		return builder;
 	}
 
+	private static synchronized Client client() {
+		var sslVersion = Ssl.version();
+		if (client != null && clientSslVersion == sslVersion)
+			return client;
+		client = createClient();
+		clientSslVersion = sslVersion;
+		return client;
+	}
+
 	private static Client createClient() {
 		var config = new DefaultClientConfig();
 		var context = Ssl.createContext();
@@ -104,6 +190,8 @@ public class WebRequests {
 		config.getProperties().put(ClientConfig.PROPERTY_FOLLOW_REDIRECTS, false);
 		var client = Client.create(config);
 		client.setChunkedEncodingSize(1024 * 100); // 100kb
+		// accept compressed responses; the request entities are not compressed
+		client.addFilter(new GZIPContentEncodingFilter(false));
 		return client;
 	}
 
@@ -111,6 +199,13 @@ public class WebRequests {
 		GET, POST, PUT, DELETE;
 	}
 
+	@FunctionalInterface
+	public interface Request<T> {
+
+		T execute() throws WebRequestException;
+
+	}
+
 	public static class WebRequestException extends Exception {
 
 		private static final long serialVersionUID = 1423557937866180113L;
@@ -145,6 +240,11 @@ public class WebRequests {
 			this.errorCode = 500;
 		}
 
+		private WebRequestException(Throwable e) {
+			super(e);
+			this.errorCode = 500;
+		}
+
 		public int getErrorCode() {
 			return errorCode;
 		}
@@ -26,6 +26,7 @@ public class DiffNodeBuilder {
 		for (TriDiff diff : this.diffs.values()) {
 			build(diff);
 		}
+		RefJson.prefetch(this.diffs.values());
 		return root;
 	}
 
@@ -1,52 +1,170 @@
 package org.openlca.app.collaboration.viewers.diff;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jgit.lib.ObjectId;
 import org.openlca.app.collaboration.util.Json;
+import org.openlca.app.App;
 import org.openlca.app.collaboration.viewers.json.content.JsonNode;
+import org.openlca.app.db.Cache;
 import org.openlca.app.db.Database;
 import org.openlca.app.db.Repository;
 import org.openlca.core.database.Daos;
+import org.openlca.core.database.IDatabase;
 import org.openlca.core.model.ModelType;
-import org.openlca.core.model.RootEntity;
 import org.openlca.core.model.Version;
+import org.openlca.core.model.descriptors.RootDescriptor;
 import org.openlca.git.model.Reference;
 import org.openlca.jsonld.output.JsonExport;
+import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
+/**
+ * Provides the split JSON of data sets for the diff and merge viewers. Parsed
+ * data sets from the repository are cached by their object ID; local exports
+ * are cached by their database, type, and reference ID. As an export also
+ * contains data of referenced data sets (e.g. the names and units of the flows
+ * of a process), a local export is only reused as long as no model of the
+ * database was changed since the export, according to the change counter of
+ * the application cache, and the version and last change of the data set are
+ * the same. As the returned objects are modified when merging, the callers
+ * always get copies of the cached objects.
+ */
 class RefJson {
 
+	/** The maximum number of cached data sets, for each cache. */
+	private static final int MAX_CACHED = 500;
+
+	private static final int MAX_PREFETCH_THREADS = 4;
+
 	private static Gson gson = new Gson();
+	private static final Map<ObjectId, JsonObject> remoteCache = lru();
+	private static final Map<String, LocalJson> localCache = lru();
+
+	private static <K, V> Map<K, V> lru() {
+		return Collections.synchronizedMap(
+				new LinkedHashMap<>(16, 0.75f, true) {
+					@Override
+					protected boolean removeEldestEntry(Map.Entry<K, V> e) {
+						return size() > MAX_CACHED;
+					}
+				});
+	}
 
 	static JsonObject get(Reference ref) {
 		if (ref == null)
 			return null;
-		if (ref.objectId == null || ref.objectId.equals(ObjectId.zeroId()))
-			return getLocalJson(ref.type, ref.refId);
-		var json = gson.fromJson(Repository.get().datasets.get(ref), JsonObject.class);
-		if (json == null)
-			return null;
-		split(json, ref.type);
-		return json;
+		if (isLocal(ref))
+			return copy(getLocalJson(ref.type, ref.refId));
+		var json = remoteCache.get(ref.objectId);
+		if (json == null) {
+			json = gson.fromJson(Repository.get().datasets.get(ref), JsonObject.class);
+			if (json == null)
+				return null;
+			split(json, ref.type);
+			remoteCache.put(ref.objectId, json);
+		}
+		return copy(json);
+	}
+
+	private static boolean isLocal(Reference ref) {
+		return ref.objectId == null || ref.objectId.equals(ObjectId.zeroId());
+	}
+
+	private static JsonObject copy(JsonObject json) {
+		return json != null ? json.deepCopy() : null;
 	}
 
 	private static JsonObject getLocalJson(ModelType type, String refId) {
-		var entity = load(type, refId);
+		if (type == null || refId == null)
+			return null;
+		var db = Database.get();
+		if (db == null)
+			return null;
+		var key = db.getName() + "/" + type.name() + "/" + refId;
+		// read before the export, so that changes during the export are seen
+		long changes = Cache.changeCount();
+		var cached = localCache.get(key);
+		if (cached != null && cached.db == db && cached.changes == changes) {
+			var d = Daos.root(db, type).getDescriptorForRefId(refId);
+			if (cached.isValidFor(d))
+				return cached.json;
+		}
+		var entity = Daos.root(db, type).getForRefId(refId);
 		if (entity == null)
 			return null;
-		var json = JsonExport.toJson(entity, Database.get());
+		var json = JsonExport.toJson(entity, db);
 		split(json, type);
+		localCache.put(key, new LocalJson(
+				db, changes, entity.version, entity.lastChange, json));
 		return json;
 	}
 
-	private static RootEntity load(ModelType type, String refId) {
-		if (type == null || refId == null)
-			return null;
-		return Daos.root(Database.get(), type).getForRefId(refId);
+	/**
+	 * Exports the local states of the data sets of the given diffs that are
+	 * compared with the local database in a background job, so that they are
+	 * available from the cache when the user navigates through the diffs.
+	 * Not more than the maximum cache size are prefetched.
+	 */
+	static void prefetch(Collection<TriDiff> diffs) {
+		if (diffs == null || diffs.isEmpty() || Database.get() == null)
+			return;
+		var refs = new LinkedHashMap<String, Reference>();
+		for (var diff : diffs) {
+			if (refs.size() >= MAX_CACHED)
+				break;
+			if (diff.noAction() || diff.type == null || diff.refId == null)
+				continue;
+			if (isLocal(diff)
+					|| isLocal(diff.left())
+					|| isLocal(diff.right())) {
+				refs.putIfAbsent(diff.type.name() + "/" + diff.refId, diff);
+			}
+		}
+		if (refs.isEmpty())
+			return;
+		App.run("Prepare data sets for comparison", () -> {
+			int threads = Math.min(MAX_PREFETCH_THREADS,
+					Runtime.getRuntime().availableProcessors());
+			var pool = Executors.newFixedThreadPool(threads);
+			for (var ref : refs.values()) {
+				pool.submit(() -> {
+					try {
+						getLocalJson(ref.type, ref.refId);
+					} catch (Exception e) {
+						// the data set is then exported when it is compared
+						LoggerFactory.getLogger(RefJson.class)
+								.warn("failed to prefetch " + ref.path, e);
+					}
+				});
+			}
+			pool.shutdown();
+			try {
+				pool.awaitTermination(1, TimeUnit.HOURS);
+			} catch (InterruptedException e) {
+				pool.shutdownNow();
+				Thread.currentThread().interrupt();
+			}
+		});
+	}
+
+	private record LocalJson(IDatabase db, long changes, long version,
+			long lastChange, JsonObject json) {
+
+		boolean isValidFor(RootDescriptor d) {
+			return d != null
+					&& d.version == version
+					&& d.lastChange == lastChange;
+		}
 	}
 
 	private static void split(JsonObject json, ModelType type) {
@@ -1,13 +1,14 @@
 package org.openlca.app.db;
 
-import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.openlca.app.collaboration.navigation.actions.ModelReferences;
+import org.openlca.app.search.SearchIndex;
 import org.openlca.core.database.EntityCache;
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.matrix.cache.MatrixCache;
 import org.openlca.core.model.ModelType;
 import org.openlca.core.model.descriptors.Descriptor;
-import org.openlca.util.Categories;
 import org.openlca.util.Categories.PathBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,7 +22,16 @@ public final class Cache {
 	private static AppCache appCache = new AppCache();
 	private static EntityCache entityCache;
 	private static MatrixCache matrixCache;
-	private static PathBuilder pathCache;
+	private static SearchIndex searchIndex;
+	private static PathIndex pathIndex;
+
+	private static final AtomicLong pathHits = new AtomicLong();
+	private static final AtomicLong pathMisses = new AtomicLong();
+	private static final AtomicLong categoryPathHits = new AtomicLong();
+	private static final AtomicLong categoryPathMisses = new AtomicLong();
+	private static final AtomicLong entityEvictions = new AtomicLong();
+	private static final AtomicLong fullEvictions = new AtomicLong();
+	private static final AtomicLong changes = new AtomicLong();
 
 	private Cache() {
 	}
@@ -34,21 +44,83 @@ public final class Cache {
 		return matrixCache;
 	}
 
+	/**
+	 * Returns the category path builder of the currently opened database. It
+	 * is held by the shared path index and thus evicted together with it.
+	 */
 	public static PathBuilder getPathCache() {
-		if (pathCache == null) {
-			var db = Objects.requireNonNull(Database.get());
-			pathCache = Categories.pathsOf(db);
+		var index = pathIndex;
+		if (index == null)
+			throw new IllegalStateException("no database opened");
+		if (index.hasPathBuilder()) {
+			pathHits.incrementAndGet();
+		} else {
+			pathMisses.incrementAndGet();
 		}
-		return pathCache;
+		return index.pathBuilder();
+	}
+
+	/**
+	 * Returns the shared index of the category paths and location codes of the
+	 * currently opened database or `null` when no database is opened.
+	 */
+	public static PathIndex getPathIndex() {
+		return pathIndex;
+	}
+
+	/**
+	 * Returns the current counters of the cache management. They are logged
+	 * when the cache of a database is closed.
+	 */
+	public static Stats stats() {
+		return new Stats(
+				pathHits.get(),
+				pathMisses.get(),
+				categoryPathHits.get(),
+				categoryPathMisses.get(),
+				entityEvictions.get(),
+				fullEvictions.get());
+	}
+
+	/** Counts a path request of the path index. */
+	static void countCategoryPath(boolean hit) {
+		if (hit) {
+			categoryPathHits.incrementAndGet();
+		} else {
+			categoryPathMisses.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Returns a counter that is incremented whenever models are evicted from
+	 * or registered in the cache. Data that were derived from the database
+	 * outside of the cache can compare this counter to check if they are
+	 * still valid.
+	 */
+	public static long changeCount() {
+		return changes.get();
+	}
+
+	/**
+	 * Returns the full-text search index of the currently opened database or
+	 * `null` when no database is opened.
+	 */
+	public static SearchIndex getSearchIndex() {
+		return searchIndex;
 	}
 
 	public static void close() {
 		log.trace("close cache");
+		if (entityCache != null) {
+			log.info("close cache: {}", stats());
+		}
 		evictAll();
+		ModelReferences.reset();
 		entityCache = null;
 		matrixCache = null;
 		appCache = null;
-		pathCache = null;
+		searchIndex = null;
+		pathIndex = null;
 	}
 
 	/**
@@ -61,6 +133,8 @@ public final class Cache {
 		entityCache = EntityCache.create(database);
 		matrixCache = MatrixCache.createLazy(database);
 		appCache = new AppCache();
+		searchIndex = new SearchIndex(database);
+		pathIndex = new PathIndex(database);
 	}
 
 	public static AppCache getAppCache() {
@@ -71,34 +145,84 @@ public final class Cache {
 		if (d == null)
 			return;
 		log.trace("evict {} with ID {}", d.getClass(), d.id);
-		if (d.type == null)
+		changes.incrementAndGet();
+		if (searchIndex != null) {
+			searchIndex.update(d);
+		}
+		if (pathIndex != null) {
+			pathIndex.update(d);
+		}
+		LinkingProperties.evict(d);
+		CategoryDescriptors.evict(d);
+		ModelReferences.invalidate(d);
+		if (d.type == null) {
 			evictAll(); // to be on the save side
-		else if (shouldEvictAll(d.type)) {
-			if (entityCache != null)
-				entityCache.invalidateAll();
-			evictFromMatrices(d);
-		} else {
-			evictEntity(d);
-			evictFromMatrices(d);
+			return;
 		}
+		evictEntity(d);
+		if (hasDependents(d.type)) {
+			evictDependents(d);
+		}
+		evictFromMatrices(d);
 	}
 
-	private static boolean shouldEvictAll(ModelType type) {
+	/**
+	 * Returns true if other entities in the cache can embed models of the
+	 * given type, e.g. processes contain the flows of their exchanges.
+	 */
+	private static boolean hasDependents(ModelType type) {
 		return type == ModelType.UNIT_GROUP
 				|| type == ModelType.FLOW
 				|| type == ModelType.FLOW_PROPERTY
 				|| type == ModelType.CATEGORY;
 	}
 
+	/**
+	 * Evicts the entities that embed the given model from the entity cache. If
+	 * these dependents cannot be determined, the complete entity cache is
+	 * cleared.
+	 */
+	private static void evictDependents(Descriptor d) {
+		if (entityCache == null)
+			return;
+		var deps = CacheDependents.of(Database.get(), d);
+		if (deps == null) {
+			log.trace("clear entity cache for {} with ID {}", d.type, d.id);
+			fullEvictions.incrementAndGet();
+			entityCache.invalidateAll();
+			return;
+		}
+		for (var e : deps.entrySet()) {
+			var clazz = e.getKey().getModelClass();
+			if (clazz == null)
+				continue;
+			e.getValue().forEach(id -> {
+				entityCache.invalidate(clazz, id);
+				entityEvictions.incrementAndGet();
+				return true;
+			});
+		}
+	}
+
 	public static void evictAll() {
 		log.trace("evict all from caches");
+		fullEvictions.incrementAndGet();
+		changes.incrementAndGet();
 		if (entityCache != null) {
 			entityCache.invalidateAll();
 		}
 		if (matrixCache != null) {
 			matrixCache.evictAll();
 		}
-		pathCache = null;
+		if (searchIndex != null) {
+			searchIndex.invalidate();
+		}
+		if (pathIndex != null) {
+			pathIndex.invalidate();
+		}
+		LinkingProperties.evictAll();
+		CategoryDescriptors.evictAll();
+		ModelReferences.invalidateAll();
 	}
 
 	private static void evictEntity(Descriptor d) {
@@ -108,14 +232,13 @@ public final class Cache {
 		Class<?> clazz = d.getClass();
 		log.trace("evict from entity cache {} with id={}", clazz, id);
 		entityCache.invalidate(clazz, id);
+		entityEvictions.incrementAndGet();
 		if (d.type == null)
 			return;
 		clazz = d.type.getModelClass();
 		log.trace("evict from entity cache {} with id={}", clazz, id);
 		entityCache.invalidate(clazz, id);
-		if (d.type == ModelType.CATEGORY) {
-			pathCache = null;
-		}
+		entityEvictions.incrementAndGet();
 	}
 
 	private static void evictFromMatrices(Descriptor d) {
@@ -125,10 +248,47 @@ public final class Cache {
 	}
 
 	public static void registerNew(Descriptor descriptor) {
+		changes.incrementAndGet();
+		if (searchIndex != null) {
+			searchIndex.update(descriptor);
+		}
+		if (pathIndex != null) {
+			pathIndex.update(descriptor);
+		}
+		LinkingProperties.evict(descriptor);
+		CategoryDescriptors.evict(descriptor);
+		ModelReferences.invalidate(descriptor);
 		if (matrixCache == null)
 			return;
 		log.trace("register new model {}", descriptor);
 		matrixCache.registerNew(descriptor.type, descriptor.id);
 	}
 
+	/**
+	 * Counters of the cache management since the start of the application.
+	 * The entity cache of olca-core loads missing entities internally and does
+	 * not expose its hits and misses; for it, only the evictions are counted.
+	 *
+	 * @param pathHits           number of requests of the category path cache
+	 *                           that were served from the cache
+	 * @param pathMisses         number of times the category path cache was
+	 *                           built
+	 * @param categoryPathHits   number of category paths of the path index that
+	 *                           were served from its cache
+	 * @param categoryPathMisses number of category paths of the path index that
+	 *                           were calculated
+	 * @param entityEvictions    number of single entities that were evicted
+	 *                           from the entity cache
+	 * @param fullEvictions      number of times the complete entity cache was
+	 *                           cleared
+	 */
+	public record Stats(
+			long pathHits,
+			long pathMisses,
+			long categoryPathHits,
+			long categoryPathMisses,
+			long entityEvictions,
+			long fullEvictions) {
+	}
+
 }
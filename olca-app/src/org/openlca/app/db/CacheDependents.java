@@ -0,0 +1,184 @@
+package org.openlca.app.db;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.persistence.Table;
+
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.NativeSql;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.descriptors.CategoryDescriptor;
+import org.openlca.core.model.descriptors.Descriptor;
+
+import gnu.trove.set.hash.TLongHashSet;
+
+/**
+ * Collects the IDs of the cached entities that embed a changed model. For
+ * example, a process in the entity cache holds the flow objects of its
+ * exchanges; when a flow is changed, only the processes, LCIA categories, etc.
+ * that use this flow need to be invalidated and not the complete cache.
+ * <p>
+ * Dependents are only resolved for flows and categories. For unit groups and
+ * flow properties almost every flow and thus almost every process depends on
+ * them, so that clearing the cache is cheaper there.
+ */
+final class CacheDependents {
+
+	/**
+	 * If a model has more dependents than this, it is cheaper to clear the
+	 * complete cache than evicting all these entities one by one.
+	 */
+	static final int MAX_DEPENDENTS = 10_000;
+
+	private final IDatabase db;
+	private final Map<ModelType, TLongHashSet> ids = new EnumMap<>(ModelType.class);
+	private int count;
+
+	private CacheDependents(IDatabase db) {
+		this.db = db;
+	}
+
+	/**
+	 * Returns the dependents of the given model by their types or `null` when
+	 * they could not be determined; in this case the complete cache should be
+	 * cleared.
+	 */
+	static Map<ModelType, TLongHashSet> of(IDatabase db, Descriptor d) {
+		if (db == null || d == null || d.type == null)
+			return null;
+		var deps = new CacheDependents(db);
+		try {
+			boolean ok = switch (d.type) {
+				case FLOW -> deps.ofFlow(d.id);
+				case CATEGORY -> deps.ofCategory(d);
+				default -> false;
+			};
+			return ok && deps.count <= MAX_DEPENDENTS
+					? deps.ids
+					: null;
+		} catch (Exception e) {
+			// if a query fails, we fall back to clearing the cache
+			return null;
+		}
+	}
+
+	private boolean ofFlow(long flowId) {
+		collect(ModelType.PROCESS,
+				"select distinct f_owner from tbl_exchanges where f_flow = " + flowId);
+		collect(ModelType.IMPACT_CATEGORY,
+				"select distinct f_impact_category from tbl_impact_factors"
+						+ " where f_flow = " + flowId);
+		collect(ModelType.IMPACT_METHOD,
+				"select distinct l.f_impact_method from tbl_impact_links l"
+						+ " inner join tbl_impact_factors f"
+						+ " on l.f_impact_category = f.f_impact_category"
+						+ " where f.f_flow = " + flowId);
+		collect(ModelType.PRODUCT_SYSTEM,
+				"select s.id from tbl_product_systems s"
+						+ " inner join tbl_exchanges e"
+						+ " on s.f_reference_exchange = e.id"
+						+ " where e.f_flow = " + flowId);
+		collect(ModelType.RESULT,
+				"select distinct f_result from tbl_flow_results"
+						+ " where f_flow = " + flowId);
+		collect(ModelType.EPD,
+				"select id from tbl_epds where f_flow = " + flowId);
+		return true;
+	}
+
+	/**
+	 * The models of a category and of all categories below it hold the path to
+	 * that category. Thus, the complete sub-tree of the category is collected
+	 * first and then the models in these categories. The parent category holds
+	 * the category in its child categories and is collected too; callers that
+	 * move a category need to evict the old parent separately, as only the
+	 * current parent is known here.
+	 */
+	private boolean ofCategory(Descriptor d) {
+		if (!(d instanceof CategoryDescriptor cd) || cd.categoryType == null)
+			return false;
+		var clazz = cd.categoryType.getModelClass();
+		if (clazz == null || !clazz.isAnnotationPresent(Table.class))
+			return false;
+		var table = clazz.getAnnotation(Table.class).name();
+
+		var tree = new TLongHashSet();
+		tree.add(d.id);
+		var level = new TLongHashSet(tree);
+		while (!level.isEmpty()) {
+			var next = new TLongHashSet();
+			for (var chunk : chunksOf(level)) {
+				NativeSql.on(db).query(
+						"select id from tbl_categories where f_category in " + chunk,
+						r -> {
+							long id = r.getLong(1);
+							if (tree.add(id)) {
+								next.add(id);
+							}
+							return true;
+						});
+			}
+			if (tree.size() > MAX_DEPENDENTS)
+				return false;
+			level = next;
+		}
+
+		tree.remove(d.id);
+		if (!tree.isEmpty()) {
+			ids.computeIfAbsent(ModelType.CATEGORY, t -> new TLongHashSet())
+					.addAll(tree);
+			count += tree.size();
+		}
+		var parents = ids.computeIfAbsent(
+				ModelType.CATEGORY, t -> new TLongHashSet());
+		if (cd.category != null && parents.add(cd.category)) {
+			count++;
+		}
+		collect(ModelType.CATEGORY,
+				"select f_category from tbl_categories where id = " + d.id
+						+ " and f_category is not null");
+		tree.add(d.id);
+		for (var chunk : chunksOf(tree)) {
+			collect(cd.categoryType,
+					"select id from " + table + " where f_category in " + chunk);
+		}
+		return true;
+	}
+
+	/**
+	 * Splits the given IDs into SQL lists, e.g. `(1,2,3)`, of at most 1000
+	 * IDs.
+	 */
+	private static List<String> chunksOf(TLongHashSet set) {
+		var chunks = new ArrayList<String>();
+		var buffer = new StringBuilder();
+		int n = 0;
+		var it = set.iterator();
+		while (it.hasNext()) {
+			buffer.append(n == 0 ? "(" : ",").append(it.next());
+			n++;
+			if (n == 1000) {
+				chunks.add(buffer.append(')').toString());
+				buffer.setLength(0);
+				n = 0;
+			}
+		}
+		if (n > 0) {
+			chunks.add(buffer.append(')').toString());
+		}
+		return chunks;
+	}
+
+	private void collect(ModelType type, String sql) {
+		var set = ids.computeIfAbsent(type, t -> new TLongHashSet());
+		NativeSql.on(db).query(sql, r -> {
+			if (set.add(r.getLong(1))) {
+				count++;
+			}
+			return count <= MAX_DEPENDENTS;
+		});
+	}
+}
@@ -0,0 +1,236 @@
+package org.openlca.app.db;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+import jakarta.persistence.Table;
+
+import org.openlca.core.database.Daos;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.NativeSql;
+import org.openlca.core.model.Category;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.descriptors.Descriptor;
+import org.openlca.core.model.descriptors.RootDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gnu.trove.map.hash.TLongIntHashMap;
+import gnu.trove.map.hash.TLongLongHashMap;
+
+/**
+ * Caches the descriptors of the models in the categories of the active
+ * database, e.g. for the child elements of the navigation tree. The lists are
+ * loaded per category and invalidated via the application cache when a model
+ * of a category is created, changed, or deleted; so that expanding a category
+ * again does not query the database.
+ * <p>
+ * Additionally, the number of models per category of a model type can be
+ * queried with a single statement. These counts are available before the
+ * descriptors of a category are loaded.
+ */
+public final class CategoryDescriptors {
+
+	/** The key of the models without category. */
+	private static final long ROOT = 0L;
+
+	private static final Object lock = new Object();
+	private static IDatabase db;
+	private static final EnumMap<ModelType, TypeCache> caches =
+			new EnumMap<>(ModelType.class);
+
+	/**
+	 * Is incremented when entries are evicted so that results that were loaded
+	 * concurrently to an eviction are not cached.
+	 */
+	private static long generation;
+
+	private CategoryDescriptors() {
+	}
+
+	/**
+	 * Returns the descriptors of the models of the given type in the given
+	 * category; `null` means the models without category. The returned list is
+	 * immutable.
+	 */
+	public static List<RootDescriptor> of(ModelType type, Category category) {
+		if (type == null)
+			return List.of();
+		var database = Database.get();
+		if (database == null)
+			return List.of();
+		long key = keyOf(category);
+		long gen;
+		synchronized (lock) {
+			var cache = cacheOf(database, type);
+			var list = cache.lists.get(key);
+			if (list != null)
+				return list;
+			gen = generation;
+		}
+
+		// load the descriptors outside of the lock
+		var dao = Daos.root(database, type);
+		if (dao == null)
+			return List.of();
+		List<RootDescriptor> list = List.copyOf(
+				dao.getDescriptors(Optional.ofNullable(category)));
+
+		synchronized (lock) {
+			if (gen != generation || database != db)
+				return list;
+			var cache = cacheOf(database, type);
+			cache.lists.put(key, list);
+			for (var d : list) {
+				cache.owners.put(d.id, key);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Returns true if the descriptors of the given type and category are
+	 * cached, and thus, can be returned directly via
+	 * {@link #of(ModelType, Category)}.
+	 */
+	public static boolean isLoaded(ModelType type, Category category) {
+		if (type == null)
+			return true;
+		var database = Database.get();
+		if (database == null)
+			return true;
+		synchronized (lock) {
+			return cacheOf(database, type).lists.containsKey(keyOf(category));
+		}
+	}
+
+	/**
+	 * Returns the number of models of the given type in the given category
+	 * without loading their descriptors. Returns -1 when the number is not
+	 * known.
+	 */
+	public static int countOf(ModelType type, Category category) {
+		if (type == null || type == ModelType.PARAMETER)
+			return -1;
+		var database = Database.get();
+		if (database == null)
+			return -1;
+		long gen;
+		synchronized (lock) {
+			var cache = cacheOf(database, type);
+			if (cache.counts != null)
+				return cache.counts.get(keyOf(category));
+			gen = generation;
+		}
+
+		var counts = loadCounts(database, type);
+		if (counts == null)
+			return -1;
+		synchronized (lock) {
+			if (gen == generation && database == db) {
+				cacheOf(database, type).counts = counts;
+			}
+		}
+		return counts.get(keyOf(category));
+	}
+
+	private static TLongIntHashMap loadCounts(IDatabase db, ModelType type) {
+		var clazz = type.getModelClass();
+		if (clazz == null || !clazz.isAnnotationPresent(Table.class))
+			return null;
+		var table = clazz.getAnnotation(Table.class).name();
+		var sql = "select f_category, count(*) from " + table
+				+ " group by f_category";
+		var counts = new TLongIntHashMap();
+		try {
+			NativeSql.on(db).query(sql, r -> {
+				counts.put(r.getLong(1), r.getInt(2));
+				return true;
+			});
+			return counts;
+		} catch (Exception e) {
+			Logger log = LoggerFactory.getLogger(CategoryDescriptors.class);
+			log.error("failed to count models in " + table, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Removes the lists from the cache that could contain the given model: the
+	 * list of the category in which it was cached and the list of its current
+	 * category.
+	 */
+	static void evict(Descriptor d) {
+		if (d == null || d.type == null || d.type == ModelType.CATEGORY) {
+			evictAll();
+			return;
+		}
+		synchronized (lock) {
+			generation++;
+			var cache = caches.get(d.type);
+			if (cache == null)
+				return;
+			cache.counts = null;
+			if (cache.owners.containsKey(d.id)) {
+				cache.lists.remove(cache.owners.remove(d.id));
+			}
+			if (d instanceof RootDescriptor rd) {
+				long key = rd.category != null
+						? rd.category
+						: ROOT;
+				cache.lists.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Removes all cached lists of the given model type, e.g. when the content
+	 * of the navigation tree is refreshed for that type.
+	 */
+	public static void evictAll(ModelType type) {
+		if (type == null) {
+			evictAll();
+			return;
+		}
+		synchronized (lock) {
+			generation++;
+			caches.remove(type);
+		}
+	}
+
+	public static void evictAll() {
+		synchronized (lock) {
+			generation++;
+			caches.clear();
+			db = null;
+		}
+	}
+
+	private static TypeCache cacheOf(IDatabase database, ModelType type) {
+		if (database != db) {
+			caches.clear();
+			db = database;
+		}
+		return caches.computeIfAbsent(type, t -> new TypeCache());
+	}
+
+	private static long keyOf(Category category) {
+		return category != null
+				? category.id
+				: ROOT;
+	}
+
+	private static class TypeCache {
+
+		/** Category ID -> the descriptors of that category. */
+		final HashMap<Long, List<RootDescriptor>> lists = new HashMap<>();
+
+		/** Model ID -> the category key of the list that contains the model. */
+		final TLongLongHashMap owners = new TLongLongHashMap();
+
+		/** Category ID -> the number of models in that category. */
+		TLongIntHashMap counts;
+	}
+}
@@ -0,0 +1,321 @@
+package org.openlca.app.db;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.compress.archivers.zip.ParallelScatterZipCreator;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.openlca.core.database.IDatabase;
+import org.openlca.util.Dirs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates and restores zolca backups of Derby databases. The files of a
+ * database are compressed and decompressed in parallel, one file per task,
+ * and the progress is reported in bytes. An open database is not closed for
+ * a backup: a snapshot of it is created with the online backup of Derby
+ * first, so that it can be used while the backup is running.
+ */
+public class DatabaseBackup {
+
+	/**
+	 * The files and folders of Derby in a database folder. `BACKUP.HISTORY` is
+	 * written by the online backup into the live folder and is also contained
+	 * in the snapshot.
+	 */
+	private static final Set<String> DERBY_FILES = Set.of(
+			"seg0", "log", "jar", "tmp", "service.properties",
+			"db.lck", "dbex.lck", "README_DO_NOT_TOUCH_FILES.txt",
+			"BACKUP.HISTORY");
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final IProgressMonitor monitor;
+	private final int threads;
+
+	private long total;
+	private long done;
+	private int worked;
+
+	private DatabaseBackup(IProgressMonitor monitor) {
+		this.monitor = monitor;
+		this.threads = Math.max(
+				1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+	}
+
+	/**
+	 * Writes a backup of the Derby database with the given name to the given
+	 * zolca file. If the database is open, the given instance is used to
+	 * create an online backup; otherwise it should be `null`. Throws an
+	 * `OperationCanceledException` when the backup was canceled.
+	 */
+	public static void create(String name, IDatabase openDb, File zolca,
+			IProgressMonitor monitor) throws Exception {
+		new DatabaseBackup(monitor).pack(name, openDb, zolca);
+	}
+
+	/**
+	 * Extracts the given zolca file into the given database folder. Throws an
+	 * `OperationCanceledException` when the restore was canceled; the folder
+	 * is deleted then.
+	 */
+	public static void restore(File zolca, File folder,
+			IProgressMonitor monitor) throws Exception {
+		new DatabaseBackup(monitor).unpack(zolca, folder);
+	}
+
+	private void pack(String name, IDatabase openDb, File zolca)
+			throws Exception {
+		var folder = DatabaseDir.getRootFolder(name).toPath();
+		Path tempDir = null;
+		try {
+			var files = new ArrayList<Source>();
+			if (openDb != null) {
+				monitor.beginTask("Create snapshot of " + name,
+						IProgressMonitor.UNKNOWN);
+				tempDir = Files.createTempDirectory("olca-backup");
+				var snapshot = snapshotOf(openDb, tempDir);
+				collect(snapshot, files, path -> false);
+				collect(folder, files, path -> DERBY_FILES.contains(rootOf(path)));
+			} else {
+				collect(folder, files, path -> false);
+			}
+			if (monitor.isCanceled())
+				throw new OperationCanceledException();
+
+			total = files.stream().mapToLong(Source::size).sum();
+			monitor.beginTask("Compress database " + name, 1000);
+			var pool = Executors.newFixedThreadPool(threads, threadsOf("zolca-pack"));
+			var zip = new ParallelScatterZipCreator(pool);
+			for (var f : files) {
+				var entry = new ZipArchiveEntry(f.entry());
+				entry.setMethod(ZipEntry.DEFLATED);
+				entry.setTime(f.file().toFile().lastModified());
+				zip.addArchiveEntry(entry, () -> {
+					try {
+						return new Counting(Files.newInputStream(f.file()));
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			}
+			try (var out = new ZipArchiveOutputStream(zolca)) {
+				zip.writeTo(out);
+			} finally {
+				pool.shutdownNow();
+			}
+			if (monitor.isCanceled())
+				throw new OperationCanceledException();
+			log.info("created backup of {}: {}", name, zip.getStatisticsMessage());
+		} catch (Exception e) {
+			Files.deleteIfExists(zolca.toPath());
+			throw canceledOr(e);
+		} finally {
+			if (tempDir != null) {
+				Dirs.delete(tempDir.toFile());
+			}
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Creates a snapshot of the given database in the given folder with the
+	 * online backup of Derby and returns the database folder of the snapshot.
+	 */
+	private Path snapshotOf(IDatabase db, Path dir) throws Exception {
+		try (var con = db.createConnection();
+				 var call = con.prepareCall(
+						 "CALL SYSCS_UTIL.SYSCS_BACKUP_DATABASE(?)")) {
+			call.setString(1, dir.toAbsolutePath().toString());
+			call.execute();
+		}
+		// Derby writes the backup into a sub-folder with the database name
+		try (var children = Files.list(dir)) {
+			return children.filter(Files::isDirectory)
+					.findFirst()
+					.orElseThrow(() -> new IOException(
+							"no database backup created in " + dir));
+		}
+	}
+
+	private void collect(Path folder, List<Source> files,
+			Predicate<Path> skip) throws IOException {
+		if (!Files.exists(folder))
+			return;
+		Files.walkFileTree(folder, new SimpleFileVisitor<>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+				var relative = folder.relativize(file);
+				if (skip.test(relative) || isRepository(relative))
+					return FileVisitResult.CONTINUE;
+				var entry = relative.toString().replace("\\", "/");
+				files.add(new Source(entry, file, attrs.size()));
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	private static String rootOf(Path relative) {
+		return relative.getNameCount() > 0
+				? relative.getName(0).toString()
+				: "";
+	}
+
+	private static boolean isRepository(Path relative) {
+		return relative.getNameCount() > 1
+				&& DatabaseDir.FILE_STORAGE.equals(relative.getName(0).toString())
+				&& Repository.GIT_DIR.equals(relative.getName(1).toString());
+	}
+
+	private void unpack(File zolca, File folder) throws Exception {
+		var root = folder.toPath().toAbsolutePath().normalize();
+		var pool = Executors.newFixedThreadPool(threads, threadsOf("zolca-unpack"));
+		try (var zip = new ZipFile(zolca)) {
+			var entries = Collections.list(zip.entries());
+			total = entries.stream()
+					.mapToLong(e -> Math.max(0, e.getSize()))
+					.sum();
+			monitor.beginTask("Extract " + zolca.getName(), 1000);
+			Files.createDirectories(root);
+
+			var futures = new ArrayList<Future<?>>();
+			for (var entry : entries) {
+				var target = root.resolve(entry.getName()).normalize();
+				if (!target.startsWith(root))
+					throw new IOException("invalid entry in zolca file: "
+							+ entry.getName());
+				if (entry.isDirectory()) {
+					Files.createDirectories(target);
+					continue;
+				}
+				futures.add(pool.submit(() -> {
+					extract(zip, entry, target);
+					return null;
+				}));
+			}
+			await(futures);
+			if (monitor.isCanceled())
+				throw new OperationCanceledException();
+		} catch (Exception e) {
+			pool.shutdownNow();
+			Dirs.delete(folder);
+			throw canceledOr(e);
+		} finally {
+			pool.shutdownNow();
+			monitor.done();
+		}
+	}
+
+	private void extract(ZipFile zip, ZipEntry entry, Path target)
+			throws IOException {
+		Files.createDirectories(target.getParent());
+		try (var in = new Counting(zip.getInputStream(entry))) {
+			Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+		if (entry.getTime() >= 0) {
+			target.toFile().setLastModified(entry.getTime());
+		}
+	}
+
+	private void await(List<Future<?>> futures) throws Exception {
+		for (var future : futures) {
+			try {
+				future.get();
+			} catch (ExecutionException e) {
+				futures.forEach(f -> f.cancel(true));
+				if (e.getCause() instanceof Exception cause)
+					throw cause;
+				throw e;
+			}
+		}
+	}
+
+	private Exception canceledOr(Exception e) {
+		return monitor.isCanceled()
+				? new OperationCanceledException()
+				: e;
+	}
+
+	private static ThreadFactory threadsOf(String name) {
+		var count = new AtomicInteger();
+		return r -> {
+			var thread = new Thread(r, name + "-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/** Reports the read bytes to the progress monitor. */
+	private synchronized void progress(long bytes) {
+		done += bytes;
+		int units = total > 0
+				? (int) Math.min(1000, done * 1000 / total)
+				: 0;
+		if (units > worked) {
+			monitor.worked(units - worked);
+			worked = units;
+			monitor.subTask(String.format("%.1f of %.1f MB",
+					done / 1e6, total / 1e6));
+		}
+	}
+
+	private record Source(String entry, Path file, long size) {
+	}
+
+	/**
+	 * Counts the bytes that are read from a stream and stops the reading when
+	 * the operation was canceled.
+	 */
+	private class Counting extends FilterInputStream {
+
+		Counting(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b >= 0) {
+				progress(1);
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] buffer, int off, int len) throws IOException {
+			if (monitor.isCanceled())
+				throw new IOException("canceled");
+			int n = super.read(buffer, off, Math.min(len, BUFFER_SIZE));
+			if (n > 0) {
+				progress(n);
+			}
+			return n;
+		}
+	}
+}
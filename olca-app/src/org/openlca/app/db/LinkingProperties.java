@@ -1,18 +1,35 @@
 package org.openlca.app.db;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
 
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.database.NativeSql;
-import org.openlca.core.matrix.cache.FlowTable;
-import org.openlca.core.matrix.cache.ProcessTable;
 import org.openlca.core.model.FlowType;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.descriptors.Descriptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import gnu.trove.map.hash.TLongLongHashMap;
+import gnu.trove.set.hash.TLongHashSet;
+
 public class LinkingProperties {
 
+	/**
+	 * The result of the last check. It is only used while the change counter of
+	 * the application cache and the fingerprint of the scanned tables are the
+	 * same as when the check was executed.
+	 */
+	private static volatile Cached cached;
+
 	/**
 	 * Contains the IDs of product or waste flows that have more than one
 	 * provider. If this set is empty, there are no such flows in the database.
@@ -27,67 +44,247 @@ public class LinkingProperties {
 	public final Set<Long> processesWithoutProviders = new HashSet<>();
 
 	public static LinkingProperties check(IDatabase db) {
-		LinkingProperties props = new LinkingProperties();
+		var props = check(db, () -> false);
+		return props != null
+				? props
+				: new LinkingProperties();
+	}
+
+	/**
+	 * Runs the linking check on the given database. The result is cached until
+	 * models of the database are changed. Each call returns a new instance
+	 * that can be modified by the caller. Returns `null` when the check was
+	 * canceled via the given function.
+	 */
+	public static LinkingProperties check(
+			IDatabase db, BooleanSupplier isCanceled) {
 		if (db == null)
-			return props;
-		new Check(db).doIt(props);
-		return props;
+			return new LinkingProperties();
+		long changes = Cache.changeCount();
+		var fingerprint = fingerprintOf(db);
+		var c = cached;
+		if (c != null
+				&& c.db == db
+				&& c.changes == changes
+				&& c.fingerprint.equals(fingerprint))
+			return c.props.copy();
+		var props = new Check(db, isCanceled).doIt();
+		if (props == null)
+			return null;
+		cached = new Cached(db, changes, fingerprint, props);
+		return props.copy();
 	}
 
+	private LinkingProperties copy() {
+		var copy = new LinkingProperties();
+		copy.multiProviderFlows.addAll(multiProviderFlows);
+		copy.processesWithoutProviders.addAll(processesWithoutProviders);
+		return copy;
+	}
+
+	/**
+	 * A cheap summary of the tables that are scanned in the check. It detects
+	 * changes that were not registered in the application cache, like inserted
+	 * or deleted exchanges; updates of single exchange fields via SQL are not
+	 * detected and need to be registered via `Cache.evictAll()`.
+	 */
+	private static String fingerprintOf(IDatabase db) {
+		var b = new StringBuilder();
+		var queries = new String[]{
+				"select count(*), max(id) from tbl_exchanges",
+				"select count(*), max(last_change) from tbl_processes",
+				"select count(*), max(last_change) from tbl_flows"};
+		for (var query : queries) {
+			NativeSql.on(db).query(query, r -> {
+				b.append(r.getLong(1)).append(',').append(r.getLong(2)).append(';');
+				return false;
+			});
+		}
+		return b.toString();
+	}
+
+	/**
+	 * Invalidates the cached check result if the given model can change the
+	 * linking properties of the database.
+	 */
+	static void evict(Descriptor d) {
+		if (d == null
+				|| d.type == null
+				|| d.type == ModelType.PROCESS
+				|| d.type == ModelType.FLOW) {
+			evictAll();
+		}
+	}
+
+	static void evictAll() {
+		cached = null;
+	}
+
+	private record Cached(
+			IDatabase db, long changes, String fingerprint, LinkingProperties props) {
+	}
+
+	/**
+	 * Scans the exchange table in ID-range partitions in parallel. The flow
+	 * types and process IDs are loaded into primitive sets before the scan, so
+	 * that only the rows of the current result set are held in memory.
+	 */
 	private static class Check {
 
 		final IDatabase db;
-		final FlowTable flowTypes;
-		final ProcessTable processes;
+		final BooleanSupplier isCanceled;
+		final AtomicBoolean canceled = new AtomicBoolean();
 
-		Check(IDatabase db) {
-			this.db = db;
-			flowTypes = FlowTable.create(db);
-			processes = ProcessTable.create(db);
-		}
+		final TLongHashSet products = new TLongHashSet();
+		final TLongHashSet wastes = new TLongHashSet();
+		final TLongHashSet processes = new TLongHashSet();
 
-		void doIt(LinkingProperties props) {
-			checkMultiProviders(props);
-			checkUnlinkedProcesses(props);
+		Check(IDatabase db, BooleanSupplier isCanceled) {
+			this.db = db;
+			this.isCanceled = isCanceled;
 		}
 
-		void checkUnlinkedProcesses(LinkingProperties props) {
+		LinkingProperties doIt() {
 			try {
-				String sql = "select f_owner, f_flow, is_input, f_default_provider "
-						+ " from tbl_exchanges";
-				NativeSql.on(db).query(sql, r -> {
-					long flowID = r.getLong(2);
-					FlowType type = flowTypes.type(flowID);
-					boolean isInput = r.getBoolean(3);
-					if (!canHaveProvider(type, isInput))
-						return true;
-					long providerID = r.getLong(4);
-					if (providerID == 0
-							|| processes.getType(providerID) == null) {
-						props.processesWithoutProviders.add(r.getLong(1));
-					}
-					return true;
-				});
+				loadFlowTypes();
+				loadProcesses();
+				if (isCanceled())
+					return null;
+				var partitions = partitions();
+				var results = scan(partitions);
+				if (results == null || isCanceled())
+					return null;
+				return merge(results);
 			} catch (Exception e) {
 				error("Failed to scan exchanges table", e);
+				return null;
+			}
+		}
+
+		private void loadFlowTypes() {
+			String sql = "select id, flow_type from tbl_flows";
+			NativeSql.on(db).query(sql, r -> {
+				var type = r.getString(2);
+				if (FlowType.PRODUCT_FLOW.name().equals(type)) {
+					products.add(r.getLong(1));
+				} else if (FlowType.WASTE_FLOW.name().equals(type)) {
+					wastes.add(r.getLong(1));
+				}
+				return true;
+			});
+		}
+
+		private void loadProcesses() {
+			String sql = "select id from tbl_processes";
+			NativeSql.on(db).query(sql, r -> {
+				processes.add(r.getLong(1));
+				return true;
+			});
+		}
+
+		/**
+		 * Splits the ID range of the exchange table into partitions of
+		 * similar size: `[start, end)`.
+		 */
+		private List<long[]> partitions() {
+			var range = new long[]{0, -1};
+			String sql = "select min(id), max(id) from tbl_exchanges";
+			NativeSql.on(db).query(sql, r -> {
+				range[0] = r.getLong(1);
+				range[1] = r.getLong(2);
+				return false;
+			});
+			var partitions = new ArrayList<long[]>();
+			if (range[1] < range[0])
+				return partitions;
+			int n = Runtime.getRuntime().availableProcessors();
+			long size = Math.max(1, (range[1] - range[0] + 1) / n + 1);
+			for (long start = range[0]; start <= range[1]; start += size) {
+				partitions.add(new long[]{start, start + size});
 			}
+			return partitions;
 		}
 
-		void checkMultiProviders(LinkingProperties props) {
-			for (var products : processes.getProviders()) {
-				long flowID = products.flowId();
-				var providers = processes.getProviders(flowID);
-				if (providers != null && providers.size() > 1) {
-					props.multiProviderFlows.add(flowID);
+		private List<Partition> scan(List<long[]> ranges) throws Exception {
+			var results = new ArrayList<Partition>();
+			if (ranges.isEmpty())
+				return results;
+			ExecutorService pool = Executors.newFixedThreadPool(ranges.size());
+			try {
+				var futures = new ArrayList<Future<Partition>>();
+				for (var range : ranges) {
+					futures.add(pool.submit(() -> scan(range)));
+				}
+				for (var future : futures) {
+					results.add(future.get());
 				}
+			} finally {
+				pool.shutdownNow();
 			}
+			return results;
 		}
 
-		boolean canHaveProvider(FlowType type, boolean isInput) {
-			if (isInput && type == FlowType.PRODUCT_FLOW)
+		private Partition scan(long[] range) {
+			var part = new Partition();
+			String sql = "select f_owner, f_flow, is_input, f_default_provider "
+					+ " from tbl_exchanges where id >= " + range[0]
+					+ " and id < " + range[1];
+			NativeSql.on(db).query(sql, r -> {
+				if (isCanceled())
+					return false;
+				long owner = r.getLong(1);
+				long flowID = r.getLong(2);
+				boolean isInput = r.getBoolean(3);
+				boolean isProduct = products.contains(flowID);
+				boolean isWaste = !isProduct && wastes.contains(flowID);
+				if (!isProduct && !isWaste)
+					return true;
+
+				// product outputs and waste inputs are provider flows
+				if (isInput == isWaste) {
+					part.addProvider(flowID, owner);
+					return true;
+				}
+
+				// product inputs and waste outputs need a provider
+				long providerID = r.getLong(4);
+				if (providerID == 0 || !processes.contains(providerID)) {
+					part.unlinked.add(owner);
+				}
 				return true;
-			if (!isInput && type == FlowType.WASTE_FLOW)
+			});
+			return part;
+		}
+
+		private LinkingProperties merge(List<Partition> parts) {
+			var all = new Partition();
+			for (var part : parts) {
+				all.unlinked.addAll(part.unlinked);
+				all.multiProviders.addAll(part.multiProviders);
+				part.providers.forEachEntry((flowID, providerID) -> {
+					all.addProvider(flowID, providerID);
+					return true;
+				});
+			}
+			var props = new LinkingProperties();
+			all.unlinked.forEach(id -> {
+				props.processesWithoutProviders.add(id);
+				return true;
+			});
+			all.multiProviders.forEach(id -> {
+				props.multiProviderFlows.add(id);
 				return true;
+			});
+			return props;
+		}
+
+		boolean isCanceled() {
+			if (canceled.get())
+				return true;
+			if (isCanceled.getAsBoolean()) {
+				canceled.set(true);
+				return true;
+			}
 			return false;
 		}
 
@@ -95,6 +292,26 @@ public class LinkingProperties {
 			Logger log = LoggerFactory.getLogger(Check.class);
 			log.error(message, e);
 		}
+	}
+
+	/**
+	 * The result of scanning a partition of the exchange table.
+	 */
+	private static class Partition {
 
+		/** Provider flow ID -> the first provider found for that flow. */
+		final TLongLongHashMap providers = new TLongLongHashMap();
+		final TLongHashSet multiProviders = new TLongHashSet();
+		final TLongHashSet unlinked = new TLongHashSet();
+
+		void addProvider(long flowID, long providerID) {
+			if (!providers.containsKey(flowID)) {
+				providers.put(flowID, providerID);
+				return;
+			}
+			if (providers.get(flowID) != providerID) {
+				multiProviders.add(flowID);
+			}
+		}
 	}
 }
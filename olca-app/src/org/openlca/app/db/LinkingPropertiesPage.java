@@ -3,6 +3,7 @@ package org.openlca.app.db;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.viewers.ITableLabelProvider;
 import org.eclipse.jface.viewers.LabelProvider;
@@ -13,6 +14,7 @@ import org.eclipse.swt.widgets.Composite;
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.IEditorSite;
 import org.eclipse.ui.PartInitException;
+import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.forms.IManagedForm;
 import org.eclipse.ui.forms.editor.FormPage;
 import org.eclipse.ui.forms.widgets.FormToolkit;
@@ -26,6 +28,7 @@ import org.openlca.app.editors.SimpleFormEditor;
 import org.openlca.app.rcp.images.Icon;
 import org.openlca.app.rcp.images.Images;
 import org.openlca.app.util.Actions;
+import org.openlca.app.util.ErrorReporter;
 import org.openlca.app.util.Labels;
 import org.openlca.app.util.UI;
 import org.openlca.app.viewers.Viewers;
@@ -46,10 +49,16 @@ public class LinkingPropertiesPage extends SimpleFormEditor {
 
 	public static void show() {
 		AtomicReference<LinkingProperties> ref = new AtomicReference<>();
-		App.runWithProgress("Check database links", () -> {
-			LinkingProperties props = LinkingProperties.check(Database.get());
-			ref.set(props);
-		});
+		try {
+			PlatformUI.getWorkbench().getProgressService().run(true, true, m -> {
+				m.beginTask("Check database links", IProgressMonitor.UNKNOWN);
+				var props = LinkingProperties.check(Database.get(), m::isCanceled);
+				ref.set(props);
+				m.done();
+			});
+		} catch (Exception e) {
+			ErrorReporter.on("Failed to check database links", e);
+		}
 		show(ref.get());
 	}
 
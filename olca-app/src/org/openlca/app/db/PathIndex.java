@@ -0,0 +1,275 @@
+package org.openlca.app.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.NativeSql;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.descriptors.Descriptor;
+import org.openlca.util.Categories;
+import org.openlca.util.Categories.PathBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A thread-safe index of the category paths and location codes of a database.
+ * The categories and locations are loaded with a single scan of the
+ * respective tables when they are requested for the first time. After this,
+ * the index is maintained incrementally via the application cache: when a
+ * category or location is inserted, changed, or deleted, only the respective
+ * row is read again. Categories that are not in the index, e.g. because they
+ * were inserted without notifying the cache, are read from the database on
+ * demand. The paths are calculated from the indexed categories in memory and
+ * cached until a category changes. The index also holds the path
+ * builder of olca-core for the APIs that require it, with the same eviction
+ * rules.
+ */
+public final class PathIndex {
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final IDatabase db;
+
+	private volatile ConcurrentHashMap<Long, Node> categories;
+	private volatile ConcurrentHashMap<Long, String> locations;
+	private volatile PathBuilder pathBuilder;
+
+	/** Category ID -> the names along the path of that category. */
+	private final ConcurrentHashMap<Long, List<String>> paths =
+			new ConcurrentHashMap<>();
+
+	public PathIndex(IDatabase db) {
+		this.db = db;
+	}
+
+	/**
+	 * Returns the shared index of the application cache if the given database
+	 * is the currently opened database; otherwise, a new index is created for
+	 * the given database.
+	 */
+	public static PathIndex of(IDatabase db) {
+		var shared = Cache.getPathIndex();
+		return shared != null && db == Database.get()
+				? shared
+				: new PathIndex(db);
+	}
+
+	/**
+	 * Returns the full path of the category with the given ID where the names
+	 * of the categories are separated by a slash, e.g. `Elementary flows/
+	 * Emission to air`. Returns `null` if there is no such category.
+	 */
+	public String pathOf(Long categoryId) {
+		return pathOf(categoryId, "/");
+	}
+
+	/**
+	 * Same as {@link #pathOf(Long)} but with the given separator.
+	 */
+	public String pathOf(Long categoryId, String separator) {
+		var segments = segmentsOf(categoryId);
+		return segments.isEmpty()
+				? null
+				: String.join(separator, segments);
+	}
+
+	/**
+	 * Returns the names of the categories along the path of the category with
+	 * the given ID, starting with the root category. The returned list is
+	 * empty if there is no such category.
+	 */
+	public List<String> segmentsOf(Long categoryId) {
+		if (categoryId == null)
+			return Collections.emptyList();
+		var cached = paths.get(categoryId);
+		Cache.countCategoryPath(cached != null);
+		if (cached != null)
+			return cached;
+		var nodes = categories();
+		var segments = new ArrayList<String>();
+		var next = nodeOf(nodes, categoryId);
+		int depth = 0;
+		while (next != null && depth < nodes.size()) {
+			segments.add(next.name() != null ? next.name() : "");
+			next = next.parent() != null
+					? nodeOf(nodes, next.parent())
+					: null;
+			depth++;
+		}
+		Collections.reverse(segments);
+		var path = Collections.unmodifiableList(segments);
+		if (!path.isEmpty()) {
+			paths.put(categoryId, path);
+		}
+		return path;
+	}
+
+	/**
+	 * Returns the path builder of olca-core for this database, e.g. for the
+	 * git index. It is built on the first request and dropped when a category
+	 * changes.
+	 */
+	public PathBuilder pathBuilder() {
+		var builder = pathBuilder;
+		if (builder != null)
+			return builder;
+		builder = Categories.pathsOf(db);
+		pathBuilder = builder;
+		return builder;
+	}
+
+	/** Returns true if the path builder is currently cached. */
+	boolean hasPathBuilder() {
+		return pathBuilder != null;
+	}
+
+	/**
+	 * Returns the code of the location with the given ID or `null` if there is
+	 * no such location.
+	 */
+	public String locationCodeOf(Long locationId) {
+		if (locationId == null)
+			return null;
+		return locations().get(locationId);
+	}
+
+	/**
+	 * Updates the index for the given model if it is a category or location.
+	 */
+	void update(Descriptor d) {
+		if (d == null)
+			return;
+		if (d.type == null) {
+			invalidate();
+			return;
+		}
+		if (d.type == ModelType.CATEGORY) {
+			pathBuilder = null;
+			updateCategory(d.id);
+		} else if (d.type == ModelType.LOCATION) {
+			updateLocation(d.id);
+		}
+	}
+
+	/**
+	 * Removes everything from the index; it is loaded again on the next
+	 * request.
+	 */
+	void invalidate() {
+		synchronized (this) {
+			categories = null;
+			locations = null;
+			pathBuilder = null;
+		}
+		paths.clear();
+	}
+
+	private void updateCategory(long id) {
+		var nodes = categories;
+		if (nodes == null)
+			return;
+		var node = loadCategory(id);
+		if (node == null) {
+			nodes.remove(id);
+		} else {
+			nodes.put(id, node);
+		}
+		// the paths of all sub-categories could have changed
+		paths.clear();
+		log.trace("updated category {} in path index", id);
+	}
+
+	/**
+	 * Returns the indexed category with the given ID. If it is not in the
+	 * index, it is read from the database and added to the index.
+	 */
+	private Node nodeOf(ConcurrentHashMap<Long, Node> nodes, long id) {
+		var node = nodes.get(id);
+		if (node != null)
+			return node;
+		node = loadCategory(id);
+		if (node != null) {
+			nodes.put(id, node);
+			log.trace("added missing category {} to path index", id);
+		}
+		return node;
+	}
+
+	private Node loadCategory(long id) {
+		var sql = "select name, f_category from tbl_categories where id = " + id;
+		var node = new Node[1];
+		NativeSql.on(db).query(sql, r -> {
+			long parent = r.getLong(2);
+			node[0] = new Node(r.getString(1), parent == 0 ? null : parent);
+			return false;
+		});
+		return node[0];
+	}
+
+	private void updateLocation(long id) {
+		var codes = locations;
+		if (codes == null)
+			return;
+		var sql = "select code from tbl_locations where id = " + id;
+		var code = new String[1];
+		NativeSql.on(db).query(sql, r -> {
+			code[0] = r.getString(1);
+			return false;
+		});
+		if (code[0] == null) {
+			codes.remove(id);
+		} else {
+			codes.put(id, code[0]);
+		}
+	}
+
+	private ConcurrentHashMap<Long, Node> categories() {
+		var nodes = categories;
+		if (nodes != null)
+			return nodes;
+		synchronized (this) {
+			if (categories != null)
+				return categories;
+			log.trace("load categories into path index");
+			nodes = new ConcurrentHashMap<>();
+			var map = nodes;
+			var sql = "select id, name, f_category from tbl_categories";
+			NativeSql.on(db).query(sql, r -> {
+				long parent = r.getLong(3);
+				map.put(r.getLong(1),
+						new Node(r.getString(2), parent == 0 ? null : parent));
+				return true;
+			});
+			categories = nodes;
+			return nodes;
+		}
+	}
+
+	private ConcurrentHashMap<Long, String> locations() {
+		var codes = locations;
+		if (codes != null)
+			return codes;
+		synchronized (this) {
+			if (locations != null)
+				return locations;
+			log.trace("load location codes into path index");
+			codes = new ConcurrentHashMap<>();
+			var map = codes;
+			var sql = "select id, code from tbl_locations";
+			NativeSql.on(db).query(sql, r -> {
+				var code = r.getString(2);
+				if (code != null) {
+					map.put(r.getLong(1), code);
+				}
+				return true;
+			});
+			locations = codes;
+			return codes;
+		}
+	}
+
+	private record Node(String name, Long parent) {
+	}
+}
@@ -13,6 +13,7 @@ import org.eclipse.ui.forms.IManagedForm;
 import org.eclipse.ui.forms.editor.FormPage;
 import org.openlca.app.M;
 import org.openlca.app.db.Database;
+import org.openlca.app.db.PathIndex;
 import org.openlca.app.editors.Editors;
 import org.openlca.app.editors.SimpleEditorInput;
 import org.openlca.app.editors.SimpleFormEditor;
@@ -26,7 +27,6 @@ import org.openlca.app.viewers.tables.Tables;
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.model.FlowProperty;
 import org.openlca.core.model.ModelType;
-import org.openlca.util.Categories;
 
 public class FlowPropertyTable extends SimpleFormEditor {
 
@@ -100,10 +100,10 @@ public class FlowPropertyTable extends SimpleFormEditor {
 	private static class Label extends LabelProvider
 		implements ITableLabelProvider {
 
-		private final Categories.PathBuilder categories;
+		private final PathIndex paths;
 
 		Label(IDatabase db) {
-			this.categories = Categories.pathsOf(db);
+			this.paths = PathIndex.of(db);
 		}
 
 		@Override
@@ -126,7 +126,7 @@ public class FlowPropertyTable extends SimpleFormEditor {
 				case 0 -> Labels.of(property.flowPropertyType);
 				case 1 -> Labels.name(property);
 				case 2 -> property.category != null
-					? categories.pathOf(property.category.id)
+					? paths.pathOf(property.category.id)
 					: null;
 				case 3 -> Labels.name(property.getReferenceUnit());
 				case 4 -> property.refId;
@@ -8,11 +8,13 @@ import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Spinner;
 import org.eclipse.swt.widgets.Text;
 import org.eclipse.ui.ISharedImages;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.forms.FormDialog;
 import org.eclipse.ui.forms.IManagedForm;
+import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.openlca.app.App;
 import org.openlca.app.M;
 import org.openlca.app.db.Database;
@@ -21,6 +23,7 @@ import org.openlca.app.rcp.images.Icon;
 import org.openlca.app.util.Controls;
 import org.openlca.app.util.MsgBox;
 import org.openlca.app.util.UI;
+import org.openlca.core.database.IDatabase;
 import org.openlca.core.services.ServerConfig;
 import org.openlca.ipc.Server;
 import org.slf4j.Logger;
@@ -34,8 +37,12 @@ public class IpcDialog extends FormDialog {
 	private Button button;
 	private Label statusLabel;
 	private Button grpcCheck;
+	private Spinner workerSpinner;
+	private Spinner parallelSpinner;
+	private Spinner cacheSpinner;
 
 	private Server server;
+	private IpcGateway gateway;
 	private org.openlca.proto.io.server.Server grpcServer;
 
 	public static int show() {
@@ -65,7 +72,7 @@ public class IpcDialog extends FormDialog {
 
 	@Override
 	protected Point getInitialSize() {
-		return new Point(500, 300);
+		return new Point(500, 380);
 	}
 
 	@Override
@@ -85,7 +92,7 @@ public class IpcDialog extends FormDialog {
 		button = UI.button(comp, tk, "");
 		button.setImage(Icon.RUN.get());
 		Controls.onSelect(button, e -> {
-			if (server == null && grpcServer == null) {
+			if (server == null && gateway == null && grpcServer == null) {
 				onStart();
 			} else {
 				onStop();
@@ -95,6 +102,22 @@ public class IpcDialog extends FormDialog {
 		grpcCheck = UI.button(comp, tk,
 				"Start as gRPC service (experimental)",
 				SWT.CHECK);
+		UI.filler(comp, tk);
+
+		// settings of the JSON-RPC gateway
+		var defaults = IpcGateway.Config.defaultOf(8080);
+		workerSpinner = spinnerOf(comp, tk, "Worker threads",
+				defaults.workers(), 2);
+		parallelSpinner = spinnerOf(comp, tk, "Max. parallel requests",
+				defaults.maxConcurrent(), 1);
+		// a worker is always kept free from the forwarded requests
+		parallelSpinner.setMaximum(defaults.workers() - 1);
+		Controls.onSelect(workerSpinner, e -> parallelSpinner.setMaximum(
+				workerSpinner.getSelection() - 1));
+		cacheSpinner = spinnerOf(comp, tk, "Cached results",
+				defaults.cacheSize(), 0);
+		Controls.onSelect(grpcCheck, e -> enableGatewaySettings(
+				!grpcCheck.getSelection()));
 
 		// status text and grpc check
 		var statComp = UI.composite(body, tk);
@@ -104,26 +127,51 @@ public class IpcDialog extends FormDialog {
 		UI.gridData(statusLabel, true, true);
 	}
 
+	private Spinner spinnerOf(
+			Composite comp, FormToolkit tk, String label, int value, int min) {
+		UI.label(comp, tk, label);
+		var spinner = UI.spinner(comp, tk, SWT.BORDER);
+		spinner.setValues(value, min, 10_000, 0, 1, 10);
+		UI.gridData(spinner, true, false);
+		UI.filler(comp, tk);
+		return spinner;
+	}
+
+	private void enableGatewaySettings(boolean b) {
+		workerSpinner.setEnabled(b);
+		parallelSpinner.setEnabled(b);
+		cacheSpinner.setEnabled(b);
+	}
+
 	private void onStart() {
 		try {
 			int port = Integer.parseInt(portText.getText());
-			var config = ServerConfig.defaultOf(Database.get())
-					.withDataDir(Workspace.dataDir())
-					.withPort(port)
-					.get();
+			var db = Database.get();
 			var grpc = grpcCheck.getSelection();
+			var gatewayConfig = new IpcGateway.Config(port,
+					workerSpinner.getSelection(),
+					parallelSpinner.getSelection(),
+					cacheSpinner.getSelection());
 			App.run(
 					"Start server ...",
 					() -> {
 						if (grpc) {
-							grpcServer = new org.openlca.proto.io.server.Server(config);
-							new Thread(() -> grpcServer.start()).start();
+							grpcServer = new org.openlca.proto.io.server.Server(
+									configOf(db, port));
+							var thread = new Thread(grpcServer::start, "grpc-server");
+							thread.setDaemon(true);
+							thread.start();
 						} else {
-							server = new Server(config).withDefaultHandlers();
-							server.start();
+							startJsonRpc(db, gatewayConfig);
 						}
 					},
 					() -> {
+						if (server == null && grpcServer == null) {
+							MsgBox.error("Failed to start the IPC server",
+									"The server could not be started; see the log"
+											+ " for details.");
+							return;
+						}
 						log.info("Started IPC server @{}", port);
 						portText.setEnabled(false);
 						var image = PlatformUI.getWorkbench()
@@ -131,41 +179,75 @@ public class IpcDialog extends FormDialog {
 								.getImage(ISharedImages.IMG_ELCL_STOP);
 						button.setImage(image);
 						grpcCheck.setEnabled(false);
-						statusLabel.setText(M.StopIPCInfo);
+						enableGatewaySettings(false);
+						var status = M.StopIPCInfo;
+						if (gateway != null) {
+							status += "\n\nThe status of the server and metrics per"
+									+ " method are available at http://localhost:"
+									+ port + "/status";
+						}
+						statusLabel.setText(status);
 						statusLabel.getParent().requestLayout();
 					});
 		} catch (Exception e) {
 			MsgBox.error("Failed to start the IPC server", e);
-			if (server != null) {
-				try {
-					server.stop();
-				} catch (Exception ex) {
-					log.error("Failed to stop IPC server", ex);
-				}
+			stopServers();
+		}
+	}
+
+	/**
+	 * Starts the JSON-RPC server on a free local port and the gateway that
+	 * forwards the requests from the public port to that server.
+	 */
+	private void startJsonRpc(IDatabase db, IpcGateway.Config gatewayConfig) {
+		try {
+			int localPort = IpcGateway.freePort();
+			server = new Server(configOf(db, localPort)).withDefaultHandlers();
+			server.start();
+			gateway = IpcGateway.start(gatewayConfig, localPort);
+		} catch (Exception e) {
+			log.error("Failed to start the IPC server", e);
+			stopServers();
+		}
+	}
+
+	private ServerConfig configOf(IDatabase db, int port) {
+		return ServerConfig.defaultOf(db)
+				.withDataDir(Workspace.dataDir())
+				.withPort(port)
+				.get();
+	}
+
+	private void stopServers() {
+		if (gateway != null) {
+			gateway.stop();
+		}
+		if (server != null) {
+			try {
+				server.stop();
+			} catch (Exception e) {
+				log.error("Failed to stop IPC server", e);
 			}
-			server = null;
 		}
+		if (grpcServer != null) {
+			grpcServer.stop();
+		}
+		gateway = null;
+		server = null;
+		grpcServer = null;
 	}
 
 	private void onStop() {
 		try {
 			App.run(
 					"Stop server ...",
-					() -> {
-						if (server != null) {
-							server.stop();
-						}
-						if (grpcServer != null) {
-							grpcServer.stop();
-						}
-						server = null;
-						grpcServer = null;
-					},
+					this::stopServers,
 					() -> {
 						log.info("Stopped IPC server");
 						portText.setEnabled(true);
 						button.setImage(Icon.RUN.get());
 						grpcCheck.setEnabled(true);
+						enableGatewaySettings(!grpcCheck.getSelection());
 						statusLabel.setText(M.StartIPCInfo);
 						statusLabel.getParent().requestLayout();
 					});
@@ -177,12 +259,7 @@ public class IpcDialog extends FormDialog {
 	@Override
 	public boolean close() {
 		try {
-			if (server != null) {
-				server.stop();
-			}
-			if (grpcServer != null) {
-				grpcServer.stop();
-			}
+			stopServers();
 			log.info("stopped the IPC server");
 		} catch (Exception e) {
 			log.error("Failed to stop IPC server", e);
@@ -0,0 +1,422 @@
+package org.openlca.app.devtools;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openlca.app.db.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A gateway in front of the JSON-RPC server of the IPC dialog. It accepts the
+ * requests on the public port, handles them on a fixed worker pool, and
+ * forwards them to the IPC server that listens on a local port. The gateway
+ * limits the number of requests that are forwarded at the same time, collects
+ * latency metrics per method that are returned for `GET /status`, and can
+ * cache the responses of calculations with identical parameters.
+ * <p>
+ * Cached calculation results are shared between requests: the clients that
+ * hold a shared result are counted, and a `result/dispose` call is only
+ * forwarded to the IPC server when the last of them disposes the result.
+ * Cached responses are not used anymore when the database was changed in the
+ * application or via the data methods of the IPC protocol.
+ */
+class IpcGateway {
+
+	/** The methods of which the responses are cached. */
+	private static final Set<String> CACHED_METHODS = Set.of(
+			"result/calculate");
+
+	private static final String DISPOSE_METHOD = "result/dispose";
+
+	/** The maximum time a request waits for a free slot. */
+	private static final long MAX_WAIT_SECONDS = 600;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final Config config;
+	private final HttpServer http;
+	private final ExecutorService pool;
+	private final Semaphore permits;
+	private final HttpClient client;
+	private final URI backend;
+	private final Map<String, CachedResult> cache;
+	/** Result ID -> the number of clients that hold this shared result. */
+	private final Map<String, AtomicInteger> shared = new ConcurrentHashMap<>();
+	private final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+	private final LongAdder cacheHits = new LongAdder();
+	private final AtomicInteger waiting = new AtomicInteger();
+	private final long startTime = System.currentTimeMillis();
+
+	/**
+	 * The configuration of the gateway.
+	 *
+	 * @param port          the public port of the gateway
+	 * @param workers       the number of worker threads, at least 2
+	 * @param maxConcurrent the maximum number of requests that are forwarded
+	 *                      to the IPC server at the same time; this is less
+	 *                      than the number of workers so that status requests
+	 *                      and cache hits are still served when all slots are
+	 *                      busy
+	 * @param cacheSize     the maximum number of cached calculation responses;
+	 *                      0 disables the cache
+	 */
+	record Config(int port, int workers, int maxConcurrent, int cacheSize) {
+
+		Config {
+			workers = Math.max(2, workers);
+			maxConcurrent = Math.max(1, Math.min(maxConcurrent, workers - 1));
+			cacheSize = Math.max(0, cacheSize);
+		}
+
+		static Config defaultOf(int port) {
+			int cores = Runtime.getRuntime().availableProcessors();
+			return new Config(port, cores + 1, cores, 0);
+		}
+	}
+
+	private IpcGateway(Config config, int backendPort) throws IOException {
+		this.config = config;
+		this.backend = URI.create("http://127.0.0.1:" + backendPort);
+		this.permits = new Semaphore(config.maxConcurrent, true);
+		this.cache = Collections.synchronizedMap(
+				new LinkedHashMap<>(16, 0.75f, true) {
+					@Override
+					protected boolean removeEldestEntry(
+							Map.Entry<String, CachedResult> e) {
+						return size() > config.cacheSize;
+					}
+				});
+		var counter = new AtomicInteger();
+		this.pool = Executors.newFixedThreadPool(
+				config.workers, r -> {
+					var thread = new Thread(r, "ipc-worker-" + counter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		// the client runs on its default executor and not on the workers that
+		// are blocked in `send` while they wait for the response
+		this.client = HttpClient.newBuilder()
+				.connectTimeout(Duration.ofSeconds(10))
+				.build();
+		this.http = HttpServer.create(new InetSocketAddress(config.port), 0);
+		http.setExecutor(pool);
+		http.createContext("/", this::handle);
+	}
+
+	/**
+	 * Starts a gateway that forwards the requests to the IPC server on the
+	 * given local port.
+	 */
+	static IpcGateway start(Config config, int backendPort) throws IOException {
+		var gateway = new IpcGateway(config, backendPort);
+		gateway.http.start();
+		return gateway;
+	}
+
+	void stop() {
+		http.stop(1);
+		pool.shutdownNow();
+		cache.clear();
+		shared.clear();
+	}
+
+	/** Returns a free local port for the IPC server behind the gateway. */
+	static int freePort() throws IOException {
+		try (var socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			var method = exchange.getRequestMethod();
+			if ("GET".equalsIgnoreCase(method)
+					&& "/status".equals(exchange.getRequestURI().getPath())) {
+				respond(exchange, 200, status());
+				return;
+			}
+			if (!"POST".equalsIgnoreCase(method)) {
+				respond(exchange, 405, "{\"error\": \"only POST requests are supported\"}");
+				return;
+			}
+			var body = new String(
+					exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+			handleRpc(exchange, body);
+		} catch (Exception e) {
+			log.error("failed to handle IPC request", e);
+		}
+	}
+
+	private void handleRpc(HttpExchange exchange, String body) throws Exception {
+		var request = parse(body);
+		var rpcMethod = request != null && request.has("method")
+				? request.get("method").getAsString()
+				: "unknown";
+		var metric = metrics.computeIfAbsent(rpcMethod, m -> new Metric());
+		long start = System.nanoTime();
+
+		// try the cache first
+		var cacheKey = cacheKeyOf(rpcMethod, request);
+		if (cacheKey != null) {
+			var response = fromCache(cacheKey);
+			if (response != null) {
+				response.add("id", request.get("id"));
+				cacheHits.increment();
+				respond(exchange, 200, response.toString());
+				metric.add(System.nanoTime() - start, false);
+				return;
+			}
+		}
+
+		// a shared result is only disposed by its last client
+		if (DISPOSE_METHOD.equals(rpcMethod) && !releaseShared(request)) {
+			var response = new JsonObject();
+			response.addProperty("jsonrpc", "2.0");
+			response.add("id", request.get("id"));
+			response.add("result", request.get("params"));
+			respond(exchange, 200, response.toString());
+			metric.add(System.nanoTime() - start, false);
+			return;
+		}
+
+		// forward the request when a slot is free
+		waiting.incrementAndGet();
+		boolean acquired;
+		try {
+			acquired = permits.tryAcquire(MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+		} finally {
+			waiting.decrementAndGet();
+		}
+		if (!acquired) {
+			respond(exchange, 503, "{\"error\": \"the server is busy\"}");
+			metric.add(System.nanoTime() - start, true);
+			return;
+		}
+		HttpResponse<String> response;
+		try {
+			var forward = HttpRequest.newBuilder(backend)
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(body))
+					.build();
+			response = client.send(forward, HttpResponse.BodyHandlers.ofString());
+		} finally {
+			permits.release();
+		}
+
+		var responseBody = response.body();
+		var json = parse(responseBody);
+		boolean failed = response.statusCode() != 200
+				|| json == null
+				|| json.has("error");
+		metric.add(System.nanoTime() - start, failed);
+		if (!failed) {
+			updateCache(rpcMethod, cacheKey, json);
+		}
+		respond(exchange, response.statusCode(), responseBody);
+	}
+
+	private String cacheKeyOf(String method, JsonObject request) {
+		if (config.cacheSize <= 0
+				|| request == null
+				|| !CACHED_METHODS.contains(method))
+			return null;
+		try {
+			var params = request.get("params");
+			var hash = MessageDigest.getInstance("SHA-256").digest(
+					String.valueOf(params).getBytes(StandardCharsets.UTF_8));
+			return method + ":" + HexFormat.of().formatHex(hash);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns a copy of the cached response with the given key, or `null` when
+	 * there is no such response or when the database was changed after it was
+	 * cached. The client of a returned response is counted as holder of the
+	 * shared result.
+	 */
+	private JsonObject fromCache(String key) {
+		synchronized (cache) {
+			var cached = cache.get(key);
+			if (cached == null)
+				return null;
+			if (cached.dbVersion() != Cache.changeCount()) {
+				cache.remove(key);
+				return null;
+			}
+			var id = idOf(cached.response().get("result"));
+			if (id != null) {
+				shared.computeIfAbsent(id, $ -> new AtomicInteger())
+						.incrementAndGet();
+			}
+			return cached.response().deepCopy();
+		}
+	}
+
+	/**
+	 * Releases the shared result of a dispose request. Returns true when the
+	 * request should be forwarded to the IPC server, which is the case when
+	 * the result is not shared or when its last holder releases it.
+	 */
+	private boolean releaseShared(JsonObject request) {
+		var id = idOf(request.get("params"));
+		if (id == null)
+			return true;
+		synchronized (cache) {
+			var refs = shared.get(id);
+			if (refs == null)
+				return true;
+			if (refs.decrementAndGet() > 0)
+				return false;
+			shared.remove(id);
+			cache.values().removeIf(
+					c -> id.equals(idOf(c.response().get("result"))));
+			return true;
+		}
+	}
+
+	private void updateCache(
+			String method, String cacheKey, JsonObject response) {
+		if (config.cacheSize <= 0)
+			return;
+		if (cacheKey != null) {
+			// evicted or outdated entries are not disposed on the server: the
+			// clients that received the result still hold it
+			var id = idOf(response.get("result"));
+			var cached = new CachedResult(response, Cache.changeCount());
+			synchronized (cache) {
+				cache.put(cacheKey, cached);
+				if (id != null) {
+					shared.computeIfAbsent(id, $ -> new AtomicInteger())
+							.incrementAndGet();
+				}
+			}
+			return;
+		}
+		// data sets can be modified via the data methods, and cached results
+		// could be outdated then
+		if (method.startsWith("data/") && !method.startsWith("data/get")) {
+			cache.clear();
+		}
+	}
+
+	private static String idOf(JsonElement elem) {
+		if (elem == null || !elem.isJsonObject())
+			return null;
+		var id = elem.getAsJsonObject().get("@id");
+		return id != null && id.isJsonPrimitive()
+				? id.getAsString()
+				: null;
+	}
+
+	private static JsonObject parse(String s) {
+		try {
+			var elem = JsonParser.parseString(s);
+			return elem.isJsonObject()
+					? elem.getAsJsonObject()
+					: null;
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	private void respond(HttpExchange exchange, int code, String body)
+			throws IOException {
+		var bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(code, bytes.length);
+		exchange.getResponseBody().write(bytes);
+	}
+
+	/**
+	 * Returns the status of the gateway with the metrics per method as JSON
+	 * string.
+	 */
+	String status() {
+		double uptime = Math.max(
+				1, (System.currentTimeMillis() - startTime) / 1000.0);
+		var obj = new JsonObject();
+		obj.addProperty("uptimeSeconds", Math.round(uptime));
+		obj.addProperty("workers", config.workers);
+		obj.addProperty("maxConcurrent", config.maxConcurrent);
+		obj.addProperty("running",
+				config.maxConcurrent - permits.availablePermits());
+		obj.addProperty("waiting", waiting.get());
+
+		var cacheObj = new JsonObject();
+		cacheObj.addProperty("maxSize", config.cacheSize);
+		cacheObj.addProperty("size", cache.size());
+		cacheObj.addProperty("hits", cacheHits.sum());
+		cacheObj.addProperty("sharedResults", shared.size());
+		obj.add("cache", cacheObj);
+
+		var methods = new JsonObject();
+		new TreeMap<>(metrics).forEach(
+				(name, metric) -> methods.add(name, metric.toJson(uptime)));
+		obj.add("methods", methods);
+		return new GsonBuilder().setPrettyPrinting().create().toJson(obj);
+	}
+
+	private record CachedResult(JsonObject response, long dbVersion) {
+	}
+
+	private static class Metric {
+
+		private final LongAdder count = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final AtomicLong maxNanos = new AtomicLong();
+
+		void add(long nanos, boolean failed) {
+			count.increment();
+			if (failed) {
+				errors.increment();
+			}
+			totalNanos.add(nanos);
+			maxNanos.accumulateAndGet(nanos, Math::max);
+		}
+
+		JsonObject toJson(double uptimeSeconds) {
+			long n = count.sum();
+			var obj = new JsonObject();
+			obj.addProperty("count", n);
+			obj.addProperty("errors", errors.sum());
+			obj.addProperty("meanMillis", n > 0
+					? totalNanos.sum() / (n * 1e6)
+					: 0);
+			obj.addProperty("maxMillis", maxNanos.get() / 1e6);
+			obj.addProperty("perSecond", n / uptimeSeconds);
+			return obj;
+		}
+	}
+}
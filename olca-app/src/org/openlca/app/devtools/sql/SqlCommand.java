@@ -1,77 +1,166 @@
 package org.openlca.app.devtools.sql;
 
+import java.io.File;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.sql.Connection;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
-import java.util.ArrayList;
-import java.util.List;
+import java.sql.Statement;
+import java.util.function.BooleanSupplier;
 
 import org.openlca.core.database.IDatabase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Executes the statements of the SQL editor. A command executes one statement
+ * at a time; the running statement can be canceled from another thread.
+ */
 class SqlCommand {
 
-	private Logger log = LoggerFactory.getLogger(getClass());
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private volatile Statement running;
+	private volatile boolean canceled;
 
-	public String exec(String sqlStatement, IDatabase database) {
-		if (sqlStatement == null)
-			return "invalid sql statement";
-		String stmt = sqlStatement.trim().toLowerCase();
-		if (stmt.startsWith("select ") || stmt.startsWith("show "))
-			return runSelect(database, sqlStatement);
-		else
-			return runUpdate(database, sqlStatement);
+	/**
+	 * The result of a statement: an open cursor for a query or a message for
+	 * other statements and errors, together with the execution time.
+	 */
+	record Result(String statement, SqlCursor cursor, String message, long millis) {
+
+		boolean isQuery() {
+			return cursor != null;
+		}
 	}
 
-	private String runSelect(IDatabase database, String query) {
-		log.info("run select statement {}", query);
-		try (Connection con = database.createConnection()) {
-			List<String[]> table = new ArrayList<>();
-			ResultSet result = con.createStatement().executeQuery(query);
-			String[] fields = getFields(result);
-			table.add(fields);
-			while (result.next()) {
-				String[] row = new String[fields.length];
-				table.add(row);
-				for (int i = 0; i < fields.length; i++) {
-					String field = fields[i];
-					Object o = result.getObject(field);
-					if (o != null)
-						row[i] = o.toString();
-				}
+	static boolean isQuery(String statement) {
+		if (statement == null)
+			return false;
+		var stmt = statement.trim().toLowerCase();
+		return stmt.startsWith("select ") || stmt.startsWith("show ");
+	}
+
+	public Result exec(String sqlStatement, IDatabase database) {
+		if (sqlStatement == null)
+			return new Result(null, null, "invalid sql statement", 0);
+		long start = System.currentTimeMillis();
+		try {
+			if (isQuery(sqlStatement)) {
+				log.info("run select statement {}", sqlStatement);
+				var cursor = SqlCursor.open(database, sqlStatement, this);
+				return new Result(sqlStatement, cursor, null, millisSince(start));
 			}
-			result.close();
-			return new TextTable().format(table);
+			var message = runUpdate(database, sqlStatement);
+			return new Result(sqlStatement, null, message, millisSince(start));
 		} catch (Exception e) {
-			return handleException(e);
+			return new Result(
+					sqlStatement, null, handleException(e), millisSince(start));
 		}
 	}
 
-	private String[] getFields(ResultSet result) throws Exception {
-		ResultSetMetaData metaData = result.getMetaData();
-		String[] fields = new String[metaData.getColumnCount()];
-		for (int i = 0; i < fields.length; i++) {
-			fields[i] = metaData.getColumnLabel(i + 1);
+	private long millisSince(long start) {
+		return System.currentTimeMillis() - start;
+	}
+
+	void running(Statement stmt) {
+		running = stmt;
+	}
+
+	/**
+	 * Cancels the statement that is currently executed. Further calls of
+	 * `exec` are not affected.
+	 */
+	void cancel() {
+		canceled = true;
+		var stmt = running;
+		if (stmt == null)
+			return;
+		try {
+			stmt.cancel();
+		} catch (Exception e) {
+			log.warn("failed to cancel statement", e);
 		}
-		return fields;
 	}
 
-	private String runUpdate(IDatabase database, String stmt) {
+	boolean wasCanceled() {
+		return canceled;
+	}
+
+	private String runUpdate(IDatabase database, String stmt) throws Exception {
 		log.info("run update statement {}", stmt);
-		try (Connection con = database.createConnection()) {
-			int count = con.createStatement().executeUpdate(stmt);
+		try (Connection con = database.createConnection();
+				 var s = con.createStatement()) {
+			running(s);
+			int count = s.executeUpdate(stmt);
 			con.commit();
 			log.info("{} rows updated", count);
 			database.getEntityFactory().getCache().evictAll();
 			return count + " rows updated";
-		} catch (Exception e) {
-			return handleException(e);
+		} finally {
+			running(null);
+		}
+	}
+
+	/**
+	 * Runs the given query again and writes all rows of its result to the
+	 * given CSV file, row by row. Returns the number of written rows.
+	 */
+	long exportCsv(IDatabase database, String query, File file,
+			BooleanSupplier isCanceled) throws Exception {
+		log.info("export result of {} to {}", query, file);
+		try (Connection con = database.createConnection();
+				 var stmt = con.createStatement(
+						 ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+				 var out = Files.newBufferedWriter(
+						 file.toPath(), StandardCharsets.UTF_8)) {
+			stmt.setFetchSize(SqlCursor.PAGE_SIZE);
+			running(stmt);
+			long count = 0;
+			try (var result = stmt.executeQuery(query)) {
+				var meta = result.getMetaData();
+				int columns = meta.getColumnCount();
+				for (int i = 1; i <= columns; i++) {
+					if (i > 1) {
+						out.write(',');
+					}
+					out.write(quote(meta.getColumnLabel(i)));
+				}
+				out.newLine();
+				while (result.next()) {
+					if (isCanceled.getAsBoolean())
+						break;
+					for (int i = 1; i <= columns; i++) {
+						if (i > 1) {
+							out.write(',');
+						}
+						var value = result.getObject(i);
+						if (value instanceof Number) {
+							out.write(value.toString());
+						} else if (value != null) {
+							out.write(quote(value.toString()));
+						}
+					}
+					out.newLine();
+					count++;
+				}
+			}
+			if (!con.getAutoCommit()) {
+				con.rollback();
+			}
+			return count;
+		} finally {
+			running(null);
 		}
 	}
 
+	private static String quote(String s) {
+		if (s == null)
+			return "";
+		return "\"" + s.replace("\"", "\"\"") + "\"";
+	}
+
 	private String handleException(Exception e) {
 		StringWriter writer = new StringWriter();
 		try (PrintWriter out = new PrintWriter(writer)) {
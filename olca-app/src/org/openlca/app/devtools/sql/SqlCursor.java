@@ -0,0 +1,143 @@
+package org.openlca.app.devtools.sql;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openlca.core.database.IDatabase;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An open cursor of a query in the SQL editor. The rows of the query are
+ * fetched page by page when they are requested, e.g. when they become visible
+ * in the result table, so that a query on a large table does not load all
+ * rows into memory. The values are read by column index. A cursor holds a
+ * database connection and must be closed when it is not needed anymore; it
+ * closes itself when all rows were fetched.
+ */
+class SqlCursor implements AutoCloseable {
+
+	/** The number of rows that are fetched at once. */
+	static final int PAGE_SIZE = 500;
+
+	final String query;
+	final String[] fields;
+
+	private final Connection con;
+	private final Statement stmt;
+	private final ResultSet result;
+	private final List<String[]> rows = new ArrayList<>();
+	private boolean hasMore = true;
+	private boolean closed;
+
+	private SqlCursor(String query, Connection con, Statement stmt,
+			ResultSet result) throws SQLException {
+		this.query = query;
+		this.con = con;
+		this.stmt = stmt;
+		this.result = result;
+		var meta = result.getMetaData();
+		fields = new String[meta.getColumnCount()];
+		for (int i = 0; i < fields.length; i++) {
+			fields[i] = meta.getColumnLabel(i + 1);
+		}
+	}
+
+	/**
+	 * Executes the given query and fetches the first page of rows. The given
+	 * command is used to cancel the statement while it is executed.
+	 */
+	static SqlCursor open(IDatabase db, String query, SqlCommand command)
+			throws SQLException {
+		var con = db.createConnection();
+		try {
+			con.setReadOnly(true);
+			var stmt = con.createStatement(
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			stmt.setFetchSize(PAGE_SIZE);
+			command.running(stmt);
+			var result = stmt.executeQuery(query);
+			var cursor = new SqlCursor(query, con, stmt, result);
+			cursor.fetch(PAGE_SIZE);
+			return cursor;
+		} catch (SQLException e) {
+			if (!con.getAutoCommit()) {
+				con.rollback();
+			}
+			con.close();
+			throw e;
+		} finally {
+			command.running(null);
+		}
+	}
+
+	/**
+	 * Fetches the next rows of the query, at most the given number. Returns
+	 * the number of fetched rows.
+	 */
+	synchronized int fetch(int count) {
+		if (!hasMore)
+			return 0;
+		int fetched = 0;
+		try {
+			while (fetched < count) {
+				if (!result.next()) {
+					close();
+					break;
+				}
+				var row = new String[fields.length];
+				for (int i = 0; i < row.length; i++) {
+					var value = result.getObject(i + 1);
+					if (value != null) {
+						row[i] = value.toString();
+					}
+				}
+				rows.add(row);
+				fetched++;
+			}
+		} catch (SQLException e) {
+			LoggerFactory.getLogger(getClass())
+					.error("failed to fetch rows of query " + query, e);
+			close();
+		}
+		return fetched;
+	}
+
+	/** Returns the number of rows that were fetched so far. */
+	synchronized int size() {
+		return rows.size();
+	}
+
+	synchronized String[] row(int i) {
+		return i >= 0 && i < rows.size()
+				? rows.get(i)
+				: null;
+	}
+
+	/** Returns true if there could be more rows to fetch. */
+	synchronized boolean hasMore() {
+		return hasMore;
+	}
+
+	@Override
+	public synchronized void close() {
+		hasMore = false;
+		if (closed)
+			return;
+		closed = true;
+		try {
+			result.close();
+			stmt.close();
+			if (!con.getAutoCommit()) {
+				con.rollback();
+			}
+			con.close();
+		} catch (SQLException e) {
+			LoggerFactory.getLogger(getClass())
+					.warn("failed to close cursor of query " + query, e);
+		}
+	}
+}
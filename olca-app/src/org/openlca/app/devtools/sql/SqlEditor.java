@@ -7,9 +7,15 @@ import java.util.List;
 import java.util.UUID;
 
 import org.eclipse.jface.action.Action;
+import org.eclipse.jface.viewers.BaseLabelProvider;
+import org.eclipse.jface.viewers.ILazyContentProvider;
+import org.eclipse.jface.viewers.ITableLabelProvider;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.StyleRange;
 import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.layout.FillLayout;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Text;
@@ -17,7 +23,10 @@ import org.eclipse.ui.forms.IManagedForm;
 import org.eclipse.ui.forms.editor.FormPage;
 import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.eclipse.ui.forms.widgets.Section;
+import org.openlca.app.App;
 import org.openlca.app.M;
+import org.openlca.app.components.FileChooser;
+import org.openlca.app.db.Cache;
 import org.openlca.app.db.Database;
 import org.openlca.app.devtools.ScriptingEditor;
 import org.openlca.app.editors.Editors;
@@ -25,8 +34,10 @@ import org.openlca.app.editors.SimpleEditorInput;
 import org.openlca.app.rcp.images.Icon;
 import org.openlca.app.util.Actions;
 import org.openlca.app.util.Colors;
+import org.openlca.app.util.ErrorReporter;
 import org.openlca.app.util.MsgBox;
 import org.openlca.app.util.UI;
+import org.openlca.app.viewers.tables.Tables;
 import org.python.google.common.base.Strings;
 
 public class SqlEditor extends ScriptingEditor {
@@ -60,6 +71,16 @@ public class SqlEditor extends ScriptingEditor {
 
 	public void clearResults() {
 		page.resultText.setText("");
+		page.showCursor(null);
+	}
+
+	@Override
+	public void dispose() {
+		if (page != null) {
+			page.cancel();
+			page.closeCursor();
+		}
+		super.dispose();
 	}
 
 	private class Page extends FormPage {
@@ -68,6 +89,11 @@ public class SqlEditor extends ScriptingEditor {
 		private StyledText queryText;
 		private RunAction runAction;
 
+		private Composite tableComp;
+		private TableViewer table;
+		private SqlCursor cursor;
+		private volatile SqlCommand command;
+
 		public Page() {
 			super(SqlEditor.this, "SqlEditorPage", "SQL Query Browser");
 		}
@@ -106,9 +132,92 @@ public class SqlEditor extends ScriptingEditor {
 			Section section = UI.section(body, toolkit, "Results");
 			UI.gridData(section, true, true);
 			Composite composite = UI.sectionClient(section, toolkit, 1);
-			composite.setLayout(new FillLayout());
 			resultText = UI.text(composite, toolkit,
 					SWT.MULTI | SWT.H_SCROLL | SWT.V_SCROLL);
+			UI.gridData(resultText, true, false).heightHint = 80;
+			tableComp = UI.composite(composite, toolkit);
+			UI.gridData(tableComp, true, true);
+			tableComp.setLayout(new FillLayout());
+
+			var cancel = Actions.create(
+				M.Cancel, Icon.DELETE.descriptor(), this::cancel);
+			var export = Actions.create(
+				"Export result to CSV", Icon.EXPORT.descriptor(), this::exportCsv);
+			Actions.bind(section, cancel, export);
+		}
+
+		void cancel() {
+			var cmd = command;
+			if (cmd != null) {
+				cmd.cancel();
+			}
+		}
+
+		void closeCursor() {
+			if (cursor != null) {
+				cursor.close();
+				cursor = null;
+			}
+		}
+
+		/**
+		 * Shows the rows of the given cursor in a virtual table. The rows are
+		 * fetched from the cursor when they become visible.
+		 */
+		void showCursor(SqlCursor next) {
+			closeCursor();
+			if (table != null) {
+				table.getTable().dispose();
+				table = null;
+			}
+			cursor = next;
+			if (next == null || next.fields.length == 0) {
+				tableComp.layout();
+				return;
+			}
+			table = Tables.createViewer(tableComp, next.fields);
+			table.setLabelProvider(new RowLabel());
+			table.setUseHashlookup(false);
+			table.setContentProvider(new CursorContent(table, next));
+			table.setInput(next);
+			table.setItemCount(next.size());
+			tableComp.layout();
+		}
+
+		private void exportCsv() {
+			var db = Database.get();
+			if (cursor == null || db == null) {
+				MsgBox.info("No query result",
+					"Run a query first; its complete result is then exported.");
+				return;
+			}
+			var query = cursor.query;
+			var file = FileChooser.forSavingFile("Export result", "query.csv");
+			if (file == null)
+				return;
+			var cmd = new SqlCommand();
+			command = cmd;
+			long start = System.currentTimeMillis();
+			var count = new long[1];
+			var error = new Exception[1];
+			App.run("Export query result", () -> {
+				try {
+					count[0] = cmd.exportCsv(db, query, file, cmd::wasCanceled);
+				} catch (Exception e) {
+					error[0] = e;
+				}
+			}, () -> {
+				if (error[0] != null) {
+					ErrorReporter.on("Failed to export query result", error[0]);
+					return;
+				}
+				if (command != cmd || resultText.isDisposed())
+					return;
+				resultText.setText(String.format(
+					"Exported %d rows to %s in %d ms%s", count[0], file.getName(),
+					System.currentTimeMillis() - start,
+					cmd.wasCanceled() ? " (canceled)" : ""));
+			});
 		}
 
 		private class RunAction extends Action {
@@ -121,34 +230,79 @@ public class SqlEditor extends ScriptingEditor {
 
 			@Override
 			public void run() {
-				if (Database.get() == null) {
+				var db = Database.get();
+				if (db == null) {
 					MsgBox.error(M.NoDatabaseOpened, M.NeedOpenDatabase);
 					return;
 				}
 				var statements = getStatements();
-				var results = new ArrayList<String>();
-				for (String st : statements) {
-					var result = new SqlCommand().exec(st, Database.get());
-					results.add(result);
+				if (statements.isEmpty())
+					return;
+				cancel();
+				showCursor(null);
+				resultText.setText("Running ...");
+
+				var cmd = new SqlCommand();
+				command = cmd;
+				var results = new ArrayList<SqlCommand.Result>();
+				App.run("Run SQL statements", () -> {
+					for (int i = 0; i < statements.size(); i++) {
+						if (cmd.wasCanceled())
+							break;
+						var result = cmd.exec(statements.get(i), db);
+						// only the cursor of the last query is kept open
+						if (result.isQuery() && i < statements.size() - 1) {
+							result.cursor().close();
+						}
+						results.add(result);
+					}
+					// statements that are not queries could have changed
+					// models that are held in the application caches
+					if (results.stream().anyMatch(r -> !r.isQuery())) {
+						Cache.evictAll();
+					}
+				}, () -> showResults(cmd, results));
+			}
+
+			private void showResults(SqlCommand cmd, List<SqlCommand.Result> results) {
+				// a run that was replaced by a newer run must not overwrite
+				// its results
+				if (command != cmd || resultText.isDisposed()) {
+					results.stream()
+						.filter(SqlCommand.Result::isQuery)
+						.forEach(r -> r.cursor().close());
+					return;
 				}
-				if (results.size() == 1)
-					resultText.setText(results.get(0));
-				else {
-					var buff = new StringBuilder();
-					buff.append("Executed ")
-							.append(results.size())
-							.append(" statements:\n");
-					int i = 1;
-					for (String result : results) {
-						buff.append('\n')
-								.append(i)
-								.append(". result: \n")
-								.append(org.openlca.util.Strings.cut(result, 1500))
-								.append('\n');
-						i++;
+				var buff = new StringBuilder();
+				int i = 1;
+				for (var result : results) {
+					if (results.size() > 1) {
+						buff.append(i).append(". ")
+							.append(org.openlca.util.Strings.cut(result.statement(), 80))
+							.append(": ");
 					}
-					resultText.setText(buff.toString());
+					buff.append(summaryOf(result)).append('\n');
+					i++;
+				}
+				if (cmd.wasCanceled()) {
+					buff.append("Canceled\n");
 				}
+				resultText.setText(buff.toString());
+				var last = results.isEmpty()
+					? null
+					: results.get(results.size() - 1);
+				showCursor(last != null && last.isQuery()
+					? last.cursor()
+					: null);
+			}
+
+			private String summaryOf(SqlCommand.Result result) {
+				if (!result.isQuery())
+					return result.message() + " (" + result.millis() + " ms)";
+				var cursor = result.cursor();
+				return cursor.size()
+					+ (cursor.hasMore() ? "+ rows" : " rows")
+					+ " (" + result.millis() + " ms)";
 			}
 
 			private List<String> getStatements() {
@@ -191,6 +345,59 @@ public class SqlEditor extends ScriptingEditor {
 			}
 		}
 
+		private static class RowLabel extends BaseLabelProvider
+			implements ITableLabelProvider {
+
+			@Override
+			public Image getColumnImage(Object obj, int col) {
+				return null;
+			}
+
+			@Override
+			public String getColumnText(Object obj, int col) {
+				if (!(obj instanceof String[] row) || col >= row.length)
+					return null;
+				return row[col] == null ? "NULL" : row[col];
+			}
+		}
+
+		/**
+		 * Provides the rows of a cursor to a virtual table. When a row near the
+		 * end of the fetched rows is requested, the next page is fetched and
+		 * the item count of the table is increased.
+		 */
+		private class CursorContent implements ILazyContentProvider {
+
+			private final TableViewer viewer;
+			private final SqlCursor cursor;
+
+			CursorContent(TableViewer viewer, SqlCursor cursor) {
+				this.viewer = viewer;
+				this.cursor = cursor;
+			}
+
+			@Override
+			public void updateElement(int index) {
+				if (index >= cursor.size() - SqlCursor.PAGE_SIZE / 5
+						&& cursor.hasMore()
+						&& cursor.fetch(SqlCursor.PAGE_SIZE) > 0) {
+					viewer.getTable().getDisplay().asyncExec(() -> {
+						if (viewer.getTable().isDisposed())
+							return;
+						viewer.setItemCount(cursor.size());
+					});
+				}
+				var row = cursor.row(index);
+				if (row != null) {
+					viewer.replace(row, index);
+				}
+			}
+
+			@Override
+			public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+			}
+		}
+
 		private class SyntaxStyler {
 
 			private final StyledText text;
@@ -24,7 +24,6 @@ import org.openlca.core.model.ProcessLink;
 import org.openlca.core.model.ProductSystem;
 import org.openlca.core.model.RootEntity;
 import org.openlca.core.model.Version;
-import org.openlca.jsonld.Json;
 
 import java.util.Calendar;
 import java.util.HashMap;
@@ -32,8 +31,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import static org.openlca.app.editors.graphical.GraphFile.KEY_NODES;
-import static org.openlca.app.editors.graphical.GraphFile.KEY_STICKY_NOTES;
 import static org.openlca.app.editors.graphical.actions.MassExpansionAction.COLLAPSE;
 import static org.openlca.app.editors.graphical.actions.MassExpansionAction.EXPAND;
 import static org.openlca.app.editors.graphical.actions.SearchConnectorsAction.PROVIDER;
@@ -57,6 +54,7 @@ public class GraphEditor extends GraphicalEditorWithFrame {
 	// TODO: save this in the same way as the layout is currently stored
 	public final GraphConfig config = new GraphConfig();
 	private final GraphFactory graphFactory = new GraphFactory(this);
+	private final NodeLoader nodeLoader = new NodeLoader();
 	private final Set<RootEntity> dirtyEntities = new HashSet<>();
 
 	public GraphEditor(ProductSystemEditor editor) {
@@ -275,6 +273,10 @@ public class GraphEditor extends GraphicalEditorWithFrame {
 		return graphFactory;
 	}
 
+	public NodeLoader getNodeLoader() {
+		return nodeLoader;
+	}
+
 	/**
 	 * Make super.getActionRegistry() public.
 	 */
@@ -294,6 +296,8 @@ public class GraphEditor extends GraphicalEditorWithFrame {
 			saveEntity(entity);
 		}
 		dirtyEntities.clear();
+		// prefetched entities could be outdated after saving
+		nodeLoader.clear();
 	}
 
 	private void saveEntity(RootEntity entity) {
@@ -355,11 +359,8 @@ public class GraphEditor extends GraphicalEditorWithFrame {
 		systemEditor.updateModel();
 
 		// Create new nodes with the new config.
-		var rootObj = GraphFile.createJsonArray(this, getModel());
-		var nodeArray = Json.getArray(rootObj, KEY_NODES);
-		var stickyNoteArray = Json.getArray(rootObj, KEY_STICKY_NOTES);
-		var newGraph = getGraphFactory().createGraph(this, nodeArray,
-				stickyNoteArray);
+		var layout = GraphFile.layoutOf(this, getModel());
+		var newGraph = getGraphFactory().createGraph(this, layout);
 
 		setModel(newGraph);
 		getGraphicalViewer().setContents(newGraph);
@@ -368,9 +369,8 @@ public class GraphEditor extends GraphicalEditorWithFrame {
 	}
 
 	public void onFirstActivation() {
-		var nodeArray = GraphFile.getLayout(this, KEY_NODES);
-		var stickyNoteArray = GraphFile.getLayout(this, KEY_STICKY_NOTES);
-		var graph = getGraphFactory().createGraph(this, nodeArray, stickyNoteArray);
+		var layout = GraphFile.getLayout(this);
+		var graph = getGraphFactory().createGraph(this, layout);
 		setModel(graph);
 		getGraphicalViewer().setContents(graph);
 		getZoomManager().setZoom(config.zoom(), false);
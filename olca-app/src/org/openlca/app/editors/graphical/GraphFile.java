@@ -1,9 +1,26 @@
 package org.openlca.app.editors.graphical;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import org.apache.commons.io.FileUtils;
 import org.eclipse.draw2d.geometry.Dimension;
 import org.eclipse.draw2d.geometry.Point;
@@ -27,15 +44,39 @@ import static org.openlca.app.tools.graphics.model.Side.OUTPUT;
 /**
  * We save the current layout and some settings in an external file of the
  * database folder.
+ * <p>
+ * The layout is written in a compact binary format that is read and written
+ * as a stream: a header with the graph configuration is followed by the node
+ * records, keyed by the reference IDs of the nodes, and the sticky notes. As
+ * the configuration comes first, it can be read without reading the node
+ * records. The file is only rewritten when the layout has changed. Layouts
+ * of older versions, saved as JSON, are still read.
  */
 public final class GraphFile {
 
 	static final String KEY_NODES = "nodes";
 	static final String KEY_STICKY_NOTES = "sticky-notes";
 
+	private static final int MAGIC = 0x4f4c4c59; // OLLY
+	private static final int FORMAT_VERSION = 1;
+
+	private static final int MINIMIZED = 1;
+	private static final int EXPANDED_LEFT = 2;
+	private static final int EXPANDED_RIGHT = 4;
+
 	private GraphFile() {
 	}
 
+	/**
+	 * The layout of a graph: the configuration, the layout information of the
+	 * nodes by their reference IDs, and the sticky notes.
+	 */
+	public record Layout(
+			GraphConfig config,
+			Map<String, NodeLayoutInfo> nodes,
+			List<StickyNoteLayoutInfo> stickyNotes) {
+	}
+
 	public static void save(GraphEditor editor) {
 		var graph = editor != null
 				? editor.getModel()
@@ -46,9 +87,25 @@ public final class GraphFile {
 		editor.config.setZoom(editor.getZoomManager().getZoom());
 		var viewLocation = editor.getZoomManager().getViewport().getViewLocation();
 		editor.config.setViewLocation(viewLocation);
-		var rootObj = createJsonArray(editor, graph);
+		var layout = layoutOf(editor, graph);
 		try {
-			Json.write(rootObj, file(editor.getProductSystem()));
+			var bytes = toBytes(layout);
+			var system = editor.getProductSystem();
+			var file = file(system);
+			if (file.exists()
+					&& Arrays.equals(bytes, Files.readAllBytes(file.toPath())))
+				return;
+			var tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+			Files.write(tmp.toPath(), bytes);
+			try {
+				Files.move(tmp.toPath(), file.toPath(),
+						StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp.toPath(), file.toPath(),
+						StandardCopyOption.REPLACE_EXISTING);
+			}
+			Files.deleteIfExists(jsonFile(system).toPath());
 		} catch (Exception e) {
 			Logger log = LoggerFactory.getLogger(GraphFile.class);
 			log.error("Failed to save layout", e);
@@ -64,77 +121,136 @@ public final class GraphFile {
 		}
 	}
 
-	public static JsonObject createJsonArray(GraphEditor editor, Graph graph) {
-		// add config
-		var rootObj = new JsonObject();
-		rootObj.add(CONFIG_PROP, editor.config.toJson());
-
-		// add component info's
-		var nodeArray = new JsonArray();
+	/**
+	 * Creates the layout of the current state of the given graph.
+	 */
+	public static Layout layoutOf(GraphEditor editor, Graph graph) {
+		var nodes = new LinkedHashMap<String, NodeLayoutInfo>();
 		for (var node : graph.getNodes()) {
-			var nodeObj = toJson(node);
-			if (nodeObj != null)
-				nodeArray.add(nodeObj);
+			var info = infoOf(node);
+			if (info != null) {
+				nodes.put(info.id, info);
+			}
 		}
-		var stickyNoteArray = new JsonArray();
+		var notes = new ArrayList<StickyNoteLayoutInfo>();
 		for (var note : graph.getStickyNotes()) {
-			var noteObj = toJson(note);
-			if (noteObj != null)
-				stickyNoteArray.add(noteObj);
+			var info = infoOf(note);
+			if (info != null) {
+				notes.add(info);
+			}
 		}
-		rootObj.add(KEY_NODES, nodeArray);
-		rootObj.add(KEY_STICKY_NOTES, stickyNoteArray);
-		return rootObj;
+		return new Layout(editor.config.copy(), nodes, notes);
 	}
 
-	private static JsonObject toJson(Node node) {
+	private static NodeLayoutInfo infoOf(Node node) {
 		if (node == null || node.descriptor == null)
 			return null;
-		var json = new JsonObject();
-		json.addProperty("id", node.descriptor.refId);
+		var info = new NodeLayoutInfo();
+		info.id = node.descriptor.refId;
+		info.location = locationOf(node);
+		info.size = sizeOf(node);
+		info.minimized = node.isMinimized();
+		info.expandedLeft = node.isExpanded(INPUT);
+		info.expandedRight = node.isExpanded(OUTPUT);
+		return info;
+	}
 
-		setLayoutProperties(json, node);
-		json.addProperty("expandedLeft", node.isExpanded(INPUT));
-		json.addProperty("expandedRight", node.isExpanded(OUTPUT));
+	private static StickyNoteLayoutInfo infoOf(StickyNote note) {
+		if (note == null)
+			return null;
+		var info = new StickyNoteLayoutInfo();
+		info.title = note.title;
+		info.content = note.content;
+		info.location = locationOf(note);
+		info.size = sizeOf(note);
+		info.minimized = note.isMinimized();
+		return info;
+	}
 
-		return json;
+	private static Point locationOf(MinMaxComponent component) {
+		var location = component.getLocation();
+		return location != null
+				? location.getCopy()
+				: new Point(Integer.MAX_VALUE, Integer.MAX_VALUE);
 	}
 
-	private static void setLayoutProperties(JsonObject json,
-		MinMaxComponent component) {
+	private static Dimension sizeOf(MinMaxComponent component) {
 		var size = component.getSize();
-		if (size != null) {
-			json.addProperty("width",  size.width);
-			json.addProperty("height",  size.height);
-		}
-		var location = component.getLocation();
-		if (location != null) {
-			json.addProperty("x", location.x);
-			json.addProperty("y",  location.y);
-		}
+		return size != null
+				? size.getCopy()
+				: Node.DEFAULT_SIZE.getCopy();
+	}
 
-		json.addProperty("minimized", component.isMinimized());
+	private static byte[] toBytes(Layout layout) throws IOException {
+		var bytes = new ByteArrayOutputStream();
+		try (var out = new DataOutputStream(bytes)) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			writeString(out, layout.config().toJson().toString());
+
+			out.writeInt(layout.nodes().size());
+			for (var info : layout.nodes().values()) {
+				writeString(out, info.id);
+				writeBounds(out, info.location, info.size);
+				int flags = 0;
+				if (info.minimized) flags |= MINIMIZED;
+				if (info.expandedLeft) flags |= EXPANDED_LEFT;
+				if (info.expandedRight) flags |= EXPANDED_RIGHT;
+				out.writeByte(flags);
+			}
+
+			out.writeInt(layout.stickyNotes().size());
+			for (var info : layout.stickyNotes()) {
+				writeString(out, info.title);
+				writeString(out, info.content);
+				writeBounds(out, info.location, info.size);
+				out.writeBoolean(info.minimized);
+			}
+		}
+		return bytes.toByteArray();
 	}
 
-	private static JsonObject toJson(StickyNote note) {
-		if (note == null)
-			return null;
-		var json = new JsonObject();
-		json.addProperty("title", note.title);
-		json.addProperty("content", note.content);
+	private static void writeBounds(
+			DataOutputStream out, Point location, Dimension size) throws IOException {
+		out.writeInt(location.x);
+		out.writeInt(location.y);
+		out.writeInt(size.width);
+		out.writeInt(size.height);
+	}
 
-		setLayoutProperties(json, note);
+	/** Strings are written with their length, so they can be larger than 64K. */
+	private static void writeString(
+			DataOutputStream out, String s) throws IOException {
+		if (s == null) {
+			out.writeInt(-1);
+			return;
+		}
+		var bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
 
-		return json;
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0)
+			return null;
+		var bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
 	}
 
 	public static GraphConfig getGraphConfig(GraphEditor editor) {
 		try {
-			var file = GraphFile.file(editor.getProductSystem());
-			if (!file.exists())
-				return null;
-			var rootObj = Json.readObject(file)
-				.orElse(null);
+			var system = editor.getProductSystem();
+			var file = file(system);
+			if (file.exists()) {
+				try (var in = openBinary(file)) {
+					return in != null
+							? readConfig(in)
+							: null;
+				}
+			}
+			var rootObj = readJson(system);
 			if (rootObj == null)
 				return null;
 
@@ -148,18 +264,25 @@ public final class GraphFile {
 		}
 	}
 
-	public static JsonArray getLayout(GraphEditor editor, String element) {
+	/**
+	 * Reads the saved layout of the graph of the given editor. Returns `null`
+	 * if there is no saved layout.
+	 */
+	public static Layout getLayout(GraphEditor editor) {
 		try {
-			// read JSON object from file
-			var file = file(editor.getProductSystem());
-			if (!file.exists())
-				return null;
-			var rootObj = Json.readObject(file).orElse(null);
-			if (rootObj == null)
-				return null;
-
-			// apply node info's
-			return Json.getArray(rootObj, element);
+			var system = editor.getProductSystem();
+			var file = file(system);
+			if (file.exists()) {
+				try (var in = openBinary(file)) {
+					return in != null
+							? readLayout(in)
+							: null;
+				}
+			}
+			var rootObj = readJson(system);
+			return rootObj != null
+					? layoutOf(rootObj)
+					: null;
 		} catch (Exception e) {
 			var log = LoggerFactory.getLogger(GraphFile.class);
 			log.error("Failed to load layout", e);
@@ -167,7 +290,104 @@ public final class GraphFile {
 		}
 	}
 
-	public static NodeLayoutInfo toNodeLayoutInfo(JsonObject obj) {
+	/**
+	 * Opens the given layout file and reads its header. Returns `null` if the
+	 * file has an unknown format.
+	 */
+	private static DataInputStream openBinary(File file) throws IOException {
+		var in = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(file)));
+		if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+			in.close();
+			return null;
+		}
+		return in;
+	}
+
+	private static GraphConfig readConfig(DataInputStream in) throws IOException {
+		var json = readString(in);
+		if (json == null)
+			return new GraphConfig();
+		var obj = JsonParser.parseString(json);
+		return GraphConfig.fromJson(obj.isJsonObject()
+				? obj.getAsJsonObject()
+				: null);
+	}
+
+	private static Layout readLayout(DataInputStream in) throws IOException {
+		var config = readConfig(in);
+
+		int nodeCount = in.readInt();
+		var nodes = new LinkedHashMap<String, NodeLayoutInfo>();
+		for (int i = 0; i < nodeCount; i++) {
+			var info = new NodeLayoutInfo();
+			info.id = readString(in);
+			info.location = new Point(in.readInt(), in.readInt());
+			info.size = new Dimension(in.readInt(), in.readInt());
+			int flags = in.readByte();
+			info.minimized = (flags & MINIMIZED) != 0;
+			info.expandedLeft = (flags & EXPANDED_LEFT) != 0;
+			info.expandedRight = (flags & EXPANDED_RIGHT) != 0;
+			if (info.id != null) {
+				nodes.put(info.id, info);
+			}
+		}
+
+		int noteCount = in.readInt();
+		var notes = new ArrayList<StickyNoteLayoutInfo>(noteCount);
+		for (int i = 0; i < noteCount; i++) {
+			var info = new StickyNoteLayoutInfo();
+			info.title = readString(in);
+			info.content = readString(in);
+			info.location = new Point(in.readInt(), in.readInt());
+			info.size = new Dimension(in.readInt(), in.readInt());
+			info.minimized = in.readBoolean();
+			notes.add(info);
+		}
+		return new Layout(config, nodes, notes);
+	}
+
+	private static JsonObject readJson(ProductSystem system) {
+		var file = jsonFile(system);
+		if (!file.exists())
+			return null;
+		return Json.readObject(file).orElse(null);
+	}
+
+	/**
+	 * Converts a layout that was saved as JSON by an older version.
+	 */
+	private static Layout layoutOf(JsonObject rootObj) {
+		var nodeArray = Json.getArray(rootObj, KEY_NODES);
+		var noteArray = Json.getArray(rootObj, KEY_STICKY_NOTES);
+		if (nodeArray == null || noteArray == null)
+			return null;
+		var config = GraphConfig.fromJson(Json.getObject(rootObj, CONFIG_PROP));
+		var nodes = new LinkedHashMap<String, NodeLayoutInfo>();
+		for (var info : infosOf(nodeArray, GraphFile::toNodeLayoutInfo)) {
+			if (info.id != null) {
+				nodes.put(info.id, info);
+			}
+		}
+		var notes = infosOf(noteArray, GraphFile::toStickyNoteLayoutInfo);
+		return new Layout(config, nodes, notes);
+	}
+
+	private static <T> List<T> infosOf(
+			JsonArray array, Function<JsonObject, T> fn) {
+		var infos = new ArrayList<T>(array.size());
+		for (var elem : array) {
+			if (!elem.isJsonObject())
+				continue;
+			var info = fn.apply(elem.getAsJsonObject());
+			if (info != null) {
+				infos.add(info);
+			}
+		}
+		return infos;
+	}
+
+	private static NodeLayoutInfo toNodeLayoutInfo(JsonObject obj) {
 		if (obj == null)
 			return null;
 		var info = new NodeLayoutInfo();
@@ -184,7 +404,7 @@ public final class GraphFile {
 		return info;
 	}
 
-	public static StickyNoteLayoutInfo toStickyNoteLayoutInfo(JsonObject obj) {
+	private static StickyNoteLayoutInfo toStickyNoteLayoutInfo(JsonObject obj) {
 		if (obj == null)
 			return null;
 		var info = new StickyNoteLayoutInfo();
@@ -202,6 +422,15 @@ public final class GraphFile {
 	}
 
 	public static File file(ProductSystem system) {
+		return new File(dir(system), "layout.bin");
+	}
+
+	/** The file of the layout format of older versions. */
+	private static File jsonFile(ProductSystem system) {
+		return new File(dir(system), "layout.json");
+	}
+
+	private static File dir(ProductSystem system) {
 		File dir = DatabaseDir.getDir(system);
 		if (!dir.exists()) {
 			if (!dir.mkdirs()) {
@@ -209,7 +438,7 @@ public final class GraphFile {
 						"failed to create folder " + dir);
 			}
 		}
-		return new File(dir, "layout.json");
+		return dir;
 	}
 
 }
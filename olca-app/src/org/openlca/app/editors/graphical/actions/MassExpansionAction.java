@@ -1,12 +1,18 @@
 package org.openlca.app.editors.graphical.actions;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.eclipse.gef.EditPart;
 import org.eclipse.gef.GraphicalViewer;
 import org.eclipse.gef.commands.Command;
 import org.eclipse.gef.commands.CompoundCommand;
 import org.eclipse.gef.ui.actions.StackAction;
+import org.openlca.app.App;
 import org.openlca.app.M;
 import org.openlca.app.editors.graphical.GraphEditor;
+import org.openlca.app.editors.graphical.model.Graph;
 import org.openlca.app.editors.graphical.requests.ExpandCollapseRequest;
 import org.openlca.app.rcp.images.Icon;
 import org.openlca.app.util.Question;
@@ -100,12 +106,55 @@ public class MassExpansionAction extends StackAction {
 		var doIt = type == COLLAPSE || count < NODE_LIMITATION || Question.ask(
 			M.ExpandAll, M.ExpandAll + ": " + count + " " + M.Processes);
 
-		if (doIt)	{
-			execute(getCommand());
-			graph.firePropertyChange(CHILDREN_PROP, null, null);
+		if (!doIt) {
+			editor.updateStackActions();
+			return;
+		}
+
+		if (type == COLLAPSE) {
+			apply();
+			return;
+		}
+
+		// the new nodes are loaded in batches in the background first
+		var ids = newNodeIds(graph);
+		if (ids.isEmpty()) {
+			apply();
+			return;
 		}
+		App.run(M.ExpandAll,
+				() -> editor.getNodeLoader().prefetch(ids),
+				() -> {
+					if (editor.getModel() == graph)
+						apply();
+					editor.getNodeLoader().clear();
+				});
+	}
 
+	private void apply() {
+		execute(getCommand());
+		editor.getModel().firePropertyChange(CHILDREN_PROP, null, null);
 		editor.updateStackActions();
 	}
 
+	/**
+	 * Collects the IDs of the nodes that will be added to the graph when the
+	 * nodes that are not fully expanded are expanded.
+	 */
+	private Set<Long> newNodeIds(Graph graph) {
+		var ids = new HashSet<Long>();
+		for (var node : graph.getNodes()) {
+			if (node.isExpanded(INPUT) && node.isExpanded(OUTPUT))
+				continue;
+			for (var link : graph.linkSearch.getLinks(node.descriptor.id)) {
+				for (var id : List.of(link.processId, link.providerId)) {
+					if (graph.getNode(id) == null) {
+						ids.add(id);
+					}
+				}
+			}
+		}
+		return ids;
+	}
+
 }
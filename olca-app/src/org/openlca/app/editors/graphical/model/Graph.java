@@ -1,6 +1,7 @@
 package org.openlca.app.editors.graphical.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,6 +17,8 @@ import org.openlca.core.model.Process;
 import org.openlca.core.model.ProcessLink;
 import org.openlca.core.model.ProductSystem;
 
+import gnu.trove.map.hash.TLongObjectHashMap;
+
 import static org.eclipse.draw2d.PositionConstants.EAST;
 
 
@@ -35,6 +38,18 @@ public class Graph extends BaseComponent {
 	private final Process referenceProcess;
 	private Node referenceNode;
 
+	/** The nodes by the IDs of their descriptors. */
+	private final TLongObjectHashMap<Node> nodeIndex = new TLongObjectHashMap<>();
+
+	/**
+	 * The children partitioned by type, in the order of the children. These
+	 * lists are immutable and created again when they are requested after
+	 * the children changed.
+	 */
+	private List<Node> nodes;
+	private List<StickyNote> stickyNotes;
+	private List<MinMaxComponent> minMaxComponents;
+
 	public Graph(GraphEditor editor) {
 		this.editor = editor;
 		var system = editor.getProductSystem();
@@ -43,11 +58,7 @@ public class Graph extends BaseComponent {
 	}
 
 	public Node getNode(long id) {
-		for (var node : getNodes()) {
-			if (node.descriptor != null && node.descriptor.id == id)
-				return node;
-		}
-		return null;
+		return nodeIndex.get(id);
 	}
 
 	public GraphLink getLink(ProcessLink processLink) {
@@ -90,30 +101,74 @@ public class Graph extends BaseComponent {
 	 * @return Only return the Node children of the graph.
 	 */
 	public List<Node> getNodes() {
-		return getChildren().stream()
-				.filter(child -> child instanceof Node)
-				.map(child -> (Node) child)
-				.toList();
+		if (nodes == null) {
+			partitionChildren();
+		}
+		return nodes;
 	}
 
 	/**
 	 * @return Only return the StickyNote children of the graph.
 	 */
 	public List<StickyNote> getStickyNotes() {
-		return getChildren().stream()
-				.filter(child -> child instanceof StickyNote)
-				.map(child -> (StickyNote) child)
-				.toList();
+		if (stickyNotes == null) {
+			partitionChildren();
+		}
+		return stickyNotes;
 	}
 
 	/**
 	 * @return Only return the MinMaxComponent children of the graph.
 	 */
 	public List<MinMaxComponent> getMinMaxComponents() {
-		return getChildren().stream()
-				.filter(child -> child instanceof MinMaxComponent)
-				.map(child -> (MinMaxComponent) child)
-				.toList();
+		if (minMaxComponents == null) {
+			partitionChildren();
+		}
+		return minMaxComponents;
+	}
+
+	private void partitionChildren() {
+		var nodes = new ArrayList<Node>();
+		var notes = new ArrayList<StickyNote>();
+		var minMax = new ArrayList<MinMaxComponent>();
+		for (var child : getChildren()) {
+			if (child instanceof Node node) {
+				nodes.add(node);
+			}
+			if (child instanceof StickyNote note) {
+				notes.add(note);
+			}
+			if (child instanceof MinMaxComponent c) {
+				minMax.add(c);
+			}
+		}
+		this.nodes = Collections.unmodifiableList(nodes);
+		this.stickyNotes = Collections.unmodifiableList(notes);
+		this.minMaxComponents = Collections.unmodifiableList(minMax);
+	}
+
+	@Override
+	protected void childAdded(Component child) {
+		clearPartitions();
+		if (child instanceof Node node && node.descriptor != null
+				&& !nodeIndex.containsKey(node.descriptor.id)) {
+			nodeIndex.put(node.descriptor.id, node);
+		}
+	}
+
+	@Override
+	protected void childRemoved(Component child) {
+		clearPartitions();
+		if (child instanceof Node node && node.descriptor != null
+				&& nodeIndex.get(node.descriptor.id) == node) {
+			nodeIndex.remove(node.descriptor.id);
+		}
+	}
+
+	private void clearPartitions() {
+		nodes = null;
+		stickyNotes = null;
+		minMaxComponents = null;
 	}
 
 	@Override
@@ -122,8 +177,9 @@ public class Graph extends BaseComponent {
 	}
 
 	public List<Long> getChildrenIds() {
-		var ids = new ArrayList<Long>();
-		for (var node : getNodes()) {
+		var nodes = getNodes();
+		var ids = new ArrayList<Long>(nodes.size());
+		for (var node : nodes) {
 			ids.add(node.descriptor.id);
 		}
 		return ids;
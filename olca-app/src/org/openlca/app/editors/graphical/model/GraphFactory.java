@@ -2,7 +2,6 @@ package org.openlca.app.editors.graphical.model;
 
 import java.util.*;
 
-import com.google.gson.JsonArray;
 import org.eclipse.draw2d.geometry.Point;
 import org.openlca.app.db.Database;
 import org.openlca.app.editors.graphical.GraphEditor;
@@ -40,6 +39,15 @@ public class GraphFactory {
 
 		var node = applyInfo(new Node(descriptor), info);
 
+		// a dirty entity has priority over a prefetched one
+		var entity = editor.getDirty(descriptor.id);
+		if (entity == null) {
+			entity = editor.getNodeLoader().takeEntity(descriptor.id);
+		}
+		if (entity != null) {
+			node.setEntity(entity);
+		}
+
 		// A Node (MinMaxGraphComponent) `minimized` attribute is by default true.
 		if (!node.isMinimized()) {
 			var panes = createIOPanes(node);
@@ -181,9 +189,8 @@ public class GraphFactory {
 		graph.mapProcessLinkToGraphLink.put(pLink, link);
 	}
 
-	public Graph createGraph(GraphEditor editor, JsonArray nodeArray,
-			JsonArray stickyNoteArray) {
-		if ((nodeArray == null) || (stickyNoteArray == null))
+	public Graph createGraph(GraphEditor editor, GraphFile.Layout layout) {
+		if (layout == null)
 			return createGraph(editor);
 
 		var graph = new Graph(editor);
@@ -193,7 +200,7 @@ public class GraphFactory {
 
 		// Create the reference node.
 		if (referenceProcess != null) {
-			var refNodeInfo = getNodeInfo(nodeArray, referenceProcess.refId);
+			var refNodeInfo = layout.nodes().get(referenceProcess.refId);
 			var descriptor = getDescriptor(referenceProcess.id);
 			var refNode = createNode(descriptor, refNodeInfo);
 			if (refNode != null) {
@@ -201,22 +208,23 @@ public class GraphFactory {
 			}
 		}
 
-		// Create other nodes.
-		for (var elem : nodeArray) {
-			if (!elem.isJsonObject())
-				continue;
-			var obj = elem.getAsJsonObject();
-			var info = GraphFile.toNodeLayoutInfo(obj);
-			if (info == null)
-				continue;
-
+		// Create other nodes; the entities are loaded in batches first.
+		var infos = new LinkedHashMap<NodeLayoutInfo, RootDescriptor>();
+		for (var info : layout.nodes().values()) {
 			// The reference should not be created again.
 			if (referenceProcess != null
 					&& Objects.equals(info.id, referenceProcess.refId))
 				continue;
 
 			var descriptor = getDescriptor(info.id);
-			var node = createNode(descriptor, info);
+			if (descriptor != null) {
+				infos.put(info, descriptor);
+			}
+		}
+		editor.getNodeLoader().prefetch(
+				infos.values().stream().map(d -> d.id).toList());
+		for (var e : infos.entrySet()) {
+			var node = createNode(e.getValue(), e.getKey());
 			if (node == null)
 				continue;
 			graph.addChild(node);
@@ -228,18 +236,13 @@ public class GraphFactory {
 		}
 
 		// Create the sticky notes
-		for (var elem : stickyNoteArray) {
-			if (!elem.isJsonObject())
-				continue;
-			var obj = elem.getAsJsonObject();
-			var info = GraphFile.toStickyNoteLayoutInfo(obj);
-			if (info == null)
-				continue;
+		for (var info : layout.stickyNotes()) {
 			var note = createStickyNote(info);
 			if (note == null)
 				continue;
 			graph.addChild(note);
 		}
+		editor.getNodeLoader().clear();
 		return graph;
 	}
 
@@ -272,24 +275,10 @@ public class GraphFactory {
 			config.setShowElementaryFlows(true);
 			config.copyTo(editor.config);
 		}
+		editor.getNodeLoader().clear();
 		return graph;
 	}
 
-	private static NodeLayoutInfo getNodeInfo(JsonArray array, String id) {
-		var descriptor = getDescriptor(id);
-		if (descriptor != null) {
-			for (var elem : array) {
-				if (!elem.isJsonObject())
-					continue;
-				var obj = elem.getAsJsonObject();
-				var info = GraphFile.toNodeLayoutInfo(obj);
-				if (Objects.equals(info.id, descriptor.refId))
-					return info;
-			}
-		}
-		return null;
-	}
-
 	public static RootDescriptor getDescriptor(long id) {
 		var db = Database.get();
 		if (db == null)
@@ -58,7 +58,7 @@ public class Node extends MinMaxComponent {
 	 * isOnlyChainingReferenceNode.
 	 */
 	public boolean wasExplored;
-	private final String comparisonLabel = Labels.name(getRefFlow());
+	private String comparisonLabel;
 	private final Map<Integer, Boolean> buttonStatus = new HashMap<>();
 
 	public Node(RootDescriptor descriptor) {
@@ -427,6 +427,10 @@ public class Node extends MinMaxComponent {
 
 	@Override
 	public String getComparisonLabel() {
+		// computed on demand, as it requires the entity
+		if (comparisonLabel == null) {
+			comparisonLabel = Labels.name(getRefFlow());
+		}
 		return comparisonLabel;
 	}
 
@@ -0,0 +1,156 @@
+package org.openlca.app.editors.graphical.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openlca.app.db.Database;
+import org.openlca.core.database.Daos;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.RootEntity;
+import org.openlca.core.model.descriptors.RootDescriptor;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads the descriptors and entities of nodes in batches before the nodes are
+ * created. When many nodes are added to a graph at once (e.g. when expanding
+ * all nodes), this replaces the single queries for each node with a few
+ * batched queries; it can be called from a background job.
+ * <p>
+ * The prefetched entities are handed over to the nodes when they are created
+ * and then removed from the loader. Entities that are not taken are removed
+ * when the operation that prefetched them is finished (an expansion or the
+ * creation of the graph) and when the editor is saved, so that they cannot
+ * overwrite newer versions later. In addition, the cache of the loader is
+ * bounded.
+ */
+public class NodeLoader {
+
+	/** The maximum number of entities and descriptors that are kept. */
+	private static final int MAX_CACHED = 5000;
+
+	/** The maximum number of IDs in a single query. */
+	private static final int BATCH_SIZE = 500;
+
+	private static final List<ModelType> TYPES = List.of(
+			ModelType.PROCESS, ModelType.PRODUCT_SYSTEM, ModelType.RESULT);
+
+	private final Map<Long, RootDescriptor> descriptors = lru();
+	private final Map<Long, RootEntity> entities = lru();
+
+	private static <T> Map<Long, T> lru() {
+		return Collections.synchronizedMap(
+				new LinkedHashMap<>(16, 0.75f, true) {
+					@Override
+					protected boolean removeEldestEntry(Map.Entry<Long, T> e) {
+						return size() > MAX_CACHED;
+					}
+				});
+	}
+
+	/**
+	 * Loads the descriptors and entities of the nodes with the given IDs in
+	 * batches. IDs that are already cached are skipped.
+	 */
+	public void prefetch(Collection<Long> ids) {
+		var db = Database.get();
+		if (db == null || ids == null || ids.isEmpty())
+			return;
+		try {
+			var missing = new HashSet<Long>();
+			var byType = new EnumMap<ModelType, Set<Long>>(ModelType.class);
+			for (var id : ids) {
+				if (entities.containsKey(id))
+					continue;
+				var d = descriptors.get(id);
+				if (d != null) {
+					byType.computeIfAbsent(d.type, t -> new HashSet<>()).add(id);
+				} else {
+					missing.add(id);
+				}
+			}
+			loadDescriptors(db, missing, byType);
+			loadEntities(db, byType);
+		} catch (Exception e) {
+			// the nodes are then loaded one by one
+			LoggerFactory.getLogger(getClass())
+					.warn("failed to prefetch graph nodes", e);
+		}
+	}
+
+	private void loadDescriptors(IDatabase db, Set<Long> missing,
+			Map<ModelType, Set<Long>> byType) {
+		for (var type : TYPES) {
+			if (missing.isEmpty())
+				return;
+			var dao = Daos.root(db, type);
+			for (var batch : batches(missing)) {
+				for (var d : dao.getDescriptors(batch)) {
+					descriptors.put(d.id, d);
+					missing.remove(d.id);
+					byType.computeIfAbsent(type, t -> new HashSet<>()).add(d.id);
+				}
+			}
+		}
+	}
+
+	private void loadEntities(IDatabase db, Map<ModelType, Set<Long>> byType) {
+		for (var e : byType.entrySet()) {
+			var dao = Daos.root(db, e.getKey());
+			for (var batch : batches(e.getValue())) {
+				for (var entity : dao.getForIds(batch)) {
+					entities.put(entity.id, entity);
+				}
+			}
+		}
+	}
+
+	private static List<Set<Long>> batches(Set<Long> ids) {
+		var batches = new ArrayList<Set<Long>>();
+		var batch = new HashSet<Long>();
+		for (var id : ids) {
+			batch.add(id);
+			if (batch.size() == BATCH_SIZE) {
+				batches.add(batch);
+				batch = new HashSet<>();
+			}
+		}
+		if (!batch.isEmpty()) {
+			batches.add(batch);
+		}
+		return batches;
+	}
+
+	/**
+	 * Returns the descriptor of the node with the given ID. A prefetched
+	 * descriptor is removed from the loader; otherwise, the descriptor is
+	 * loaded from the database.
+	 */
+	public RootDescriptor descriptorOf(long id) {
+		var d = descriptors.remove(id);
+		return d != null
+				? d
+				: GraphFactory.getDescriptor(id);
+	}
+
+	/**
+	 * Returns and removes the prefetched entity with the given ID, or `null`
+	 * if it was not prefetched.
+	 */
+	RootEntity takeEntity(long id) {
+		return entities.remove(id);
+	}
+
+	/** Removes everything from the loader. */
+	public void clear() {
+		descriptors.clear();
+		entities.clear();
+	}
+}
@@ -4,12 +4,12 @@ import org.eclipse.gef.commands.Command;
 import org.openlca.app.M;
 import org.openlca.app.editors.graphical.GraphEditor;
 import org.openlca.app.editors.graphical.model.Graph;
-import org.openlca.app.editors.graphical.model.GraphFactory;
 import org.openlca.app.editors.graphical.model.GraphLink;
 import org.openlca.app.editors.graphical.model.Node;
 import org.openlca.core.model.FlowType;
 import org.openlca.core.model.ProcessLink;
 
+import java.util.HashSet;
 import java.util.List;
 
 import static org.openlca.app.editors.graphical.model.Node.isInput;
@@ -63,6 +63,7 @@ public class ExpandCommand extends Command {
 				.map(l -> l.processLink)
 				.toList();
 
+		prefetch(links);
 		for (ProcessLink pLink : links) {
 			FlowType type = graph.flows.type(pLink.flowId);
 			if (type == null
@@ -91,8 +92,31 @@ public class ExpandCommand extends Command {
 		host.setExpanded(side, true);
 
 		// Fire a property change if the Nodes have been added quietly.
-		if (!quiet)
+		if (!quiet) {
 			graph.firePropertyChange(CHILDREN_PROP, null, null);
+			// quiet expansions are part of a larger operation, e.g. a mass
+			// expansion, that clears the prefetched nodes when it is done
+			editor.getNodeLoader().clear();
+		}
+	}
+
+	/**
+	 * Loads the nodes that will be created for the given links in batches.
+	 */
+	private void prefetch(List<ProcessLink> links) {
+		long processID = host.descriptor.id;
+		var ids = new HashSet<Long>();
+		for (var pLink : links) {
+			long otherID = processID == pLink.providerId
+					? pLink.processId
+					: pLink.providerId;
+			if (graph.getNode(otherID) == null) {
+				ids.add(otherID);
+			}
+		}
+		if (ids.size() > 1) {
+			editor.getNodeLoader().prefetch(ids);
+		}
 	}
 
 	/**
@@ -106,7 +130,7 @@ public class ExpandCommand extends Command {
 		if (node != null)
 			return node;
 
-		var descriptor = GraphFactory.getDescriptor(id);
+		var descriptor = editor.getNodeLoader().descriptorOf(id);
 		var newNode = editor.getGraphFactory().createNode(descriptor, null);
 		if (quiet) graph.addChildQuietly(newNode);
 		else graph.addChild(newNode);
@@ -1,8 +1,7 @@
 package org.openlca.app.editors.lcia.geo;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.function.DoubleBinaryOperator;
@@ -14,10 +13,7 @@ import org.openlca.core.model.ImpactCategory;
 import org.openlca.core.model.ImpactFactor;
 import org.openlca.core.model.Location;
 import org.openlca.expressions.FormulaInterpreter;
-import org.openlca.geo.calc.IntersectionCalculator;
 import org.openlca.geo.geojson.Feature;
-import org.openlca.geo.geojson.FeatureCollection;
-import org.openlca.geo.geojson.GeoJSON;
 import org.openlca.util.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,100 +60,67 @@ class GeoFactorCalculator implements Runnable {
 					+ "intersection calculation");
 			return;
 		}
-		var params = calcParamVals(setup.features);
+		var params = calcParamVals(db);
 		createFactors(params);
 	}
 
 	/**
 	 * Calculates the parameter values for the given locations from the respective
-	 * intersections with the given feature collection and the aggregation function
-	 * that is defined in the respective parameter.
+	 * intersections with the features of the setup and the aggregation function
+	 * that is defined in the respective parameter. The values of a location are
+	 * stored in an array in the order of the properties of the setup where
+	 * `NaN` means that the default value of the respective property should be
+	 * used.
 	 */
-	private Map<Location, List<Pair<GeoProperty, Double>>> calcParamVals(
-			FeatureCollection coll) {
-		IntersectionCalculator calc = IntersectionCalculator.on(coll);
-		Map<Location, List<Pair<Feature, Double>>> map = locations
-				.parallelStream()
-				.map(loc -> Pair.of(loc, calcIntersections(loc, calc)))
-				.collect(Collectors.toMap(p -> p.first, p -> p.second));
-
-		Map<Location, List<Pair<GeoProperty, Double>>> locParams = new HashMap<>();
-		map.forEach((loc, pairs) -> {
-			List<Pair<GeoProperty, Double>> paramVals = new ArrayList<>();
-			locParams.put(loc, paramVals);
-			for (GeoProperty param : setup.properties) {
-				if (pairs.isEmpty()) {
-					paramVals.add(Pair.of(param, null));
-					continue;
-				}
-
-				List<Double> vals = new ArrayList<>();
-				List<Double> shares = new ArrayList<>();
-				for (Pair<Feature, Double> pair : pairs) {
-					Feature f = pair.first;
-					Double share = pair.second;
-					if (f.properties == null)
-						continue;
-					Object valObj = f.properties.get(param.name);
-					if (!(valObj instanceof Number))
-						continue;
-					vals.add(((Number) valObj).doubleValue());
-					shares.add(share);
-				}
-				Double aggVal = aggregate(param, vals, shares);
-				paramVals.add(Pair.of(param, aggVal));
-
-			}
-		});
-		return locParams;
+	private Map<Location, double[]> calcParamVals(IDatabase db) {
+		var index = GeoIndex.of(setup, db);
+		var props = setup.properties;
+		return locations.parallelStream()
+				.collect(Collectors.toConcurrentMap(
+						loc -> loc,
+						loc -> paramValsOf(props, index.intersectionsOf(loc))));
 	}
 
-	/**
-	 * Calculates the intersection of the given location.
-	 */
-	private List<Pair<Feature, Double>> calcIntersections(
-			Location loc, IntersectionCalculator calc) {
-		if (loc.geodata == null) {
-			log.info("No geodata for location {} found", loc);
-			return Collections.emptyList();
-		}
-		try {
-			FeatureCollection coll = GeoJSON.unpack(loc.geodata);
-			if (coll == null || coll.features.isEmpty()) {
-				log.info("No geodata for location {} found", loc);
-				return Collections.emptyList();
-			}
-			Feature f = coll.features.get(0);
-			if (f == null || f.geometry == null) {
-				log.info("No geodata for location {} found", loc);
-				return Collections.emptyList();
+	private double[] paramValsOf(
+			List<GeoProperty> props, List<Pair<Feature, Double>> pairs) {
+		var paramVals = new double[props.size()];
+		Arrays.fill(paramVals, Double.NaN);
+		if (pairs.isEmpty())
+			return paramVals;
+		var vals = new double[pairs.size()];
+		var shares = new double[pairs.size()];
+		for (int p = 0; p < paramVals.length; p++) {
+			var param = props.get(p);
+			int n = 0;
+			for (var pair : pairs) {
+				Feature f = pair.first;
+				if (f.properties == null || pair.second == null)
+					continue;
+				Object valObj = f.properties.get(param.name);
+				if (!(valObj instanceof Number num))
+					continue;
+				vals[n] = num.doubleValue();
+				shares[n] = pair.second;
+				n++;
 			}
-
-			List<Pair<Feature, Double>> s = calc.shares(f.geometry);
-			log.trace("Calculated intersetions for location {}", loc);
-			return s;
-		} catch (Exception e) {
-			log.error("Failed to calculate the "
-					+ "intersections for location " + loc, e);
-			return Collections.emptyList();
+			paramVals[p] = aggregate(param, vals, shares, n);
 		}
+		return paramVals;
 	}
 
 	/**
-	 * Aggregates the given parameter values that were extracted from the
-	 * intersecting features with the aggregation function that is defined in the
-	 * given parameter. If the lists are empty `null` is returned which means that
-	 * the default parameter value should be used in this case. The shares are only
-	 * used when a weighted average should be calculated, which is the default
-	 * aggregation function. Note that the shares must have the same length as the
-	 * corresponding parameter values.
+	 * Aggregates the first `n` parameter values that were extracted from the
+	 * intersecting features with the aggregation function that is defined in
+	 * the given parameter. If there are no values, `NaN` is returned which means
+	 * that the default parameter value should be used in this case. The shares
+	 * are only used when a weighted average should be calculated, which is the
+	 * default aggregation function.
 	 */
-	private Double aggregate(
-		GeoProperty param, List<Double> vals, List<Double> shares) {
+	private double aggregate(
+			GeoProperty param, double[] vals, double[] shares, int n) {
 
-		if (param == null || vals.isEmpty()) {
-			return null;
-		}
+		if (param == null || n == 0)
+			return Double.NaN;
 
 		// take the minimum or maximum value
 		if (param.aggregation == GeoAggregation.MINIMUM
@@ -167,54 +130,35 @@ class GeoFactorCalculator implements Runnable {
 					? Math::min
 					: Math::max;
 
-			double val = vals.get(0) == null ? 0 : vals.get(0);
-			for (int i = 1; i < vals.size(); i++) {
-				Double next = vals.get(i);
-				if (next == null)
-					continue;
-				val = fn.applyAsDouble(val, next);
+			double val = vals[0];
+			for (int i = 1; i < n; i++) {
+				val = fn.applyAsDouble(val, vals[i]);
 			}
 			return val;
 		}
 
 		// calculate the average value
 		if (param.aggregation == GeoAggregation.AVERAGE) {
-
 			double sum = 0;
-			int count = 0;
-			for (int i = 0; i < vals.size(); i++) {
-				Double next = vals.get(i);
-				if (next == null)
-					continue;
-				sum += next;
-				count++;
+			for (int i = 0; i < n; i++) {
+				sum += vals[i];
 			}
-
-			if (count == 0)
-				return null;
-			return sum / count;
+			return sum / n;
 		}
 
 		// calculate the weighted average by default
 		double sum = 0;
 		double wsum = 0;
-		for (int i = 0; i < vals.size(); i++) {
-			Double next = vals.get(i);
-			Double share = shares.get(i);
-			if (next == null || share == null)
-				continue;
-			sum += next * share;
-			wsum += share;
+		for (int i = 0; i < n; i++) {
+			sum += vals[i] * shares[i];
+			wsum += shares[i];
 		}
-		if (wsum == 0) {
-			return null;
-		}
-		return sum / wsum;
-
+		return wsum == 0
+				? Double.NaN
+				: sum / wsum;
 	}
 
-	private void createFactors(
-			Map<Location, List<Pair<GeoProperty, Double>>> locParams) {
+	private void createFactors(Map<Location, double[]> locParams) {
 
 		// remove all LCIA factors with a flow and location
 		// that will be calculated
@@ -272,14 +216,14 @@ class GeoFactorCalculator implements Runnable {
 			// bind the location specific parameter values
 			// to a formula interpreter
 			fi = new FormulaInterpreter();
-			List<Pair<GeoProperty, Double>> pairs = locParams.get(loc);
-			if (pairs == null)
+			double[] vals = locParams.get(loc);
+			if (vals == null)
 				continue;
-			for (Pair<GeoProperty, Double> pair : pairs) {
-				GeoProperty param = pair.first;
-				double val = pair.second == null
+			for (int i = 0; i < vals.length; i++) {
+				GeoProperty param = setup.properties.get(i);
+				double val = Double.isNaN(vals[i])
 						? param.defaultValue
-						: pair.second;
+						: vals[i];
 				fi.bind(param.identifier, Double.toString(val));
 			}
 
@@ -0,0 +1,193 @@
+package org.openlca.app.editors.lcia.geo;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.model.Location;
+import org.openlca.geo.calc.Bounds;
+import org.openlca.geo.calc.IntersectionCalculator;
+import org.openlca.geo.geojson.Feature;
+import org.openlca.geo.geojson.FeatureCollection;
+import org.openlca.geo.geojson.GeoJSON;
+import org.openlca.util.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A spatial index of a feature collection for the calculation of
+ * regionalized characterization factors. The bounding boxes of the features
+ * are stored in an STR-tree, so that a location is only intersected with the
+ * features which bounding boxes overlap with the bounding box of that
+ * location. The intersections of the locations are cached in the index, so
+ * that they can be reused in multiple calculations with the same features
+ * (e.g. for different LCIA categories) in the same session. The cached
+ * intersections and geometries are bound to the database of the locations.
+ */
+class GeoIndex {
+
+	/** The maximum number of feature collections that are kept in the cache. */
+	private static final int MAX_INDICES = 4;
+
+	private static final Map<String, GeoIndex> indices =
+			new LinkedHashMap<>(MAX_INDICES, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, GeoIndex> e) {
+					return size() > MAX_INDICES;
+				}
+			};
+
+	/** The maximum number of decoded location geometries in the cache. */
+	private static final int MAX_GEOMETRIES = 5_000;
+
+	/** Database and location ID -> the decoded geometry of that location. */
+	private static final Map<String, LocationGeometry> geometries =
+			Collections.synchronizedMap(
+					new LinkedHashMap<>(256, 0.75f, true) {
+						@Override
+						protected boolean removeEldestEntry(
+								Map.Entry<String, LocationGeometry> e) {
+							return size() > MAX_GEOMETRIES;
+						}
+					});
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final FeatureCollection features;
+	private final STRtree tree;
+	private final String dbKey;
+
+	/** Location key -> the intersections of that location. */
+	private final Map<String, List<Pair<Feature, Double>>> intersections =
+			new ConcurrentHashMap<>();
+
+	private GeoIndex(FeatureCollection features, IDatabase db) {
+		this.features = features;
+		this.dbKey = db.getName();
+		this.tree = new STRtree();
+		for (var f : features.features) {
+			if (f == null || f.geometry == null)
+				continue;
+			var env = envelopeOf(f);
+			if (env != null) {
+				tree.insert(env, f);
+			}
+		}
+		tree.build();
+	}
+
+	/**
+	 * Returns the index of the features of the given setup. The index is
+	 * cached for the source of the setup (the file and its modification time)
+	 * and the database and thus shared between setups that were read from the
+	 * same file.
+	 */
+	static GeoIndex of(Setup setup, IDatabase db) {
+		var source = setup.source != null
+				? setup.source
+				: "features@" + System.identityHashCode(setup.features);
+		var key = db.getName() + ":" + source;
+		synchronized (indices) {
+			var index = indices.get(key);
+			boolean reusable = index != null
+					&& (setup.source != null || index.features == setup.features);
+			if (!reusable) {
+				index = new GeoIndex(setup.features, db);
+				indices.put(key, index);
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Returns the features that intersect with the geometry of the given
+	 * location together with their shares. The result is cached for the
+	 * location and its last change.
+	 */
+	List<Pair<Feature, Double>> intersectionsOf(Location loc) {
+		if (loc == null)
+			return Collections.emptyList();
+		var key = loc.id + ":" + loc.lastChange;
+		var cached = intersections.get(key);
+		if (cached != null)
+			return cached;
+		var result = calculate(loc);
+		intersections.put(key, result);
+		return result;
+	}
+
+	private List<Pair<Feature, Double>> calculate(Location loc) {
+		var f = geometryOf(dbKey, loc);
+		if (f == null) {
+			log.info("No geodata for location {} found", loc);
+			return Collections.emptyList();
+		}
+		var env = envelopeOf(f);
+		if (env == null)
+			return Collections.emptyList();
+
+		// only intersect with the candidates of the spatial index
+		var candidates = new FeatureCollection();
+		for (var obj : tree.query(env)) {
+			if (obj instanceof Feature candidate) {
+				candidates.features.add(candidate);
+			}
+		}
+		if (candidates.features.isEmpty())
+			return Collections.emptyList();
+		try {
+			var shares = IntersectionCalculator.on(candidates)
+					.shares(f.geometry);
+			log.trace("Calculated intersections for location {}", loc);
+			return shares;
+		} catch (Exception e) {
+			log.error("Failed to calculate the "
+					+ "intersections for location " + loc, e);
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * Returns the decoded geometry of the given location from the cache or
+	 * decodes it if it is not cached yet or the location was changed.
+	 */
+	private static Feature geometryOf(String dbKey, Location loc) {
+		if (loc.geodata == null)
+			return null;
+		var key = dbKey + ":" + loc.id;
+		var cached = geometries.get(key);
+		if (cached != null && cached.lastChange == loc.lastChange)
+			return cached.feature;
+		Feature feature = null;
+		try {
+			var coll = GeoJSON.unpack(loc.geodata);
+			if (coll != null && !coll.features.isEmpty()) {
+				var f = coll.features.get(0);
+				if (f != null && f.geometry != null) {
+					feature = f;
+				}
+			}
+		} catch (Exception e) {
+			var log = LoggerFactory.getLogger(GeoIndex.class);
+			log.error("Failed to unpack geodata of location " + loc, e);
+		}
+		geometries.put(key, new LocationGeometry(loc.lastChange, feature));
+		return feature;
+	}
+
+	private static Envelope envelopeOf(Feature f) {
+		var bounds = Bounds.of(f);
+		if (bounds == null)
+			return null;
+		return new Envelope(
+				bounds.minX, bounds.maxX, bounds.minY, bounds.maxY);
+	}
+
+	private record LocationGeometry(long lastChange, Feature feature) {
+	}
+
+}
@@ -28,6 +28,13 @@ class Setup {
 
 	final FeatureCollection features;
 
+	/**
+	 * Identifies the source of the features: the path and modification time
+	 * of the file from which the setup was read. Setups with the same source
+	 * share the same spatial index and intersection results.
+	 */
+	String source;
+
 	private Setup(FeatureCollection features) {
 		this.features = features;
 	}
@@ -44,11 +51,16 @@ class Setup {
 		var json = Json.readObject(file).orElse(null);
 		if (json == null)
 			return null;
-		if (json.has("setup") && json.has("features"))
-			return fromSerialized(json, db);
+		var source = file.getAbsolutePath() + "@" + file.lastModified();
+		if (json.has("setup") && json.has("features")) {
+			var setup = fromSerialized(json, db);
+			setup.source = source;
+			return setup;
+		}
 
 		var features = FeatureCollection.fromJson(json);
 		var setup = new Setup(features);
+		setup.source = source;
 		setup.properties.addAll(GeoProperty.collectFrom(features));
 		return setup;
 	}
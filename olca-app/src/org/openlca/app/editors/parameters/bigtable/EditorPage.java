@@ -23,13 +23,12 @@ import org.openlca.app.viewers.Viewers;
 import org.openlca.app.viewers.tables.TableClipboard;
 import org.openlca.app.viewers.tables.Tables;
 import org.openlca.core.model.ParameterScope;
-import org.openlca.expressions.FormulaInterpreter;
-import org.openlca.expressions.Scope;
 import org.openlca.util.Strings;
 
 class EditorPage extends FormPage {
 
 	private final List<Param> params = new ArrayList<>();
+	private ParamEngine engine;
 	private TableViewer table;
 	private Text filter;
 	private FilterCombo filterCombo;
@@ -83,7 +82,10 @@ class EditorPage extends FormPage {
 		mform.reflow(true);
 		App.runWithProgress(
 			"Loading parameters ...",
-			() -> Param.fetchAll(Database.get(), params),
+			() -> {
+				Param.fetchAll(Database.get(), params);
+				engine = ParamEngine.of(params);
+			},
 			() -> table.setInput(params));
 	}
 
@@ -132,43 +134,17 @@ class EditorPage extends FormPage {
 	}
 
 	private void evaluateFormulas() {
-		var fi = buildInterpreter();
-		for (var param : params) {
-			var p = param.parameter;
-			if (p.isInputParameter) {
-				param.evalError = false;
-				continue;
-			}
-			var scope = param.isGlobal()
-				? fi.getGlobalScope()
-				: fi.getScopeOrGlobal(param.ownerId());
-			try {
-				p.value = scope.eval(p.formula);
-				param.evalError = false;
-			} catch (Exception e) {
-				param.evalError = true;
-			}
+		if (engine != null) {
+			engine.evaluateAll();
 		}
 	}
 
 	/**
-	 * Bind the parameter values and formulas to the respective scopes of a
-	 * formula interpreter.
+	 * Returns the evaluation engine of the parameters, or `null` when the
+	 * parameters are not loaded yet.
 	 */
-	FormulaInterpreter buildInterpreter() {
-		var fi = new FormulaInterpreter();
-		for (var param : params) {
-			Scope scope = param.isGlobal()
-				? fi.getGlobalScope()
-				: fi.getOrCreate(param.ownerId());
-			var p = param.parameter;
-			if (p.isInputParameter) {
-				scope.bind(p.name, p.value);
-			} else {
-				scope.bind(p.name, p.formula);
-			}
-		}
-		return fi;
+	ParamEngine engine() {
+		return engine;
 	}
 
 	private void onEdit() {
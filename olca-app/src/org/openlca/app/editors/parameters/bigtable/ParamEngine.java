@@ -0,0 +1,261 @@
+package org.openlca.app.editors.parameters.bigtable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openlca.expressions.FormulaInterpreter;
+import org.openlca.formula.Formulas;
+
+import gnu.trove.map.hash.TLongObjectHashMap;
+
+/**
+ * Evaluates the formulas of the parameters in the big parameter table. The
+ * engine binds the parameters to a formula interpreter once and builds the
+ * dependency graph of the parameters from the variables of their formulas;
+ * the variables of a formula are only parsed once. All formulas are evaluated
+ * scope by scope, starting with the global scope. When a parameter is changed,
+ * only the parameters that depend on it (directly or indirectly) are bound
+ * again and evaluated.
+ * <p>
+ * The methods of the engine must not be called concurrently.
+ */
+class ParamEngine {
+
+	private final List<Param> params;
+	private final FormulaInterpreter interpreter = new FormulaInterpreter();
+
+	/** The global parameters by their names in lower case. */
+	private final Map<String, Param> globals = new HashMap<>();
+
+	/** The local parameters by owner ID and their names in lower case. */
+	private final TLongObjectHashMap<Map<String, Param>> locals =
+		new TLongObjectHashMap<>();
+
+	/** The variables of the formulas of the dependent parameters. */
+	private final Map<Param, Set<String>> variables = new IdentityHashMap<>();
+
+	/** The parameters that directly depend on a parameter. */
+	private final Map<Param, Set<Param>> dependents = new IdentityHashMap<>();
+
+	private ParamEngine(List<Param> params) {
+		this.params = params;
+	}
+
+	static ParamEngine of(List<Param> params) {
+		var engine = new ParamEngine(params);
+		for (var param : params) {
+			engine.index(param);
+			engine.bind(param);
+		}
+		for (var param : params) {
+			engine.link(param);
+		}
+		return engine;
+	}
+
+	/**
+	 * Returns the interpreter with the current parameter bindings. It is used
+	 * to check formulas in the editor dialog.
+	 */
+	FormulaInterpreter interpreter() {
+		return interpreter;
+	}
+
+	private void index(Param param) {
+		var name = keyOf(param);
+		if (name == null)
+			return;
+		if (param.isGlobal()) {
+			globals.put(name, param);
+			return;
+		}
+		var scope = locals.get(param.ownerId());
+		if (scope == null) {
+			scope = new HashMap<>();
+			locals.put(param.ownerId(), scope);
+		}
+		scope.put(name, param);
+	}
+
+	private void bind(Param param) {
+		var p = param.parameter;
+		if (p == null || p.name == null)
+			return;
+		var scope = param.isGlobal()
+			? interpreter.getGlobalScope()
+			: interpreter.getOrCreate(param.ownerId());
+		if (p.isInputParameter) {
+			scope.bind(p.name, p.value);
+		} else {
+			scope.bind(p.name, p.formula);
+		}
+	}
+
+	/**
+	 * Parses the formula of the given parameter and registers the parameter
+	 * as dependent of the parameters that are used in the formula.
+	 */
+	private void link(Param param) {
+		var p = param.parameter;
+		if (p == null || p.isInputParameter) {
+			variables.remove(param);
+			return;
+		}
+		Set<String> vars;
+		try {
+			vars = new LinkedHashSet<>();
+			for (var v : Formulas.getVariables(p.formula)) {
+				if (v != null) {
+					vars.add(v.trim().toLowerCase());
+				}
+			}
+		} catch (Exception e) {
+			// the formula is invalid; this is reported when it is evaluated
+			vars = Collections.emptySet();
+		}
+		variables.put(param, vars);
+		for (var v : vars) {
+			var target = resolve(param, v);
+			if (target != null && target != param) {
+				dependents.computeIfAbsent(
+					target, $ -> Collections.newSetFromMap(new IdentityHashMap<>()))
+					.add(param);
+			}
+		}
+	}
+
+	private void unlink(Param param) {
+		var vars = variables.remove(param);
+		if (vars == null)
+			return;
+		for (var v : vars) {
+			var target = resolve(param, v);
+			if (target == null)
+				continue;
+			var set = dependents.get(target);
+			if (set != null) {
+				set.remove(param);
+			}
+		}
+	}
+
+	/**
+	 * Returns the parameter that is referenced by the given variable in the
+	 * formula of the given parameter: a local parameter of the same owner
+	 * shadows a global parameter with the same name.
+	 */
+	private Param resolve(Param param, String variable) {
+		if (!param.isGlobal()) {
+			var scope = locals.get(param.ownerId());
+			if (scope != null) {
+				var local = scope.get(variable);
+				if (local != null)
+					return local;
+			}
+		}
+		return globals.get(variable);
+	}
+
+	/**
+	 * Evaluates the formulas of all dependent parameters. The global scope is
+	 * evaluated first and then the local scopes. The scopes are evaluated
+	 * sequentially: the interpreter evaluates the variables of its scopes
+	 * lazily and stores their values, so a local formula can trigger the
+	 * evaluation of global variables, and the interpreter is not thread-safe.
+	 */
+	void evaluateAll() {
+		var globalParams = new ArrayList<Param>();
+		var localParams = new TLongObjectHashMap<List<Param>>();
+		for (var param : params) {
+			if (param.isGlobal()) {
+				globalParams.add(param);
+				continue;
+			}
+			var list = localParams.get(param.ownerId());
+			if (list == null) {
+				list = new ArrayList<>();
+				localParams.put(param.ownerId(), list);
+			}
+			list.add(param);
+		}
+
+		evaluate(globalParams);
+		localParams.forEachValue(list -> {
+			evaluate(list);
+			return true;
+		});
+	}
+
+	/**
+	 * Binds the changed parameter again and evaluates the parameters that
+	 * depend on it. The dependencies of the parameter are updated as its
+	 * formula may have changed.
+	 */
+	void update(Param changed) {
+		if (changed == null)
+			return;
+		unlink(changed);
+		link(changed);
+		bind(changed);
+		evaluate(List.of(changed));
+
+		var downstream = downstreamOf(changed);
+		for (var param : downstream) {
+			bind(param);
+		}
+		evaluate(downstream);
+	}
+
+	private List<Param> downstreamOf(Param param) {
+		var visited = Collections.newSetFromMap(new IdentityHashMap<Param, Boolean>());
+		var result = new ArrayList<Param>();
+		var queue = new ArrayDeque<Param>();
+		queue.add(param);
+		visited.add(param);
+		while (!queue.isEmpty()) {
+			var next = dependents.get(queue.poll());
+			if (next == null)
+				continue;
+			for (var dependent : next) {
+				if (visited.add(dependent)) {
+					result.add(dependent);
+					queue.add(dependent);
+				}
+			}
+		}
+		return result;
+	}
+
+	private void evaluate(List<Param> params) {
+		for (var param : params) {
+			var p = param.parameter;
+			if (p.isInputParameter) {
+				param.evalError = false;
+				continue;
+			}
+			var scope = param.isGlobal()
+				? interpreter.getGlobalScope()
+				: interpreter.getScopeOrGlobal(param.ownerId());
+			try {
+				p.value = scope.eval(p.formula);
+				param.evalError = false;
+			} catch (Exception e) {
+				param.evalError = true;
+			}
+		}
+	}
+
+	private static String keyOf(Param param) {
+		var p = param.parameter;
+		return p == null || p.name == null
+			? null
+			: p.name.trim().toLowerCase();
+	}
+}
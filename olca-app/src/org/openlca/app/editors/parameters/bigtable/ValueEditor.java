@@ -61,8 +61,10 @@ class ValueEditor {
 			return false;
 
 		// open the dialog and set new parameter values
-		var interpreter = page.buildInterpreter();
-		var dialog = new Dialog(param, interpreter);
+		var engine = page.engine();
+		if (engine == null)
+			return false;
+		var dialog = new Dialog(param, engine.interpreter());
 		if (dialog.open() != Window.OK)
 			return false;
 
@@ -94,6 +96,9 @@ class ValueEditor {
 				App.close(update(owner));
 			}
 		}
+
+		// evaluate the parameters that depend on the changed parameter
+		engine.update(param);
 		return true;
 	}
 
@@ -0,0 +1,120 @@
+package org.openlca.app.editors.projects;
+
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.openlca.app.App;
+import org.openlca.app.rcp.Workspace;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.math.SystemCalculator;
+import org.openlca.core.model.CalculationSetup;
+import org.openlca.core.model.Project;
+import org.openlca.core.model.ProjectVariant;
+import org.openlca.core.results.LcaResult;
+import org.openlca.core.results.ProjectResult;
+
+/**
+ * Calculates the variants of a project in parallel. The variants are solved
+ * on a bounded thread pool with the solver of the application; the progress
+ * is reported per finished variant.
+ */
+class ProjectCalculation {
+
+	/**
+	 * The maximum number of variants that are solved at the same time. Each
+	 * calculation holds its own matrices, so this also limits the memory that
+	 * is used at the same time.
+	 */
+	private static final int MAX_PARALLEL = 4;
+
+	private final Project project;
+	private final IDatabase db;
+
+	ProjectCalculation(Project project, IDatabase db) {
+		this.project = project;
+		this.db = db;
+	}
+
+	/**
+	 * Runs the calculation. Returns `null` when the calculation was canceled.
+	 * Errors of the variant calculations are re-thrown with their original
+	 * cause, so that they can be handled like errors of a single calculation.
+	 */
+	ProjectResult run(IProgressMonitor monitor) throws Exception {
+		var variants = new ArrayList<ProjectVariant>();
+		for (var v : project.variants) {
+			if (!v.isDisabled && v.productSystem != null) {
+				variants.add(v);
+			}
+		}
+		monitor.beginTask("Calculate project variants", variants.size());
+
+		int threads = Math.max(1, Math.min(variants.size(), Math.min(
+				MAX_PARALLEL, Runtime.getRuntime().availableProcessors())));
+		var pool = Executors.newFixedThreadPool(threads);
+		var service = new ExecutorCompletionService<Variant>(pool);
+		var futures = new ArrayList<Future<Variant>>();
+		try {
+			for (var v : variants) {
+				futures.add(service.submit(() -> new Variant(v, calculate(v))));
+			}
+
+			var result = new ProjectResult();
+			for (int i = 0; i < variants.size(); i++) {
+				Future<Variant> next;
+				while ((next = service.poll(200, TimeUnit.MILLISECONDS)) == null) {
+					if (monitor.isCanceled()) {
+						futures.forEach(f -> f.cancel(true));
+						return null;
+					}
+				}
+				Variant done;
+				try {
+					done = next.get();
+				} catch (CancellationException e) {
+					return null;
+				} catch (ExecutionException e) {
+					futures.forEach(f -> f.cancel(true));
+					var cause = e.getCause();
+					if (cause instanceof Exception ex)
+						throw ex;
+					if (cause instanceof Error err)
+						throw err;
+					throw e;
+				}
+				result.addResult(done.variant, done.result);
+				monitor.subTask(String.format("%d of %d variants: %s",
+						i + 1, variants.size(), done.variant.name));
+				monitor.worked(1);
+			}
+			return result;
+		} finally {
+			pool.shutdownNow();
+			monitor.done();
+		}
+	}
+
+	private LcaResult calculate(ProjectVariant v) {
+		var setup = CalculationSetup.of(v.productSystem)
+				.withUnit(v.unit)
+				.withFlowPropertyFactor(v.flowPropertyFactor)
+				.withAmount(v.amount)
+				.withAllocation(v.allocationMethod)
+				.withImpactMethod(project.impactMethod)
+				.withNwSet(project.nwSet)
+				.withParameters(v.parameterRedefs);
+		return new SystemCalculator(db)
+				.withLibraryDir(Workspace.getLibraryDir())
+				.withSolver(App.getSolver())
+				.calculate(setup);
+	}
+
+	private record Variant(ProjectVariant variant, LcaResult result) {
+	}
+}
@@ -1,9 +1,11 @@
 package org.openlca.app.editors.projects;
 
+import java.lang.reflect.InvocationTargetException;
+
 import org.apache.commons.math3.exception.MathIllegalArgumentException;
 import org.eclipse.jface.action.IToolBarManager;
+import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.part.EditorActionBarContributor;
-import org.openlca.app.App;
 import org.openlca.app.M;
 import org.openlca.app.db.Database;
 import org.openlca.app.editors.Editors;
@@ -50,23 +52,26 @@ public class ProjectEditorToolBar extends EditorActionBarContributor {
 		var ref = new Object() {
 			ProjectResult result;
 		};
-		Runnable calculation = () -> {
-			try {
-				ref.result = ProjectResult.calculate(project, db);
-			} catch (OutOfMemoryError e) {
-				MsgBox.error(M.OutOfMemory, M.CouldNotAllocateMemoryError);
-			} catch (MathIllegalArgumentException e) {
-				MsgBox.error("Matrix error", e);
-			} catch (Exception e) {
-				ErrorReporter.on("Calculation failed", e);
-			}
-		};
+		try {
+			PlatformUI.getWorkbench().getProgressService().run(true, true,
+				monitor -> {
+					try {
+						ref.result = new ProjectCalculation(project, db).run(monitor);
+					} catch (OutOfMemoryError e) {
+						MsgBox.error(M.OutOfMemory, M.CouldNotAllocateMemoryError);
+					} catch (MathIllegalArgumentException e) {
+						MsgBox.error("Matrix error", e);
+					} catch (Exception e) {
+						ErrorReporter.on("Calculation failed", e);
+					}
+				});
+		} catch (InvocationTargetException | InterruptedException e) {
+			ErrorReporter.on("Calculation failed", e);
+		}
 
-		App.runWithProgress(M.Calculate, calculation, () -> {
-			if (ref.result == null)
-				return;
-			var data = ProjectResultData.of(db, project, ref.result, editor.report);
-			ProjectResultEditor.open(data);
-		});
+		if (ref.result == null)
+			return;
+		var data = ProjectResultData.of(db, project, ref.result, editor.report);
+		ProjectResultEditor.open(data);
 	}
 }
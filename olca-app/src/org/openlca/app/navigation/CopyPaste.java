@@ -6,6 +6,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
 
+import org.openlca.app.db.Cache;
 import org.openlca.app.db.Database;
 import org.openlca.app.db.DatabaseDir;
 import org.openlca.app.navigation.elements.CategoryElement;
@@ -20,6 +21,7 @@ import org.openlca.core.model.ImpactCategory;
 import org.openlca.core.model.ModelType;
 import org.openlca.core.model.Process;
 import org.openlca.core.model.RootEntity;
+import org.openlca.core.model.descriptors.Descriptor;
 import org.openlca.core.model.descriptors.RootDescriptor;
 
 public class CopyPaste {
@@ -214,6 +216,13 @@ public class CopyPaste {
 			dao.update(newParent);
 		}
 		dao.update(category);
+		Cache.evict(Descriptor.of(category));
+		if (oldParent != null) {
+			Cache.evict(Descriptor.of(oldParent));
+		}
+		if (newParent != null) {
+			Cache.evict(Descriptor.of(newParent));
+		}
 	}
 
 	private static boolean isChild(Category category, Category parent) {
@@ -233,6 +242,7 @@ public class CopyPaste {
 		Category category = getCategory(categoryElement);
 		Optional<Category> parent = Optional.ofNullable(category);
 		Daos.root(Database.get(), entity.type).updateCategory(entity, parent);
+		Cache.evict(entity);
 	}
 
 	private static void copy(CategoryElement element, INavigationElement<?> category) {
@@ -250,6 +260,7 @@ public class CopyPaste {
 			else {
 				parent.childCategories.add(catCopy);
 				parent = Database.get().update(parent);
+				Cache.evict(Descriptor.of(parent));
 				for (var child : parent.childCategories) {
 					if (child.name.equals(catCopy.name)) {
 						catCopy = child;
@@ -257,6 +268,7 @@ public class CopyPaste {
 					}
 				}
 			}
+			Cache.registerNew(Descriptor.of(catCopy));
 			for (INavigationElement<?> child : current.getChildren())
 				if (child instanceof CategoryElement catElem)
 					elements.add(catElem);
@@ -289,7 +301,8 @@ public class CopyPaste {
 		copy.category = category;
 		copy.name = copy.name + " (copy)";
 		DatabaseDir.copyDir(entity, copy);
-		Database.get().insert(copy);
+		copy = Database.get().insert(copy);
+		Cache.registerNew(Descriptor.of(copy));
 	}
 
 	public static boolean cacheIsEmpty() {
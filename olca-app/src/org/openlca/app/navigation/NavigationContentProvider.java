@@ -1,17 +1,27 @@
 package org.openlca.app.navigation;
 
+import java.util.ArrayList;
 import java.util.Collection;
 
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.ui.IMemento;
 import org.eclipse.ui.navigator.ICommonContentExtensionSite;
+import org.eclipse.ui.navigator.CommonViewer;
 import org.eclipse.ui.navigator.ICommonContentProvider;
 import org.openlca.app.navigation.elements.INavigationElement;
+import org.openlca.app.navigation.elements.ModelContainerElement;
 
 public class NavigationContentProvider implements ICommonContentProvider {
 
+	/**
+	 * Loads large categories in the background; this is only enabled for the
+	 * navigator of the application.
+	 */
+	private PagedLoader loader;
+
 	@Override
 	public void dispose() {
+		loader = null;
 	}
 
 	@Override
@@ -21,6 +31,14 @@ public class NavigationContentProvider implements ICommonContentProvider {
 		if (!(parent instanceof INavigationElement))
 			return new Object[0];
 		var e = (INavigationElement<?>) parent;
+		if (loader != null
+				&& e instanceof ModelContainerElement<?> container
+				&& loader.shouldLoad(container)) {
+			var categories = container.getCategoryChilds();
+			var childs = new ArrayList<Object>(categories);
+			childs.add(loader.load(container, categories));
+			return childs.toArray();
+		}
 		var childs = e.getChildren();
 		return childs == null
 				? new Object[0]
@@ -45,6 +63,16 @@ public class NavigationContentProvider implements ICommonContentProvider {
 		if (!(element instanceof INavigationElement))
 			return false;
 		var e = (INavigationElement<?>) element;
+
+		// check the number of models before loading them
+		if (e instanceof ModelContainerElement<?> container
+				&& !container.isContentLoaded()) {
+			int count = container.getModelCount();
+			if (count > 0)
+				return true;
+			if (count == 0)
+				return !container.getCategoryChilds().isEmpty();
+		}
 		return !e.getChildren().isEmpty();
 	}
 
@@ -54,6 +82,9 @@ public class NavigationContentProvider implements ICommonContentProvider {
 
 	@Override
 	public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+		loader = viewer instanceof CommonViewer tree
+				? new PagedLoader(tree)
+				: null;
 	}
 
 	@Override
@@ -38,7 +38,6 @@ import org.openlca.core.library.LibraryDir;
 import org.openlca.core.model.Category;
 import org.openlca.core.model.ModelType;
 import org.openlca.core.model.descriptors.Descriptor;
-import org.openlca.util.Categories;
 
 public class NavigationLabelProvider extends ColumnLabelProvider
 	implements ICommonLabelProvider, IColorProvider {
@@ -86,10 +85,9 @@ public class NavigationLabelProvider extends ColumnLabelProvider
 			var name = Labels.name(descriptor);
 			if (descriptor.category == null)
 				return name;
-			var category = Cache.getEntityCache().get(
-				Category.class, descriptor.category);
-			var text = category != null
-				? String.join(" / ", Categories.path(category)) + " / " + name
+			var path = pathOf(descriptor.category);
+			var text = path != null
+				? path + " / " + name
 				: name;
 			return descriptor.isFromLibrary()
 				? descriptor.library + ": " + text
@@ -100,7 +98,7 @@ public class NavigationLabelProvider extends ColumnLabelProvider
 		if (obj instanceof CategoryElement elem) {
 			var category = elem.getContent();
 			return category != null
-				? String.join(" / ", Categories.path(category))
+				? pathOf(category.id)
 				: null;
 		}
 
@@ -129,6 +127,13 @@ public class NavigationLabelProvider extends ColumnLabelProvider
 		return getText(obj);
 	}
 
+	private String pathOf(Long categoryId) {
+		var paths = Cache.getPathIndex();
+		return paths != null
+			? paths.pathOf(categoryId, " / ")
+			: null;
+	}
+
 	@Override
 	public Image getImage(Object obj) {
 		if (!(obj instanceof INavigationElement<?> elem))
@@ -26,6 +26,7 @@ import org.eclipse.ui.navigator.CommonNavigator;
 import org.eclipse.ui.navigator.CommonViewer;
 import org.openlca.app.App;
 import org.openlca.app.collaboration.navigation.NavRoot;
+import org.openlca.app.db.CategoryDescriptors;
 import org.openlca.app.db.Database;
 import org.openlca.app.navigation.actions.DeleteMappingAction;
 import org.openlca.app.navigation.actions.DeleteModelAction;
@@ -37,9 +38,11 @@ import org.openlca.app.navigation.actions.libraries.DeleteLibraryAction;
 import org.openlca.app.navigation.actions.scripts.DeleteScriptAction;
 import org.openlca.app.navigation.actions.scripts.OpenScriptAction;
 import org.openlca.app.navigation.elements.DatabaseElement;
+import org.openlca.app.navigation.elements.GroupElement;
 import org.openlca.app.navigation.elements.INavigationElement;
 import org.openlca.app.navigation.elements.LibraryElement;
 import org.openlca.app.navigation.elements.MappingFileElement;
+import org.openlca.app.navigation.elements.ModelContainerElement;
 import org.openlca.app.navigation.elements.ModelElement;
 import org.openlca.app.navigation.elements.NavigationRoot;
 import org.openlca.app.navigation.elements.ScriptElement;
@@ -145,6 +148,7 @@ public class Navigator extends CommonNavigator {
 			if (viewer.getTree().isDisposed())
 				return;
 			var oldExpansion = viewer.getExpandedElements();
+			CategoryDescriptors.evictAll();
 			root.update();
 			viewer.refresh();
 			setRefreshedExpansion(viewer, oldExpansion);
@@ -159,6 +163,7 @@ public class Navigator extends CommonNavigator {
 		if (viewer == null || element == null)
 			return;
 		NavRoot.refresh(() -> {
+			evictContentOf(element);
 			element.update();
 			Object[] oldExpansion = viewer.getExpandedElements();
 			viewer.refresh(element);
@@ -179,6 +184,20 @@ public class Navigator extends CommonNavigator {
 		});
 	}
 
+	/**
+	 * Models can be added to or removed from categories without passing the
+	 * application cache (e.g. by imports). Thus, the cached content of the
+	 * refreshed containers is evicted.
+	 */
+	private static void evictContentOf(INavigationElement<?> elem) {
+		if (elem instanceof ModelContainerElement<?> container) {
+			CategoryDescriptors.evictAll(container.getModelType());
+		} else if (elem instanceof DatabaseElement
+				|| elem instanceof GroupElement) {
+			CategoryDescriptors.evictAll();
+		}
+	}
+
 	private static ModelType modelTypeOf(INavigationElement<?> elem) {
 		var content = elem.getContent();
 		if (content == null)
@@ -0,0 +1,133 @@
+package org.openlca.app.navigation;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.viewers.AbstractTreeViewer;
+import org.openlca.app.navigation.elements.INavigationElement;
+import org.openlca.app.navigation.elements.LoadingElement;
+import org.openlca.app.navigation.elements.ModelContainerElement;
+import org.openlca.app.navigation.elements.ModelElement;
+import org.openlca.app.util.Labels;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads the models of large model containers (categories and model types) in
+ * the background. While the models are loaded, a placeholder element with the
+ * number of models is shown. The loaded models are then added to the tree
+ * viewer in pages so that the UI thread is never blocked for long.
+ */
+class PagedLoader {
+
+	/**
+	 * Containers with more models than this are loaded in the background; this
+	 * is also the number of models that are added to the viewer at once.
+	 */
+	static final int PAGE_SIZE = 1000;
+
+	private final AbstractTreeViewer viewer;
+
+	/** The running loads; only accessed in the UI thread. */
+	private final Map<ModelContainerElement<?>, LoadingElement> running =
+			new IdentityHashMap<>();
+
+	PagedLoader(AbstractTreeViewer viewer) {
+		this.viewer = viewer;
+	}
+
+	/**
+	 * Returns true if the children of the given element should be loaded in
+	 * the background.
+	 */
+	boolean shouldLoad(ModelContainerElement<?> elem) {
+		if (running.containsKey(elem))
+			return true;
+		return !elem.isContentLoaded()
+				&& elem.getModelCount() > PAGE_SIZE;
+	}
+
+	/**
+	 * Starts loading the children of the given element if this is not yet
+	 * running and returns the placeholder that should be shown in the
+	 * meantime. The given category elements are already shown in the viewer
+	 * and are reused in the loaded children.
+	 */
+	LoadingElement load(
+			ModelContainerElement<?> elem, List<INavigationElement<?>> categories) {
+		var placeholder = running.get(elem);
+		if (placeholder != null)
+			return placeholder;
+		int count = elem.getModelCount();
+		var text = "Loading " + count + " "
+				+ Labels.plural(elem.getModelType()).toLowerCase() + " ...";
+		var ph = new LoadingElement(elem, text);
+		running.put(elem, ph);
+
+		int version = elem.version();
+		var display = viewer.getControl().getDisplay();
+		var job = new Job(text) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					var childs = elem.loadChildren(categories);
+					display.asyncExec(() -> addPages(elem, ph, version, childs));
+				} catch (Exception e) {
+					LoggerFactory.getLogger(PagedLoader.class)
+							.error("failed to load navigation content", e);
+					display.asyncExec(() -> {
+						running.remove(elem);
+						if (!viewer.getControl().isDisposed()) {
+							viewer.remove(ph);
+						}
+					});
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		job.schedule();
+		return ph;
+	}
+
+	private void addPages(ModelContainerElement<?> elem, LoadingElement ph,
+			int version, List<INavigationElement<?>> childs) {
+		running.remove(elem);
+		if (viewer.getControl().isDisposed())
+			return;
+		viewer.remove(ph);
+		if (!elem.setLoadedChildren(version, childs))
+			return;
+
+		// the category elements are already in the viewer
+		var models = new ArrayList<INavigationElement<?>>();
+		for (var child : childs) {
+			if (child instanceof ModelElement) {
+				models.add(child);
+			}
+		}
+		addPage(elem, version, models, 0);
+	}
+
+	/**
+	 * Adds the page that starts at the given offset to the viewer and
+	 * schedules the next page, so that the UI can process other events in
+	 * between.
+	 */
+	private void addPage(ModelContainerElement<?> elem, int version,
+			List<INavigationElement<?>> models, int offset) {
+		if (offset >= models.size()
+				|| version != elem.version()
+				|| viewer.getControl().isDisposed())
+			return;
+		int end = Math.min(offset + PAGE_SIZE, models.size());
+		viewer.add(elem, models.subList(offset, end).toArray());
+		viewer.getControl().getDisplay().asyncExec(
+				() -> addPage(elem, version, models, end));
+	}
+}
@@ -7,6 +7,7 @@ import org.eclipse.jface.dialogs.IInputValidator;
 import org.eclipse.jface.dialogs.InputDialog;
 import org.eclipse.jface.window.Window;
 import org.openlca.app.M;
+import org.openlca.app.db.Cache;
 import org.openlca.app.db.Database;
 import org.openlca.app.navigation.Navigator;
 import org.openlca.app.navigation.elements.CategoryElement;
@@ -18,6 +19,7 @@ import org.openlca.app.util.UI;
 import org.openlca.core.database.CategoryDao;
 import org.openlca.core.model.Category;
 import org.openlca.core.model.ModelType;
+import org.openlca.core.model.descriptors.Descriptor;
 import org.openlca.util.Categories;
 
 /**
@@ -64,6 +66,12 @@ class CreateCategoryAction extends Action implements INavigationAction {
 			return;
 		try {
 			category = tryInsert(category);
+			if (category == null)
+				return;
+			Cache.registerNew(Descriptor.of(category));
+			if (category.category != null) {
+				Cache.evict(Descriptor.of(category.category));
+			}
 			// we have to refresh the category starting from it's root
 			// otherwise the object model is out of sync.
 			var element = Navigator.findElement(category.modelType);
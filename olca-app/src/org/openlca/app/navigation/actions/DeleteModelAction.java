@@ -218,6 +218,9 @@ public class DeleteModelAction extends Action implements INavigationAction {
 			}
 			dao.delete(category);
 			Cache.evict(Descriptor.of(category));
+			if (parent != null) {
+				Cache.evict(Descriptor.of(parent));
+			}
 			return true;
 		} catch (Exception e) {
 			ErrorReporter.on("failed to delete category " + category, e);
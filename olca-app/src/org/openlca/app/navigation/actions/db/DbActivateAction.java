@@ -187,7 +187,10 @@ public class DbActivateAction extends Action implements INavigationAction {
 					closeDatabase();
 					return;
 				}
-				db = Database.activate(config);
+				// an online backup does not close the database
+				if (!Database.isActive(config)) {
+					db = Database.activate(config);
+				}
 			}
 			var finalDb = db;
 			log.trace("Run database updates");
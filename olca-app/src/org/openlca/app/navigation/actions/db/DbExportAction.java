@@ -1,25 +1,21 @@
 package org.openlca.app.navigation.actions.db;
 
 import java.io.File;
-import java.io.IOException;
-import java.nio.file.FileVisitResult;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
-import java.util.ArrayList;
+import java.lang.reflect.InvocationTargetException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jface.action.Action;
+import org.eclipse.ui.PlatformUI;
 import org.openlca.app.App;
 import org.openlca.app.M;
 import org.openlca.app.collaboration.views.CompareView;
 import org.openlca.app.collaboration.views.HistoryView;
 import org.openlca.app.components.FileChooser;
 import org.openlca.app.db.Database;
-import org.openlca.app.db.DatabaseDir;
+import org.openlca.app.db.DatabaseBackup;
 import org.openlca.app.db.MySQLDatabaseExport;
-import org.openlca.app.db.Repository;
 import org.openlca.app.editors.Editors;
 import org.openlca.app.navigation.Navigator;
 import org.openlca.app.navigation.actions.INavigationAction;
@@ -34,9 +30,6 @@ import org.openlca.core.database.config.DerbyConfig;
 import org.openlca.core.database.config.MySqlConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.zeroturnaround.zip.FileSource;
-import org.zeroturnaround.zip.ZipEntrySource;
-import org.zeroturnaround.zip.ZipUtil;
 
 public class DbExportAction extends Action implements INavigationAction {
 
@@ -84,6 +77,10 @@ public class DbExportAction extends Action implements INavigationAction {
 				return false;
 			}
 		}
+		if (config instanceof DerbyConfig)
+			return runDerby(config, zip, active);
+
+		// other databases are exported into a new Derby database
 		if (active)
 			if (!Editors.closeAll())
 				return false;
@@ -94,6 +91,39 @@ public class DbExportAction extends Action implements INavigationAction {
 		return !runner.failed;
 	}
 
+	/**
+	 * Creates a backup of a Derby database. An active database is not closed
+	 * but an online backup of it is created.
+	 */
+	private boolean runDerby(DatabaseConfig config, File zip, boolean active) {
+		log.trace("run database backup to file {}", zip);
+		var db = active ? Database.get() : null;
+		var failed = new AtomicBoolean(false);
+		var canceled = new AtomicBoolean(false);
+		try {
+			PlatformUI.getWorkbench().getProgressService().run(true, true,
+					monitor -> {
+						try {
+							DatabaseBackup.create(config.name(), db, zip, monitor);
+						} catch (OperationCanceledException e) {
+							canceled.set(true);
+						} catch (Exception e) {
+							failed.set(true);
+							ErrorReporter.on("Export of database "
+									+ config.name() + " failed", e);
+						}
+					});
+		} catch (InvocationTargetException | InterruptedException e) {
+			failed.set(true);
+			ErrorReporter.on("Export of database " + config.name() + " failed", e);
+		}
+		if (failed.get() || canceled.get())
+			return false;
+		HistoryView.refresh();
+		Popup.info(M.ExportDone, M.DatabaseWasExportedToFile + ": " + zip.getName());
+		return true;
+	}
+
 	private class ExportRunner implements Runnable {
 
 		private final DatabaseConfig config;
@@ -112,11 +142,7 @@ public class DbExportAction extends Action implements INavigationAction {
 			try {
 				if (active)
 					Database.close();
-				if (config instanceof DerbyConfig) {
-					File folder = DatabaseDir.getRootFolder(config.name());
-					ZipEntrySource[] toPack = collectFileSources(folder);
-					ZipUtil.pack(toPack, zip);
-				} else if (config instanceof MySqlConfig) {
+				if (config instanceof MySqlConfig) {
 					MySQLDatabaseExport export = new MySQLDatabaseExport((MySqlConfig) config, zip);
 					export.run();
 				}
@@ -128,26 +154,6 @@ public class DbExportAction extends Action implements INavigationAction {
 
 	}
 
-
-	private ZipEntrySource[] collectFileSources(File folder) throws IOException {
-		List<ZipEntrySource> fileSources = new ArrayList<>();
-		Files.walkFileTree(folder.toPath(), new SimpleFileVisitor<>() {
-			@Override
-			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-				String relativePath = folder.toPath().relativize(file).toString();
-				if (exclude(relativePath))
-					return FileVisitResult.CONTINUE;
-				fileSources.add(new FileSource(relativePath.replace("\\", "/"), file.toFile()));
-				return FileVisitResult.CONTINUE;
-			}
-		});
-		return fileSources.toArray(new ZipEntrySource[0]);
-	}
-
-	private boolean exclude(String relativePath) {
-		return relativePath.startsWith(DatabaseDir.FILE_STORAGE + File.separator + Repository.GIT_DIR);
-	}
-
 	private void updateUI(File zip, boolean active) {
 		if (active) {
 			Navigator.refresh();
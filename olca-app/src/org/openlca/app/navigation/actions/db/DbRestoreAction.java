@@ -1,18 +1,22 @@
 package org.openlca.app.navigation.actions.db;
 
 import java.io.File;
+import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jface.action.Action;
-import org.openlca.app.App;
+import org.eclipse.ui.PlatformUI;
 import org.openlca.app.Config;
 import org.openlca.app.M;
 import org.openlca.app.components.FileChooser;
 import org.openlca.app.db.Database;
+import org.openlca.app.db.DatabaseBackup;
 import org.openlca.app.navigation.Navigator;
 import org.openlca.app.navigation.actions.INavigationAction;
 import org.openlca.app.navigation.elements.DatabaseElement;
@@ -21,7 +25,6 @@ import org.openlca.app.rcp.Workspace;
 import org.openlca.app.rcp.images.Icon;
 import org.openlca.app.util.ErrorReporter;
 import org.openlca.core.database.config.DerbyConfig;
-import org.zeroturnaround.zip.ZipUtil;
 
 public class DbRestoreAction extends Action implements INavigationAction {
 
@@ -83,15 +86,30 @@ public class DbRestoreAction extends Action implements INavigationAction {
 	}
 
 	private static void realImport(File dbFolder, String dbName, File zip) {
-		App.run(M.ImportDatabase, () -> {
-			File folder = new File(dbFolder, dbName);
-			folder.mkdirs();
-			ZipUtil.unpack(zip, folder);
-		}, () -> {
-			DerbyConfig conf = new DerbyConfig();
-			conf.name(dbName);
-			Database.register(conf);
-			Navigator.refresh();
-		});
+		var folder = new File(dbFolder, dbName);
+		var done = new AtomicBoolean(false);
+		try {
+			PlatformUI.getWorkbench().getProgressService().run(true, true,
+					monitor -> {
+						try {
+							DatabaseBackup.restore(zip, folder, monitor);
+							done.set(true);
+						} catch (OperationCanceledException e) {
+							// the folder was deleted
+						} catch (Exception e) {
+							ErrorReporter.on("Failed to restore database" +
+									" from file: " + zip.getName(), e);
+						}
+					});
+		} catch (InvocationTargetException | InterruptedException e) {
+			ErrorReporter.on("Failed to restore database" +
+					" from file: " + zip.getName(), e);
+		}
+		if (!done.get())
+			return;
+		DerbyConfig conf = new DerbyConfig();
+		conf.name(dbName);
+		Database.register(conf);
+		Navigator.refresh();
 	}
 }
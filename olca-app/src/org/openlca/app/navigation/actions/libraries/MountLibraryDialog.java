@@ -15,6 +15,7 @@ import org.eclipse.ui.forms.FormDialog;
 import org.eclipse.ui.forms.IManagedForm;
 import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.openlca.app.App;
+import org.openlca.app.db.Cache;
 import org.openlca.app.db.Database;
 import org.openlca.app.db.Repository;
 import org.openlca.app.navigation.Navigator;
@@ -31,7 +32,6 @@ import org.openlca.core.library.PreMountCheck;
 import org.openlca.core.library.PreMountState;
 import org.openlca.core.model.ModelType;
 import org.openlca.git.util.TypedRefIdMap;
-import org.openlca.util.Categories;
 import org.openlca.util.Strings;
 
 class MountLibraryDialog extends FormDialog {
@@ -69,6 +69,9 @@ class MountLibraryDialog extends FormDialog {
 						.apply(dialog.collectActions())
 						.run(),
 				() -> {
+					// the mounter writes directly into the database, so the
+					// caches, e.g. the category paths, need to be reloaded
+					Cache.evictAll();
 					updateGitIndex(previousTags);
 					Navigator.refresh();
 				});
@@ -89,7 +92,7 @@ class MountLibraryDialog extends FormDialog {
 	private static void updateGitIndex(TypedRefIdMap<String> previousTags) {
 		if (!Repository.isConnected())
 			return;
-		var pathBuilder = Categories.pathsOf(Database.get());
+		var pathBuilder = Cache.getPathCache();
 		for (var type : ModelType.values()) {
 			Daos.root(Database.get(), type).getDescriptors().forEach(d -> {
 				if (!Strings.nullOrEmpty(d.library) && !previousTags.contains(type, d.refId)) {
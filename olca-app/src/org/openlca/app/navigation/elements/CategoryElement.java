@@ -3,17 +3,16 @@ package org.openlca.app.navigation.elements;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 
 import org.openlca.app.db.Database;
 import org.openlca.core.database.CategoryDao;
-import org.openlca.core.database.Daos;
 import org.openlca.core.model.Category;
+import org.openlca.core.model.ModelType;
 
 /**
  * Represents categories in the navigation tree.
  */
-public class CategoryElement extends NavigationElement<Category> {
+public class CategoryElement extends ModelContainerElement<Category> {
 
 	public CategoryElement(INavigationElement<?> parent, Category category) {
 		super(parent, category);
@@ -28,15 +27,26 @@ public class CategoryElement extends NavigationElement<Category> {
 	}
 
 	@Override
-	protected List<INavigationElement<?>> queryChilds() {
+	public ModelType getModelType() {
+		var category = getContent();
+		return category != null
+			? category.modelType
+			: null;
+	}
+
+	@Override
+	Category getCategory() {
+		return getContent();
+	}
+
+	@Override
+	public List<INavigationElement<?>> getCategoryChilds() {
 		var category = getContent();
 		if (category == null)
 			return Collections.emptyList();
 
 		var lib = getLibrary().orElse(null);
 		var list = new ArrayList<INavigationElement<?>>();
-
-		// child categories
 		if (lib == null) {
 			category.childCategories.stream()
 				.map(c -> new CategoryElement(this, c))
@@ -50,19 +60,17 @@ public class CategoryElement extends NavigationElement<Category> {
 					.forEach(list::add);
 			}
 		}
-
-		// models in this category
-		var dao = Daos.root(Database.get(), category.modelType);
-		if (dao == null)
-			return list;
-		for (var d : dao.getDescriptors(Optional.of(category))) {
-			if (lib == null || lib.equals(d.library)) {
-				list.add(new ModelElement(this, d));
-			}
-		}
 		return list;
 	}
 
+	@Override
+	public List<INavigationElement<?>> loadChildren(
+			List<INavigationElement<?>> categoryChilds) {
+		return getContent() != null
+			? super.loadChildren(categoryChilds)
+			: Collections.emptyList();
+	}
+
 	/**
 	 * Returns {@code true} if the category of this element or a child category
 	 * of it contain model elements from a library.
@@ -0,0 +1,21 @@
+package org.openlca.app.navigation.elements;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A placeholder that is shown in the navigation tree while the child elements
+ * of a model container are loaded in the background. The content is the text
+ * that is displayed.
+ */
+public class LoadingElement extends NavigationElement<String> {
+
+	public LoadingElement(INavigationElement<?> parent, String text) {
+		super(parent, text);
+	}
+
+	@Override
+	protected List<INavigationElement<?>> queryChilds() {
+		return Collections.emptyList();
+	}
+}
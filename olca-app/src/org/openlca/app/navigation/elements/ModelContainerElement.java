@@ -0,0 +1,115 @@
+package org.openlca.app.navigation.elements;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.openlca.app.db.CategoryDescriptors;
+import org.openlca.core.model.Category;
+import org.openlca.core.model.ModelType;
+
+/**
+ * A navigation element that contains the categories and models of a model
+ * type: the element of a model type itself (with the root categories and the
+ * models without category) or a category element. The descriptors of the
+ * models are taken from the {@link CategoryDescriptors} cache, so that the
+ * children of such an element can be queried again without database access.
+ * <p>
+ * The navigation tree can load the models of such an element in pages in the
+ * background via {@link #loadChildren(List)} and
+ * {@link #setLoadedChildren(int, List)}; the number of models is available
+ * before via {@link #getModelCount()}.
+ */
+public abstract class ModelContainerElement<T> extends NavigationElement<T> {
+
+	/**
+	 * Is incremented when this element is updated, so that background loads of
+	 * an older state can be detected.
+	 */
+	private int version;
+
+	ModelContainerElement(INavigationElement<?> parent, T content) {
+		super(parent, content);
+	}
+
+	/** The type of the models in this element. */
+	public abstract ModelType getModelType();
+
+	/**
+	 * The category of this element or `null` if this is the element of the
+	 * models without category.
+	 */
+	abstract Category getCategory();
+
+	/**
+	 * Returns the child category elements of this element. In contrast to the
+	 * models, the categories are cheap to query.
+	 */
+	public abstract List<INavigationElement<?>> getCategoryChilds();
+
+	@Override
+	public void update() {
+		version++;
+		super.update();
+	}
+
+	/** The current version of this element. */
+	public int version() {
+		return version;
+	}
+
+	@Override
+	protected final List<INavigationElement<?>> queryChilds() {
+		return loadChildren(getCategoryChilds());
+	}
+
+	/**
+	 * Creates the full list of child elements with the given category elements
+	 * and the models of this element. This method can be called outside of the
+	 * UI thread; it does not change the state of this element.
+	 */
+	public List<INavigationElement<?>> loadChildren(
+			List<INavigationElement<?>> categoryChilds) {
+		var list = new ArrayList<INavigationElement<?>>(categoryChilds);
+		var lib = getLibrary().orElse(null);
+		for (var d : CategoryDescriptors.of(getModelType(), getCategory())) {
+			if (lib == null || Objects.equals(lib, d.library)) {
+				list.add(new ModelElement(this, d));
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Sets the child elements that were loaded via
+	 * {@link #loadChildren(List)}. Returns `false` when this element was
+	 * updated in the meantime, and thus, the loaded elements are outdated.
+	 */
+	public boolean setLoadedChildren(
+			int version, List<INavigationElement<?>> childs) {
+		if (version != this.version)
+			return false;
+		setChildren(childs);
+		return true;
+	}
+
+	/**
+	 * Returns true if the child elements of this element are already available
+	 * without querying the database.
+	 */
+	public boolean isContentLoaded() {
+		return hasCachedChildren()
+				|| CategoryDescriptors.isLoaded(getModelType(), getCategory());
+	}
+
+	/**
+	 * Returns the number of models directly in this element or -1 if this
+	 * number is not known. For elements with a library filter, the number is
+	 * not known before the models are loaded.
+	 */
+	public int getModelCount() {
+		if (getLibrary().isPresent())
+			return -1;
+		return CategoryDescriptors.countOf(getModelType(), getCategory());
+	}
+}
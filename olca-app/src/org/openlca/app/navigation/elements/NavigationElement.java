@@ -38,6 +38,21 @@ abstract class NavigationElement<T> implements INavigationElement<T> {
 		return cache;
 	}
 
+	/**
+	 * Sets the child elements of this element, e.g. when they were loaded in
+	 * the background.
+	 */
+	void setChildren(List<INavigationElement<?>> childs) {
+		cache = childs;
+	}
+
+	/**
+	 * Returns true if the child elements of this element were already queried.
+	 */
+	boolean hasCachedChildren() {
+		return cache != null;
+	}
+
 	@Override
 	public T getContent() {
 		return content;
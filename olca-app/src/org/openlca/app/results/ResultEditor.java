@@ -44,6 +44,14 @@ public class ResultEditor extends FormEditor {
 	public DQResult dqResult;
 	public ResultItemOrder items;
 
+	/**
+	 * The result provider is not thread-safe. Computations on the result in
+	 * background threads must hold this lock and may only run while no other
+	 * page of the editor uses the result in the UI thread (see the
+	 * precomputation of the Sankey page).
+	 */
+	public final Object providerLock = new Object();
+
 	public static void open(CalculationSetup setup, LcaResult result) {
 		open(setup, result, null);
 	}
@@ -125,6 +133,17 @@ public class ResultEditor extends FormEditor {
 		};
 		sankeyInit.set(fn);
 		addPageChangedListener(fn);
+
+		// Sankey graphs are only precomputed while the Sankey page is active,
+		// as the other pages use the result provider in the UI thread.
+		addPageChangedListener(e -> {
+			var cache = sankeyEditor.getSankeyCache();
+			if (e.getSelectedPage() == sankeyEditor) {
+				cache.resume();
+			} else {
+				cache.pause();
+			}
+		});
 	}
 
 	@Override
@@ -23,6 +23,11 @@ public class SankeyConfig extends Element implements Copyable<SankeyConfig> {
 	private int orientation = NORTH;
 	private String connectionRouter = ROUTER_CURVE;
 	private Theme theme = Themes.getDefault(Themes.SANKEY);
+	/**
+	 * If true, the graphs of all impact categories are computed in the
+	 * background so that switching between them is fast.
+	 */
+	private boolean precompute;
 
 	public SankeyConfig(SankeyEditor editor) {
 		this.editor = editor;
@@ -71,6 +76,7 @@ public class SankeyConfig extends Element implements Copyable<SankeyConfig> {
 		clone.theme = theme;
 		clone.orientation = orientation;
 		clone.connectionRouter = connectionRouter;
+		clone.precompute = precompute;
 		return clone;
 	}
 
@@ -87,6 +93,7 @@ public class SankeyConfig extends Element implements Copyable<SankeyConfig> {
 		other.orientation = orientation;
 		other.theme = theme;
 		other.connectionRouter = connectionRouter;
+		other.precompute = precompute;
 		other.firePropertyChange(CONFIG_PROP, null, this);
 	}
 
@@ -110,6 +117,10 @@ public class SankeyConfig extends Element implements Copyable<SankeyConfig> {
 		return orientation;
 	}
 
+	public boolean precompute() {
+		return precompute;
+	}
+
 	public Theme getTheme() {
 		return theme;
 	}
@@ -142,6 +153,13 @@ public class SankeyConfig extends Element implements Copyable<SankeyConfig> {
 		firePropertyChange(CONFIG_PROP, null, this);
 	}
 
+	public void setPrecompute(boolean precompute) {
+		if (precompute == this.precompute)
+			return;
+		this.precompute = precompute;
+		firePropertyChange(CONFIG_PROP, null, this);
+	}
+
 	public void setOrientation(int orientation) {
 		if (orientation == this.orientation)
 			return;
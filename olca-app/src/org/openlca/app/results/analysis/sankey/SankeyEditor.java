@@ -9,6 +9,7 @@ import org.eclipse.ui.*;
 import org.openlca.app.results.analysis.sankey.actions.EditSankeyConfigAction;
 import org.openlca.app.results.analysis.sankey.actions.LayoutAction;
 import org.openlca.app.results.analysis.sankey.actions.OpenEditorAction;
+import org.openlca.app.results.analysis.sankey.model.SankeyCache;
 import org.openlca.app.results.analysis.sankey.model.SankeyFactory;
 import org.openlca.app.tools.graphics.actions.SaveImageAction;
 import org.openlca.app.results.ResultEditor;
@@ -36,6 +37,7 @@ public class SankeyEditor extends GraphicalEditorWithFrame {
 
 	private final SankeyFactory sankeyFactory = new SankeyFactory(this);
 	public final SankeyConfig config;
+	private final SankeyCache sankeyCache;
 	private Sankey<?> sankey;
 
 	public SankeyEditor(ResultEditor parent) {
@@ -44,6 +46,7 @@ public class SankeyEditor extends GraphicalEditorWithFrame {
 		this.result = parent.result;
 		this.items = parent.items;
 		this.calculationTarget = parent.setup.target();
+		this.sankeyCache = new SankeyCache(result, parent.providerLock);
 		this.config = new SankeyConfig(this);
 	}
 
@@ -115,6 +118,16 @@ public class SankeyEditor extends GraphicalEditorWithFrame {
 		return sankeyFactory;
 	}
 
+	public SankeyCache getSankeyCache() {
+		return sankeyCache;
+	}
+
+	@Override
+	public void dispose() {
+		sankeyCache.dispose();
+		super.dispose();
+	}
+
 	@Override
 	public void doSave(IProgressMonitor monitor) {}
 
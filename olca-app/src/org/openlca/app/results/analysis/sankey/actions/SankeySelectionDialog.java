@@ -46,6 +46,9 @@ class SankeySelectionDialog extends FormDialog implements SelectionHandler {
 				.create(body, tk);
 		createCutoffSpinner(tk, body);
 		createCountSpinner(tk, body);
+		if (items.hasImpacts()) {
+			precomputeCheck(tk, body);
+		}
 		themeCombo(tk, body);
 		orientationsCombo(tk, body);
 		connectionRoutersCombo(tk, body);
@@ -82,6 +85,15 @@ class SankeySelectionDialog extends FormDialog implements SelectionHandler {
 		tk.createLabel(inner, "");
 	}
 
+	private void precomputeCheck(FormToolkit tk, Composite comp) {
+		UI.filler(comp, tk);
+		var check = UI.checkbox(comp, tk,
+				"Precompute all impact categories in the background");
+		check.setSelection(config.precompute());
+		Controls.onSelect(check,
+				e -> config.setPrecompute(check.getSelection()));
+	}
+
 	private void themeCombo(FormToolkit tk, Composite comp) {
 		var combo = UI.labeledCombo(comp, tk, "Theme");
 		UI.gridData(combo, true, false);
@@ -1,5 +1,8 @@
 package org.openlca.app.results.analysis.sankey.model;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 import org.openlca.app.results.analysis.sankey.SankeyConfig;
 import org.openlca.app.results.analysis.sankey.SankeyEditor;
 import org.openlca.app.tools.graphics.model.BaseComponent;
@@ -10,6 +13,7 @@ public class Diagram extends BaseComponent {
 
 	public final SankeyEditor editor;
 	public final int orientation;
+	private final Map<Sankey.Node, SankeyNode> nodes = new IdentityHashMap<>();
 
 	public Diagram(SankeyEditor editor, int orientation) {
 		this.editor = editor;
@@ -21,11 +25,21 @@ public class Diagram extends BaseComponent {
 	}
 
 	public SankeyNode getNode(Sankey.Node node) {
-		for (var child : getChildren())
-			if (child instanceof SankeyNode sankeyNode)
-				if (sankeyNode.node == node)
-					return sankeyNode;
-		return null;
+		return nodes.get(node);
+	}
+
+	@Override
+	protected void childAdded(Component child) {
+		if (child instanceof SankeyNode sankeyNode) {
+			nodes.putIfAbsent(sankeyNode.node, sankeyNode);
+		}
+	}
+
+	@Override
+	protected void childRemoved(Component child) {
+		if (child instanceof SankeyNode sankeyNode) {
+			nodes.remove(sankeyNode.node, sankeyNode);
+		}
 	}
 
 	public boolean isReferenceNode(SankeyNode node) {
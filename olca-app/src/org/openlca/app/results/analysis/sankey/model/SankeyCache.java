@@ -0,0 +1,235 @@
+package org.openlca.app.results.analysis.sankey.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.openlca.core.results.LcaResult;
+import org.openlca.core.results.Sankey;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the Sankey graphs of a result by the selected indicator. A graph is
+ * computed with at least {@link #MIN_NODE_COUNT} nodes; when only the cutoff
+ * is increased or the maximum number of nodes is decreased, the nodes of the
+ * diagram are filtered from the cached graph without computing it again (see
+ * {@link #filter(Sankey, double, int)}).
+ */
+public class SankeyCache {
+
+	/** The minimum number of nodes that are computed for a graph. */
+	static final int MIN_NODE_COUNT = 100;
+
+	private final LcaResult result;
+	private final Object providerLock;
+	private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+
+	/** Guards the scheduling of the precomputation, not the computation. */
+	private final Object jobLock = new Object();
+	private Job precomputation;
+	private Request request;
+	/** Checked by the precomputation before it takes the provider lock. */
+	private volatile boolean paused;
+
+	/**
+	 * Creates a cache for the given result. The result provider is not
+	 * thread-safe, so the graphs are only computed while holding the given
+	 * lock of the result editor.
+	 */
+	public SankeyCache(LcaResult result, Object providerLock) {
+		this.result = result;
+		this.providerLock = providerLock;
+	}
+
+	/**
+	 * Returns a graph for the given selection that contains at least the
+	 * nodes with the given cutoff and maximum node count. The graph is taken
+	 * from the cache if possible.
+	 */
+	public Sankey<?> get(Object selection, double cutoff, int maxCount) {
+		if (selection == null)
+			return null;
+		var entry = entries.get(selection);
+		if (entry != null && entry.covers(cutoff, maxCount))
+			return entry.sankey;
+		return compute(selection, cutoff, maxCount);
+	}
+
+	private Sankey<?> compute(Object selection, double cutoff, int maxCount) {
+		synchronized (providerLock) {
+			// could have been computed in the meantime by the precomputation
+			var entry = entries.get(selection);
+			if (entry != null && entry.covers(cutoff, maxCount))
+				return entry.sankey;
+			int count = maxCount > 0
+					? Math.max(maxCount, MIN_NODE_COUNT)
+					: maxCount;
+			var sankey = Sankey.of(selection, result.provider())
+					.withMinimumShare(cutoff)
+					.withMaximumNodeCount(count)
+					.build();
+			entries.put(selection, new Entry(sankey, cutoff, count));
+			return sankey;
+		}
+	}
+
+	/**
+	 * Computes the graphs of the given selections that are not cached yet in
+	 * a background job. A running precomputation is canceled; it stops after
+	 * the graph that it currently computes, without blocking the caller.
+	 */
+	public void precompute(List<?> selections, double cutoff, int maxCount) {
+		synchronized (jobLock) {
+			request = new Request(List.copyOf(selections), cutoff, maxCount);
+			cancelJob();
+			if (!paused) {
+				schedule(request);
+			}
+		}
+	}
+
+	/**
+	 * Stops the precomputation, e.g. when another page of the result editor
+	 * is activated. This does not block the caller: the precomputation does
+	 * not start a new graph after this call, and a graph that is currently
+	 * computed holds the provider lock, on which other users of the result
+	 * provider wait if needed. The remaining graphs are computed when
+	 * {@link #resume()} is called.
+	 */
+	public void pause() {
+		synchronized (jobLock) {
+			paused = true;
+			cancelJob();
+		}
+	}
+
+	/** Continues a paused precomputation. */
+	public void resume() {
+		synchronized (jobLock) {
+			paused = false;
+			if (request != null && precomputation == null) {
+				schedule(request);
+			}
+		}
+	}
+
+	private void cancelJob() {
+		if (precomputation != null) {
+			precomputation.cancel();
+			precomputation = null;
+		}
+	}
+
+	private void schedule(Request req) {
+		var todo = new ArrayList<Object>();
+		for (var selection : req.selections) {
+			var entry = entries.get(selection);
+			if (entry == null || !entry.covers(req.cutoff, req.maxCount)) {
+				todo.add(selection);
+			}
+		}
+		if (todo.isEmpty()) {
+			request = null;
+			return;
+		}
+		var job = new Job("Precompute Sankey diagrams") {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				monitor.beginTask(getName(), todo.size());
+				for (var selection : todo) {
+					if (monitor.isCanceled() || paused)
+						return Status.CANCEL_STATUS;
+					try {
+						compute(selection, req.cutoff, req.maxCount);
+					} catch (Exception e) {
+						LoggerFactory.getLogger(SankeyCache.class)
+								.error("failed to compute Sankey graph", e);
+						return Status.OK_STATUS;
+					}
+					monitor.worked(1);
+				}
+				monitor.done();
+				synchronized (jobLock) {
+					if (precomputation == this) {
+						precomputation = null;
+						request = null;
+					}
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		job.setPriority(Job.DECORATE);
+		precomputation = job;
+		job.schedule();
+	}
+
+	/** Cancels a running precomputation and clears the cache. */
+	public void dispose() {
+		synchronized (jobLock) {
+			paused = true;
+			request = null;
+			cancelJob();
+		}
+		entries.clear();
+	}
+
+	/**
+	 * Selects the nodes of a diagram with the given cutoff and maximum node
+	 * count from the given graph. Like the graph builder, the nodes are taken
+	 * in the order of their shares, starting from the root and following the
+	 * providers of the already selected nodes. The root is always the first
+	 * node of the returned list.
+	 */
+	public static List<Sankey.Node> filter(
+			Sankey<?> sankey, double cutoff, int maxCount) {
+		if (sankey == null || sankey.root == null)
+			return Collections.emptyList();
+		var nodes = new ArrayList<Sankey.Node>();
+		var seen = Collections.newSetFromMap(
+				new IdentityHashMap<Sankey.Node, Boolean>());
+		var queue = new PriorityQueue<Sankey.Node>(Comparator.comparingDouble(
+				(Sankey.Node n) -> Math.abs(n.share)).reversed());
+		queue.add(sankey.root);
+		seen.add(sankey.root);
+		while (!queue.isEmpty()) {
+			if (maxCount > 0 && nodes.size() >= maxCount)
+				break;
+			var node = queue.poll();
+			nodes.add(node);
+			for (var provider : node.providers) {
+				if (seen.add(provider) && Math.abs(provider.share) >= cutoff) {
+					queue.add(provider);
+				}
+			}
+		}
+		return nodes;
+	}
+
+	private record Request(List<?> selections, double cutoff, int maxCount) {
+	}
+
+	private record Entry(Sankey<?> sankey, double cutoff, int maxCount) {
+
+		/**
+		 * Returns true if the graph of this entry contains the graph with the
+		 * given cutoff and maximum node count.
+		 */
+		boolean covers(double cutoff, int maxCount) {
+			if (cutoff < this.cutoff)
+				return false;
+			if (this.maxCount <= 0)
+				return true;
+			return maxCount > 0 && maxCount <= this.maxCount;
+		}
+	}
+}
@@ -21,38 +21,40 @@ public class SankeyFactory {
 			return new Diagram(editor, config.orientation());
 
 		var diagram = new Diagram(editor, config.orientation());
+		var cache = editor.getSankeyCache();
 		App.runWithProgress("Calculate sankey results",
-				() -> editor.setSankey(Sankey.of(
-						config.selection(), editor.result.provider())
-						.withMinimumShare(config.cutoff())
-						.withMaximumNodeCount(config.maxCount())
-						.build()),
+				() -> editor.setSankey(cache.get(
+						config.selection(), config.cutoff(), config.maxCount())),
 				() -> {
-					if (editor.getSankey() == null)
+					var sankey = editor.getSankey();
+					if (sankey == null)
 						return;
 
 					// create the nodes
-					editor.getSankey().traverse(n -> {
-						var node = new SankeyNode(n, editor.getSankey());
-						diagram.addChild(node);
-					});
-
-					// create the links
-					editor.getSankey().traverse(n -> {
+					var nodes = SankeyCache.filter(
+							sankey, config.cutoff(), config.maxCount());
+					for (var n : nodes) {
+						diagram.addChild(new SankeyNode(n, sankey));
+					}
+
+					// create the links between the selected nodes
+					for (var n : nodes) {
 						var target = diagram.getNode(n);
-						if (target == null)
-							return;
 						for (var provider : n.providers) {
 							var source = diagram.getNode(provider);
 							if (source == null)
 								continue;
-							var linkShare = editor.getSankey().getLinkShare(provider, n);
+							var linkShare = sankey.getLinkShare(provider, n);
 							var ratio = linkShare * provider.share;
 							new SankeyLink(source, target, ratio);
 						}
-					});
+					}
 				});
 
+		if (config.precompute() && editor.result.hasImpacts()) {
+			cache.precompute(editor.items.impacts(),
+					config.cutoff(), config.maxCount());
+		}
 		return diagram;
 	}
 
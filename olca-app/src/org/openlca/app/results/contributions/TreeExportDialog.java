@@ -24,6 +24,7 @@ class TreeExportDialog extends FormDialog {
 
 	private final UpstreamTree tree;
 	private File file;
+	private UpstreamTreeExport.Format format = UpstreamTreeExport.Format.XLSX;
 
 	private Text maxDepthText;
 	private Text minContrText;
@@ -44,7 +45,7 @@ class TreeExportDialog extends FormDialog {
 	@Override
 	protected void configureShell(Shell shell) {
 		shell.setText(M.ExportToExcel);
-		shell.setSize(650, 350);
+		shell.setSize(650, 380);
 		UI.center(UI.shell(), shell);
 		super.configureShell(shell);
 	}
@@ -58,14 +59,24 @@ class TreeExportDialog extends FormDialog {
 		var comp = tk.createComposite(body);
 		UI.gridData(comp, true, false);
 		UI.gridLayout(comp, 3, 10, 5);
+
+		// file format; CSV has no row limit
+		UI.label(comp, tk, "Format");
+		var xlsxBtn = UI.radio(comp, tk, "Excel (*.xlsx)");
+		xlsxBtn.setSelection(true);
+		var csvBtn = UI.radio(comp, tk, "CSV (*.csv, for large trees)");
+
 		var fileText = UI.labeledText(comp, tk, "Export to file");
 		fileText.setEditable(false);
 		fileText.setBackground(Colors.white());
 		var fileBtn = UI.button(comp, tk, M.Browse);
 		UI.gridData(fileBtn, false, false).horizontalAlignment = SWT.FILL;
 		Controls.onSelect(fileBtn, e -> {
+			var ext = format == UpstreamTreeExport.Format.CSV
+					? ".csv"
+					: ".xlsx";
 			var f = FileChooser.forSavingFile(
-					M.Export, "contribution_tree.xlsx");
+					M.Export, "contribution_tree" + ext);
 			if (f != null) {
 				file = f;
 				fileText.setText(file.getAbsolutePath());
@@ -76,6 +87,24 @@ class TreeExportDialog extends FormDialog {
 			}
 		});
 
+		// a file needs to be selected again when the format changes
+		Runnable onFormat = () -> {
+			var next = csvBtn.getSelection()
+					? UpstreamTreeExport.Format.CSV
+					: UpstreamTreeExport.Format.XLSX;
+			if (next == format)
+				return;
+			format = next;
+			file = null;
+			fileText.setText("");
+			var ok = getButton(IDialogConstants.OK_ID);
+			if (ok != null) {
+				ok.setEnabled(false);
+			}
+		};
+		Controls.onSelect(xlsxBtn, _e -> onFormat.run());
+		Controls.onSelect(csvBtn, _e -> onFormat.run());
+
 		// number of levels
 		UI.gridLayout(comp, 3, 10, 5);
 		maxDepthText = UI.labeledText(comp, tk, "Max. number of levels");
@@ -124,6 +153,7 @@ class TreeExportDialog extends FormDialog {
 		}
 
 		var export = new UpstreamTreeExport(file, tree);
+		export.format = format;
 
 		if (maxDepthText.isEnabled()) {
 
@@ -1,12 +1,17 @@
 package org.openlca.app.results.contributions;
 
 import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Objects;
 
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.openlca.app.util.CostResultDescriptor;
 import org.openlca.app.util.Labels;
 import org.openlca.core.matrix.index.EnviFlow;
@@ -21,10 +26,40 @@ import org.openlca.util.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import gnu.trove.list.array.TDoubleArrayList;
-
+/**
+ * Exports an upstream tree to a file. The tree is written while it is
+ * traversed so that the memory usage does not depend on the size of the
+ * exported tree: an Excel file is written via a streaming workbook that keeps
+ * only a small window of rows in memory, and a CSV file is written directly to
+ * the output stream. An Excel sheet is limited to 1,048,576 rows; larger trees
+ * can be exported to a CSV file.
+ * <p>
+ * The Excel sheet has the same layout as before: the process labels are
+ * indented by their level and the results are in the column after the deepest
+ * level. As rows cannot be changed after they left the window of the
+ * streaming workbook, the tree is traversed twice for an Excel file: first to
+ * find the deepest level and then to write the rows.
+ */
 class UpstreamTreeExport implements Runnable {
 
+	/** The maximum row index of an Excel sheet. */
+	private static final int MAX_EXCEL_ROW = 1048575;
+
+	/**
+	 * The number of rows that are kept in memory when writing an Excel file.
+	 */
+	private static final int ROW_WINDOW = 500;
+
+	public enum Format {
+		XLSX, CSV
+	}
+
+	/**
+	 * The format of the export. If not set, it is determined from the file
+	 * extension.
+	 */
+	public Format format;
+
 	/**
 	 * The maximum number of levels that should be exported. A value < 0 means
 	 * unlimited. In this case reasonable recursion limits are required if the
@@ -49,11 +84,8 @@ class UpstreamTreeExport implements Runnable {
 	private final File file;
 	private final UpstreamTree tree;
 
-	private Sheet sheet;
-	private int row;
-	private int maxColumn;
+	private RowWriter writer;
 	private double totalResult;
-	private final TDoubleArrayList values = new TDoubleArrayList(100);
 
 	UpstreamTreeExport(File file, UpstreamTree tree) {
 		this.file = file;
@@ -67,51 +99,47 @@ class UpstreamTreeExport implements Runnable {
 			log.error("invalid input, file or tree is null");
 			return;
 		}
-		try (var wb = new XSSFWorkbook()) {
-			sheet = wb.createSheet("Upstream tree");
-
-			var bold = Excel.createBoldStyle(wb);
-			Excel.cell(sheet, 0, 0,
-					"Upstream contributions to: " + refName())
-					.ifPresent(c -> c.setCellStyle(bold));
-			Excel.cell(sheet, 1, 0, "Processes")
-					.ifPresent(c -> c.setCellStyle(bold));
-
-			// write the tree
-			row = 1;
-			maxColumn = 0;
-			totalResult = tree.root.result();
-			Path path = new Path(tree.root);
-			traverse(path);
-
-			// write the values
+		var f = format != null
+				? format
+				: file.getName().toLowerCase().endsWith(".csv")
+				? Format.CSV
+				: Format.XLSX;
+		totalResult = tree.root.result();
+		try (RowWriter w = f == Format.CSV
+				? new CsvWriter(file)
+				: new ExcelWriter(file, maxLevel())) {
+			writer = w;
 			var unit = unit();
 			var resultHeader = Strings.nullOrEmpty(unit)
 					? "Result"
 					: "Result [" + unit + "]";
-			Excel.cell(sheet, 1, maxColumn + 1, resultHeader)
-					.ifPresent(c -> c.setCellStyle(bold));
-			for (int i = 0; i < values.size(); i++) {
-				Excel.cell(sheet, i + 2, maxColumn + 1, values.get(i));
-			}
-
-			// set the column widths
-			for (int col = 0; col < maxColumn; col++) {
-				sheet.setColumnWidth(col, 750);
-			}
-			sheet.setColumnWidth(maxColumn, 50 * 255);
-
-			// write the file
-			try (var fout = new FileOutputStream(file);
-					var buff = new BufferedOutputStream(fout)) {
-				wb.write(buff);
+			w.header("Upstream contributions to: " + refName(), resultHeader);
+			traverse(new Path(tree.root));
+			w.finish();
+			if (w.isFull()) {
+				log.warn("The upstream tree exceeds the maximum number of rows"
+						+ " of an Excel sheet and was truncated; use the CSV"
+						+ " format to export the full tree");
 			}
 		} catch (Exception e) {
 			log.error("Tree export failed", e);
 			throw new RuntimeException(e);
+		} finally {
+			writer = null;
 		}
 	}
 
+	/**
+	 * Returns the deepest level of the nodes that are written into an Excel
+	 * sheet, by traversing the tree without writing it.
+	 */
+	private int maxLevel() {
+		var levels = new LevelCounter();
+		writer = levels;
+		traverse(new Path(tree.root));
+		return levels.maxLevel;
+	}
+
 	private String refName() {
 		var ref = tree.ref;
 		if (ref == null)
@@ -155,11 +183,8 @@ class UpstreamTreeExport implements Runnable {
 
 	private void traverse(Path path) {
 
-		if (row >= 1048574) {
-			// 1048575 is the maximum row number of an
-			// Excel sheet.
+		if (writer.isFull())
 			return;
-		}
 
 		var node = path.node;
 		double result = path.node.result();
@@ -182,23 +207,17 @@ class UpstreamTreeExport implements Runnable {
 		}
 
 		// write the node and expand the child nodes
-		write(path);
+		writer.row(path.length, labelOf(node), result);
 		for (var child : tree.childs(node)) {
 			traverse(path.append(child));
 		}
 	}
 
-	private void write(Path path) {
-		row++;
-		values.add(path.node.result());
-		int col = path.length;
-		maxColumn = Math.max(col, maxColumn);
-		var node = path.node;
+	private String labelOf(UpstreamNode node) {
 		if (node.provider() == null
 				|| node.provider().provider() == null)
-			return;
-		var label = Labels.name(node.provider().provider());
-		Excel.cell(sheet, row, col, label);
+			return null;
+		return Labels.name(node.provider().provider());
 	}
 
 	private static class Path {
@@ -228,4 +247,176 @@ class UpstreamTreeExport implements Runnable {
 		}
 	}
 
+
+	/**
+	 * Writes the rows of the tree in the order in which they are visited.
+	 */
+	private interface RowWriter extends AutoCloseable {
+
+		void header(String title, String resultHeader) throws IOException;
+
+		void row(int level, String label, double result);
+
+		/** Returns true if no more rows can be written. */
+		boolean isFull();
+
+		/** Writes the remaining content to the file. */
+		void finish() throws IOException;
+	}
+
+	/**
+	 * Only counts the rows and the deepest level of the tree that would be
+	 * written into an Excel sheet.
+	 */
+	private static class LevelCounter implements RowWriter {
+
+		private int row = 1;
+		private int maxLevel = 0;
+
+		@Override
+		public void header(String title, String resultHeader) {
+		}
+
+		@Override
+		public void row(int level, String label, double result) {
+			row++;
+			maxLevel = Math.max(level, maxLevel);
+		}
+
+		@Override
+		public boolean isFull() {
+			return row >= MAX_EXCEL_ROW;
+		}
+
+		@Override
+		public void finish() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	/**
+	 * Writes the tree into an Excel sheet. The process labels are indented by
+	 * their level and the results are written into the column after the
+	 * deepest level, which needs to be known before the rows are written.
+	 */
+	private static class ExcelWriter implements RowWriter {
+
+		private final File file;
+		private final SXSSFWorkbook wb;
+		private final Sheet sheet;
+		private final int maxLevel;
+		private int row = 1;
+
+		ExcelWriter(File file, int maxLevel) {
+			this.file = file;
+			this.maxLevel = maxLevel;
+			this.wb = new SXSSFWorkbook(ROW_WINDOW);
+			wb.setCompressTempFiles(true);
+			this.sheet = wb.createSheet("Upstream tree");
+		}
+
+		@Override
+		public void header(String title, String resultHeader) {
+			var bold = Excel.createBoldStyle(wb);
+			Excel.cell(sheet, 0, 0, title)
+					.ifPresent(c -> c.setCellStyle(bold));
+			Excel.cell(sheet, 1, 0, "Processes")
+					.ifPresent(c -> c.setCellStyle(bold));
+			Excel.cell(sheet, 1, maxLevel + 1, resultHeader)
+					.ifPresent(c -> c.setCellStyle(bold));
+		}
+
+		@Override
+		public void row(int level, String label, double result) {
+			row++;
+			if (label != null) {
+				Excel.cell(sheet, row, level, label);
+			}
+			Excel.cell(sheet, row, maxLevel + 1, result);
+		}
+
+		@Override
+		public boolean isFull() {
+			return row >= MAX_EXCEL_ROW;
+		}
+
+		@Override
+		public void finish() throws IOException {
+			for (int col = 0; col < maxLevel; col++) {
+				sheet.setColumnWidth(col, 750);
+			}
+			sheet.setColumnWidth(maxLevel, 50 * 255);
+			try (var fout = new FileOutputStream(file);
+					 var buff = new BufferedOutputStream(fout)) {
+				wb.write(buff);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			// deletes the temporary files of the streaming workbook
+			wb.dispose();
+			wb.close();
+		}
+	}
+
+	/**
+	 * Writes the tree as a CSV file with the level, process, and result of a
+	 * node in each row. This format has no row limit.
+	 */
+	private static class CsvWriter implements RowWriter {
+
+		private final BufferedWriter out;
+
+		CsvWriter(File file) throws IOException {
+			this.out = Files.newBufferedWriter(
+					file.toPath(), StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public void header(String title, String resultHeader)
+				throws IOException {
+			out.write("Level,Process," + quote(resultHeader));
+			out.newLine();
+		}
+
+		@Override
+		public void row(int level, String label, double result) {
+			try {
+				out.write(Integer.toString(level));
+				out.write(',');
+				out.write(quote(label));
+				out.write(',');
+				out.write(Double.toString(result));
+				out.newLine();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public boolean isFull() {
+			return false;
+		}
+
+		@Override
+		public void finish() throws IOException {
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.close();
+		}
+
+		private static String quote(String s) {
+			if (s == null)
+				return "";
+			return "\"" + s.replace("\"", "\"\"") + "\"";
+		}
+	}
+
 }
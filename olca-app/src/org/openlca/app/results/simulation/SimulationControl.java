@@ -1,10 +1,13 @@
 package org.openlca.app.results.simulation;
 
+import java.lang.reflect.InvocationTargetException;
+
 import org.eclipse.jface.operation.ModalContext;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Display;
 import org.openlca.app.M;
 import org.openlca.app.util.Controls;
+import org.openlca.app.util.ErrorReporter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,6 +41,9 @@ class SimulationControl {
 			var display = Display.getCurrent();
 			var progress = new SimulationProgress(display, editor, page);
 			ModalContext.run(progress, true, monitor, display);
+		} catch (InvocationTargetException e) {
+			ErrorReporter.on("The simulation failed; the results only contain"
+					+ " the finished runs", e.getCause());
 		} catch (Exception e) {
 			log.error("Could not start simulation progress", e);
 		}
@@ -164,33 +164,48 @@ class SimulationPage extends FormPage {
 		new ResultTypeCheck<>(flowViewer, flowsCheck, FLOW);
 	}
 
+	/**
+	 * Shows the values of the selected flow or impact category. The values are
+	 * copied from the result while holding its lock, as the simulation could
+	 * append new runs at the same time.
+	 */
 	private void updateSelection() {
 		if (result == null || statisticsCanvas == null)
 			return;
+		double[] vals;
 		if (resultType == FLOW) {
 			var flow = flowViewer.getSelected();
 			if (flow == null)
 				return;
-			double[] vals = resultPin != null
-				? result.getAllUpstream(resultPin, flow)
-				: result.getAll(flow);
-			statisticsCanvas.setValues(vals);
+			synchronized (result) {
+				vals = resultPin != null
+					? result.getAllUpstream(resultPin, flow)
+					: result.getAll(flow);
+				vals = vals != null ? vals.clone() : null;
+			}
 		} else {
 			ImpactDescriptor cat = impactViewer.getSelected();
 			if (cat == null)
 				return;
-			double[] vals = resultPin != null
-				? result.getAllUpstream(resultPin, cat)
-				: result.getAll(cat);
-			statisticsCanvas.setValues(vals);
+			synchronized (result) {
+				vals = resultPin != null
+					? result.getAllUpstream(resultPin, cat)
+					: result.getAll(cat);
+				vals = vals != null ? vals.clone() : null;
+			}
 		}
+		statisticsCanvas.setValues(vals);
 	}
 
-	void updateProgress() {
-		if (result == null)
+	/**
+	 * Updates the progress bar and the statistics with the given number of
+	 * finished simulation runs.
+	 */
+	void updateProgress(int finishedRuns) {
+		if (result == null || progressBar.isDisposed())
 			return;
 		updateSelection();
-		progressBar.setSelection(progressBar.getSelection() + 1);
+		progressBar.setSelection(finishedRuns);
 	}
 
 	void progressDone() {
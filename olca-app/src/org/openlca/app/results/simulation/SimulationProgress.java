@@ -1,28 +1,64 @@
 package org.openlca.app.results.simulation;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.swt.widgets.Display;
+import org.openlca.app.App;
 import org.openlca.app.M;
+import org.openlca.app.db.Database;
 import org.openlca.core.math.Simulator;
+import org.openlca.core.model.CalculationSetup;
+import org.openlca.core.results.SimulationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * The progress that runs the simulations. This should not be executed in the
  * UI-thread.
+ * <p>
+ * The runs are split over a pool of workers where each worker has its own
+ * simulator with its own matrix data and random number generators. The
+ * results of the workers are appended to the result of the simulator of the
+ * editor, which is the result that is shown in the simulation page. When
+ * products are pinned, the runs are executed by the simulator of the editor
+ * as the pinned contributions are only collected in the result of the
+ * simulator that calculated them; the runs are then executed while holding the
+ * lock of the result, as the simulator appends them directly. All reads of
+ * the result in the UI are synchronized on the same lock. When a worker fails,
+ * the other workers are stopped and the error is thrown as
+ * `InvocationTargetException` after the progress was finished.
  */
 class SimulationProgress implements IRunnableWithProgress {
 
+	/** The minimum time between two progress updates in the UI. */
+	private static final long UPDATE_INTERVAL = 250;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
 	private final Display display;
 	private final int numberOfRuns;
 	private final Simulator solver;
+	private final CalculationSetup setup;
 	private final SimulationPage page;
 
+	private final AtomicInteger finishedRuns = new AtomicInteger();
+	private final AtomicBoolean canceled = new AtomicBoolean();
+	private final AtomicReference<Exception> error = new AtomicReference<>();
+
 	public SimulationProgress(Display display, SimulationEditor editor,
 			SimulationPage page) {
 		this.display = display;
 		this.solver = editor.simulator;
+		this.setup = editor.setup;
 		this.numberOfRuns = editor.setup.simulationRuns().orElse(1);
 		this.page = page;
 	}
@@ -31,16 +67,115 @@ class SimulationProgress implements IRunnableWithProgress {
 	public void run(IProgressMonitor monitor) throws InvocationTargetException,
 			InterruptedException {
 		monitor.beginTask(M.MonteCarloSimulation + "...", numberOfRuns);
-		for (int i = 0; i < numberOfRuns; i++) {
-			if (monitor.isCanceled()) {
-				display.asyncExec(page::progressDone);
-				break;
-			}
-			solver.nextRun();
-			display.asyncExec(page::updateProgress);
-			Thread.sleep(10);
+		int workerCount = solver.pinnedProducts.isEmpty()
+				? Math.max(1, Math.min(numberOfRuns,
+				Runtime.getRuntime().availableProcessors()))
+				: 1;
+		log.info("run {} simulations with {} worker(s)",
+				numberOfRuns, workerCount);
+
+		var pool = Executors.newFixedThreadPool(workerCount);
+		for (var worker : createWorkers(workerCount)) {
+			pool.execute(worker);
 		}
+		pool.shutdown();
+		awaitWorkers(pool, monitor);
 		monitor.done();
+		display.asyncExec(() -> page.updateProgress(finishedRuns.get()));
 		display.asyncExec(page::progressDone);
+		var e = error.get();
+		if (e != null)
+			throw new InvocationTargetException(e,
+					"the simulation failed after "
+							+ finishedRuns.get() + " runs");
+	}
+
+	private List<Runnable> createWorkers(int count) {
+		var workers = new ArrayList<Runnable>(count);
+		if (count == 1) {
+			workers.add(new Worker(numberOfRuns, solver, null));
+			return workers;
+		}
+		int runs = numberOfRuns / count;
+		int rest = numberOfRuns % count;
+		var result = solver.getResult();
+		for (int i = 0; i < count; i++) {
+			int n = i < rest ? runs + 1 : runs;
+			workers.add(new Worker(n, null, result));
+		}
+		return workers;
+	}
+
+	/**
+	 * Waits until the workers are finished and updates the progress in the UI
+	 * in fixed time intervals.
+	 */
+	private void awaitWorkers(ExecutorService pool, IProgressMonitor monitor)
+			throws InterruptedException {
+		int reported = 0;
+		while (!pool.awaitTermination(UPDATE_INTERVAL, TimeUnit.MILLISECONDS)) {
+			if (monitor.isCanceled() && !canceled.get()) {
+				log.info("simulation canceled");
+				canceled.set(true);
+			}
+			int runs = finishedRuns.get();
+			if (runs == reported)
+				continue;
+			monitor.worked(runs - reported);
+			reported = runs;
+			display.asyncExec(() -> page.updateProgress(runs));
+		}
+	}
+
+	/**
+	 * Executes a number of simulation runs. If a simulator is given, the runs
+	 * are directly executed with that simulator. Otherwise, the worker creates
+	 * its own simulator and appends the results of its runs to the given
+	 * target result.
+	 */
+	private class Worker implements Runnable {
+
+		private final int runs;
+		private final SimulationResult target;
+		private Simulator simulator;
+
+		Worker(int runs, Simulator simulator, SimulationResult target) {
+			this.runs = runs;
+			this.simulator = simulator;
+			this.target = target;
+		}
+
+		@Override
+		public void run() {
+			try {
+				if (simulator == null) {
+					simulator = Simulator.create(setup, Database.get())
+							.withSolver(App.getSolver());
+				}
+				for (int i = 0; i < runs; i++) {
+					if (canceled.get())
+						return;
+					if (target != null) {
+						var r = simulator.nextRun();
+						if (r != null) {
+							synchronized (target) {
+								target.append(r);
+							}
+						}
+					} else {
+						// the simulator appends the run to its own result
+						var own = simulator.getResult();
+						synchronized (own) {
+							simulator.nextRun();
+						}
+					}
+					finishedRuns.incrementAndGet();
+				}
+			} catch (Exception e) {
+				log.error("simulation worker failed", e);
+				error.compareAndSet(null, e);
+				canceled.set(true);
+			}
+		}
 	}
 }
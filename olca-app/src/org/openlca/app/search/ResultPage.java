@@ -20,6 +20,7 @@ import org.openlca.app.App;
 import org.openlca.app.M;
 import org.openlca.app.db.Cache;
 import org.openlca.app.db.Database;
+import org.openlca.app.db.PathIndex;
 import org.openlca.app.navigation.Navigator;
 import org.openlca.app.rcp.images.Images;
 import org.openlca.app.util.Colors;
@@ -30,7 +31,6 @@ import org.openlca.core.model.Category;
 import org.openlca.core.model.descriptors.CategoryDescriptor;
 import org.openlca.core.model.descriptors.Descriptor;
 import org.openlca.core.model.descriptors.RootDescriptor;
-import org.openlca.util.Categories;
 import org.openlca.util.Strings;
 
 class ResultPage extends FormPage {
@@ -38,7 +38,7 @@ class ResultPage extends FormPage {
 	private final int PAGE_SIZE = 50;
 	private final List<Descriptor> rawResults;
 	private final String title;
-	private final Categories.PathBuilder categories;
+	private final PathIndex paths;
 
 	private List<Descriptor> results;
 	private int currentPage = 0;
@@ -55,7 +55,7 @@ class ResultPage extends FormPage {
 		this.results = rawResults;
 		this.title = title;
 		pageCount = (int) Math.ceil((double) results.size() / (double) PAGE_SIZE);
-		categories = Categories.pathsOf(Database.get());
+		paths = PathIndex.of(Database.get());
 	}
 
 	@Override
@@ -155,7 +155,7 @@ class ResultPage extends FormPage {
 	private void renderCategory(FormToolkit tk, Composite comp, Descriptor d) {
 		if (!(d instanceof RootDescriptor e) || e.category == null)
 			return;
-		var path = categories.pathOf(e.category);
+		var path = paths.pathOf(e.category);
 		var label = tk.createLabel(comp, path);
 		label.setForeground(Colors.get(0, 128, 42));
 	}
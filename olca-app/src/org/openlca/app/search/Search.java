@@ -1,15 +1,10 @@
 package org.openlca.app.search;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.openlca.app.navigation.ModelTypeOrder;
 import org.openlca.app.util.Labels;
-import org.openlca.core.database.Daos;
-import org.openlca.core.database.IDatabase;
-import org.openlca.core.database.ParameterDao;
 import org.openlca.core.model.ModelType;
 import org.openlca.core.model.descriptors.Descriptor;
 import org.openlca.util.Strings;
@@ -19,7 +14,7 @@ import org.slf4j.LoggerFactory;
 class Search implements Runnable {
 
 	private final Logger log = LoggerFactory.getLogger(getClass());
-	private final IDatabase db;
+	private final SearchIndex index;
 
 	private ModelType typeFilter;
 	private final String rawTerm;
@@ -27,8 +22,8 @@ class Search implements Runnable {
 	private final List<String> tags = new ArrayList<>();
 	private final List<Descriptor> result = new ArrayList<>();
 
-	Search(IDatabase db, String term) {
-		this.db = db;
+	Search(SearchIndex index, String term) {
+		this.index = index;
 		this.rawTerm = term == null ? "" : term.toLowerCase().strip();
 		var parts = rawTerm.split("\\s+");
 		for (var part : parts) {
@@ -56,91 +51,26 @@ class Search implements Runnable {
 	@Override
 	public void run() {
 		result.clear();
-		if (rawTerm.isEmpty())
+		if (rawTerm.isEmpty() || index == null)
 			return;
 
 		log.trace("run search with term {}", rawTerm);
 		var types = typeFilter == null
 				? ModelTypeOrder.getOrderedTypes()
 				: new ModelType[]{typeFilter};
-		var matches = new ArrayList<Match>();
-		for (var type : types) {
-			var all = type == ModelType.PARAMETER
-					? new ParameterDao(db).getGlobalDescriptors()
-					: Daos.root(db, type).getDescriptors();
-			for (var d : all) {
-				var match = Match.of(d, this);
-				if (!match.isEmpty()) {
-					matches.add(match);
-				}
-			}
-		}
-
-		matches.stream()
-				.sorted((m1, m2) -> {
-					int c = Double.compare(m2.factor, m1.factor);
+		var query = new SearchIndex.Query(words, tags);
+		index.find(query, types).stream()
+				.sorted((h1, h2) -> {
+					int c = Double.compare(h2.score(), h1.score());
 					return c == 0
 							? Strings.compare(
-							Labels.name(m1.descriptor),
-							Labels.name(m2.descriptor))
+							Labels.name(h1.descriptor()),
+							Labels.name(h2.descriptor()))
 							: c;
 				})
-				.map(Match::descriptor)
+				.map(SearchIndex.Hit::descriptor)
 				.forEach(result::add);
 
 		log.trace("{} results found", result.size());
 	}
-
-	private record Match(Descriptor descriptor, double factor) {
-
-		private static final Match _empty = new Match(null, 0);
-
-		boolean isEmpty() {
-			return descriptor == null;
-		}
-
-		static Match of(Descriptor d, Search s) {
-			if (d == null)
-				return _empty;
-
-			if (s.words.size() == 1
-					&& d.refId != null
-					&& d.refId.equalsIgnoreCase(s.words.get(0)))
-				return new Match(d, 1e7);
-
-			// filter by tags
-			if (!s.tags.isEmpty()) {
-				if (Strings.nullOrEmpty(d.tags))
-					return _empty;
-
-				var tags = Arrays.stream(d.tags.split(","))
-						.map(tag -> tag.strip().toLowerCase())
-						.filter(Strings::notEmpty)
-						.collect(Collectors.toSet());
-				for (var tag : s.tags) {
-					if (!tags.contains(tag))
-						return _empty;
-				}
-			}
-
-			double factor = 0;
-			for (var word : s.words) {
-				factor += wordMatch(Labels.name(d), word);
-				factor += wordMatch(d.tags, word);
-			}
-
-			return !s.tags.isEmpty() || factor > 0
-					? new Match(d, factor)
-					: _empty;
-		}
-
-		private static double wordMatch(String phrase, String word) {
-			if (Strings.nullOrEmpty(phrase))
-				return 0;
-			double pos = phrase.toLowerCase().indexOf(word);
-			if (pos < 0)
-				return 0;
-			return word.length() * Math.sqrt(1.0 / (42.0 + pos));
-		}
-	}
 }
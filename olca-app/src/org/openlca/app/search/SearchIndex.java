@@ -0,0 +1,435 @@
+package org.openlca.app.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+import org.openlca.app.db.PathIndex;
+import org.openlca.app.util.Labels;
+import org.openlca.core.database.Daos;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.ParameterDao;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.descriptors.Descriptor;
+import org.openlca.core.model.descriptors.RootDescriptor;
+import org.openlca.util.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An inverted index of the descriptors of a database for the full-text search.
+ * The descriptors of a model type are loaded when that type is searched for
+ * the first time. After this, the index is updated incrementally via the
+ * respective methods that are called from the application cache when models
+ * are created, saved, or deleted. These updates are queued and applied before
+ * the next search so that saving a model never waits for a running search.
+ * <p>
+ * The index maps the white-space separated tokens of the names, tags, and
+ * category paths to the indexed entries. A search word matches an entry when
+ * it is contained in one of the tokens of that entry. As search words do not
+ * contain white-spaces, this gives the same matches as searching the word in
+ * the full phrase. To find the tokens that contain a word without scanning
+ * all tokens, every suffix of a token is stored in a sorted map: the tokens
+ * that contain the word are then the tokens of the suffixes that start with
+ * that word, which is a range of the sorted map.
+ */
+public final class SearchIndex {
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final IDatabase db;
+
+	private final EnumMap<ModelType, HashMap<Long, Entry>> entries =
+			new EnumMap<>(ModelType.class);
+	private final TokenIndex words = new TokenIndex();
+	private final HashMap<String, Set<Entry>> tags = new HashMap<>();
+	private final TokenIndex pathWords = new TokenIndex();
+	private final HashMap<String, Entry> refIds = new HashMap<>();
+
+	/** The types with descriptors that are currently in the index. */
+	private final EnumSet<ModelType> loaded = EnumSet.noneOf(ModelType.class);
+	private PathIndex paths;
+
+	/** Updates that are applied before the next search. */
+	private final ConcurrentLinkedQueue<Descriptor> pending =
+			new ConcurrentLinkedQueue<>();
+	private volatile boolean invalidated;
+
+	public SearchIndex(IDatabase db) {
+		this.db = db;
+	}
+
+	/**
+	 * Adds or updates the given model in the index. This method does not block
+	 * the calling thread: the update is applied before the next search is
+	 * executed.
+	 */
+	public void update(Descriptor d) {
+		if (d != null) {
+			pending.add(d);
+		}
+	}
+
+	/**
+	 * Removes everything from the index. The descriptors are loaded again when
+	 * they are searched the next time. As {@link #update(Descriptor)}, this
+	 * does not block the calling thread.
+	 */
+	public void invalidate() {
+		pending.clear();
+		invalidated = true;
+	}
+
+	private void applyPending() {
+		if (invalidated) {
+			invalidated = false;
+			log.trace("invalidate search index");
+			entries.clear();
+			words.clear();
+			tags.clear();
+			pathWords.clear();
+			refIds.clear();
+			loaded.clear();
+			paths = null;
+		}
+		Descriptor d;
+		while ((d = pending.poll()) != null) {
+			apply(d);
+		}
+	}
+
+	private void apply(Descriptor d) {
+		if (d.type == null) {
+			invalidated = true;
+			applyPending();
+			return;
+		}
+		if (d.type == ModelType.CATEGORY) {
+			// the paths of all models in that category could change
+			clearPaths();
+		}
+		if (!loaded.contains(d.type))
+			return;
+		if (d.type == ModelType.PARAMETER) {
+			// we only index global parameters
+			reload(ModelType.PARAMETER);
+			return;
+		}
+		remove(d.type, d.id);
+		var fresh = Daos.root(db, d.type).getDescriptor(d.id);
+		if (fresh != null) {
+			add(fresh);
+		}
+	}
+
+	synchronized List<Hit> find(Query query, ModelType[] types) {
+		applyPending();
+		for (var type : types) {
+			if (!loaded.contains(type)) {
+				load(type);
+			}
+		}
+		if (paths == null) {
+			indexPaths();
+		}
+
+		var typeSet = EnumSet.noneOf(ModelType.class);
+		typeSet.addAll(Arrays.asList(types));
+		var hits = new ArrayList<Hit>();
+
+		// a single word can directly match a reference ID
+		Entry exact = null;
+		if (query.words.size() == 1) {
+			var e = refIds.get(query.words.get(0));
+			if (e != null && typeSet.contains(e.type)) {
+				exact = e;
+				hits.add(new Hit(e.descriptor, 1e7));
+			}
+		}
+
+		Set<Entry> candidates = query.tags.isEmpty()
+				? null
+				: tagged(query.tags);
+		if (candidates != null && candidates.isEmpty())
+			return hits;
+
+		var scores = new HashMap<Entry, Double>();
+		for (var word : query.words) {
+			for (var e : words.matches(word)) {
+				double score = wordMatch(e.name, word) + wordMatch(e.tags, word);
+				scores.merge(e, score, Double::sum);
+			}
+			for (var e : pathWords.matches(word)) {
+				// matches in the category path count less than direct matches
+				scores.merge(e, 0.5 * wordMatch(e.path, word), Double::sum);
+			}
+		}
+
+		if (candidates != null) {
+			for (var e : candidates) {
+				if (e == exact || !typeSet.contains(e.type))
+					continue;
+				hits.add(new Hit(e.descriptor, scores.getOrDefault(e, 0.0)));
+			}
+		} else {
+			for (var s : scores.entrySet()) {
+				var e = s.getKey();
+				if (e == exact || s.getValue() <= 0 || !typeSet.contains(e.type))
+					continue;
+				hits.add(new Hit(e.descriptor, s.getValue()));
+			}
+		}
+		return hits;
+	}
+
+	private Set<Entry> tagged(List<String> queryTags) {
+		Set<Entry> set = null;
+		for (var tag : queryTags) {
+			var entries = tags.get(tag);
+			if (entries == null)
+				return Set.of();
+			if (set == null) {
+				set = new HashSet<>(entries);
+			} else {
+				set.retainAll(entries);
+			}
+		}
+		return set;
+	}
+
+	private void load(ModelType type) {
+		log.trace("load descriptors of type {} into search index", type);
+		var all = type == ModelType.PARAMETER
+				? new ParameterDao(db).getGlobalDescriptors()
+				: Daos.root(db, type).getDescriptors();
+		for (var d : all) {
+			add(d);
+		}
+		loaded.add(type);
+	}
+
+	private void reload(ModelType type) {
+		var map = entries.get(type);
+		if (map != null) {
+			for (var id : new ArrayList<>(map.keySet())) {
+				remove(type, id);
+			}
+		}
+		load(type);
+	}
+
+	private void add(Descriptor d) {
+		if (d == null || d.type == null)
+			return;
+		var e = new Entry(d);
+		entries.computeIfAbsent(d.type, t -> new HashMap<>()).put(d.id, e);
+		for (var token : tokensOf(e.name)) {
+			words.add(token, e);
+		}
+		for (var token : tokensOf(e.tags)) {
+			words.add(token, e);
+		}
+		for (var tag : e.tagSet) {
+			tags.computeIfAbsent(tag, t -> new HashSet<>()).add(e);
+		}
+		if (d.refId != null) {
+			refIds.put(d.refId.toLowerCase(), e);
+		}
+		if (paths != null) {
+			indexPath(e);
+		}
+	}
+
+	private void remove(ModelType type, long id) {
+		var map = entries.get(type);
+		if (map == null)
+			return;
+		var e = map.remove(id);
+		if (e == null)
+			return;
+		words.remove(tokensOf(e.name), e);
+		words.remove(tokensOf(e.tags), e);
+		removeFrom(tags, e.tagSet, e);
+		pathWords.remove(tokensOf(e.path), e);
+		if (e.descriptor.refId != null) {
+			refIds.remove(e.descriptor.refId.toLowerCase(), e);
+		}
+	}
+
+	private void removeFrom(
+			HashMap<String, Set<Entry>> index, Collection<String> keys, Entry e) {
+		for (var key : keys) {
+			var set = index.get(key);
+			if (set == null)
+				continue;
+			set.remove(e);
+			if (set.isEmpty()) {
+				index.remove(key);
+			}
+		}
+	}
+
+	private void clearPaths() {
+		pathWords.clear();
+		paths = null;
+	}
+
+	private void indexPaths() {
+		paths = PathIndex.of(db);
+		for (var map : entries.values()) {
+			for (var e : map.values()) {
+				indexPath(e);
+			}
+		}
+	}
+
+	private void indexPath(Entry e) {
+		e.path = null;
+		if (!(e.descriptor instanceof RootDescriptor d) || d.category == null)
+			return;
+		var path = paths.pathOf(d.category);
+		if (Strings.nullOrEmpty(path))
+			return;
+		e.path = path.toLowerCase();
+		for (var token : tokensOf(e.path)) {
+			pathWords.add(token, e);
+		}
+	}
+
+	private static List<String> tokensOf(String phrase) {
+		if (Strings.nullOrEmpty(phrase))
+			return List.of();
+		var tokens = new ArrayList<String>();
+		for (var token : phrase.split("\\s+")) {
+			if (!token.isEmpty()) {
+				tokens.add(token);
+			}
+		}
+		return tokens;
+	}
+
+	private static double wordMatch(String phrase, String word) {
+		if (Strings.nullOrEmpty(phrase))
+			return 0;
+		double pos = phrase.indexOf(word);
+		if (pos < 0)
+			return 0;
+		return word.length() * Math.sqrt(1.0 / (42.0 + pos));
+	}
+
+	/**
+	 * A parsed search query: the lower-cased search words and tags (without
+	 * the leading `#`).
+	 */
+	record Query(List<String> words, List<String> tags) {
+	}
+
+	/** A descriptor that matched a search query with its score. */
+	record Hit(Descriptor descriptor, double score) {
+	}
+
+	/**
+	 * Maps tokens to entries and finds the tokens that contain a word via the
+	 * sorted suffixes of the tokens.
+	 */
+	private static class TokenIndex {
+
+		private final HashMap<String, Set<Entry>> entries = new HashMap<>();
+
+		/** Suffix -> the tokens that end with this suffix. */
+		private final TreeMap<String, Set<String>> suffixes = new TreeMap<>();
+
+		void add(String token, Entry e) {
+			var set = entries.get(token);
+			if (set == null) {
+				set = new HashSet<>();
+				entries.put(token, set);
+				for (int i = 0; i < token.length(); i++) {
+					suffixes.computeIfAbsent(token.substring(i), $ -> new HashSet<>())
+							.add(token);
+				}
+			}
+			set.add(e);
+		}
+
+		void remove(Collection<String> tokens, Entry e) {
+			for (var token : tokens) {
+				var set = entries.get(token);
+				if (set == null)
+					continue;
+				set.remove(e);
+				if (!set.isEmpty())
+					continue;
+				entries.remove(token);
+				for (int i = 0; i < token.length(); i++) {
+					var suffix = token.substring(i);
+					var owners = suffixes.get(suffix);
+					if (owners == null)
+						continue;
+					owners.remove(token);
+					if (owners.isEmpty()) {
+						suffixes.remove(suffix);
+					}
+				}
+			}
+		}
+
+		/** Returns the entries with a token that contains the given word. */
+		Set<Entry> matches(String word) {
+			var set = new HashSet<Entry>();
+			if (Strings.nullOrEmpty(word))
+				return set;
+			var range = suffixes.subMap(word, true, word + '\uffff', true);
+			for (var tokens : range.values()) {
+				for (var token : tokens) {
+					var matched = entries.get(token);
+					if (matched != null) {
+						set.addAll(matched);
+					}
+				}
+			}
+			return set;
+		}
+
+		void clear() {
+			entries.clear();
+			suffixes.clear();
+		}
+	}
+
+	/**
+	 * An indexed descriptor with the pre-processed, lower-cased search fields.
+	 * Entries are compared by identity.
+	 */
+	private static class Entry {
+
+		final Descriptor descriptor;
+		final ModelType type;
+		final String name;
+		final String tags;
+		final Set<String> tagSet;
+		String path;
+
+		Entry(Descriptor d) {
+			this.descriptor = d;
+			this.type = d.type;
+			var label = Labels.name(d);
+			this.name = label == null ? null : label.toLowerCase();
+			this.tags = d.tags == null ? null : d.tags.toLowerCase();
+			this.tagSet = Strings.nullOrEmpty(tags)
+					? Set.of()
+					: Arrays.stream(tags.split(","))
+					.map(String::strip)
+					.filter(Strings::notEmpty)
+					.collect(Collectors.toSet());
+		}
+	}
+}
@@ -19,6 +19,7 @@ import org.openlca.app.M;
 import org.openlca.app.collaboration.search.SearchQuery;
 import org.openlca.app.collaboration.search.SearchView;
 import org.openlca.app.collaboration.util.RepositoryClients;
+import org.openlca.app.db.Cache;
 import org.openlca.app.db.Database;
 import org.openlca.app.rcp.images.Icon;
 import org.openlca.app.rcp.images.Images;
@@ -82,7 +83,7 @@ public class SearchText extends WorkbenchWindowControlContribution {
 			ParameterUsagePage.show(term);
 			return;
 		}
-		var search = new Search(Database.get(), text.getText())
+		var search = new Search(Cache.getSearchIndex(), text.getText())
 				.withTypeFilter(typeFilter);
 		App.run(M.Searching, search,
 				() -> SearchPage.show(term, search.getResult()));
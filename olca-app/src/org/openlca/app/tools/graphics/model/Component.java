@@ -70,6 +70,7 @@ abstract public class Component extends Element implements Comparable<Component>
 		else
 			children.add(child);
 		child.setParent(this);
+		childAdded(child);
 		firePropertyChange(CHILDREN_PROP, index, child);
 	}
 
@@ -80,16 +81,31 @@ abstract public class Component extends Element implements Comparable<Component>
 	public void addChildQuietly(Component child) {
 		children.add(child);
 		child.setParent(this);
+		childAdded(child);
 	}
 
-	public void addChildren(List<Node> children) {
-		for (var child : children) {
+	public void addChildren(List<Node> nodes) {
+		for (var child : nodes) {
 			children.add(child);
 			child.setParent(this);
+			childAdded(child);
 		}
 		firePropertyChange(CHILDREN_PROP, null, null);
 	}
 
+	/**
+	 * Is called when the given child was added to this component, so that
+	 * subclasses can maintain indices of their children.
+	 */
+	protected void childAdded(Component child) {
+	}
+
+	/**
+	 * Is called when the given child was removed from this component.
+	 */
+	protected void childRemoved(Component child) {
+	}
+
 	public void setParent(Component parent) {
 		this.parent = parent;
 	}
@@ -107,6 +123,7 @@ abstract public class Component extends Element implements Comparable<Component>
 	 */
 	public boolean removeChild(Component child) {
 		if (child != null && children.remove(child)) {
+			childRemoved(child);
 			firePropertyChange(CHILDREN_PROP, child, null);
 			return true;
 		}
@@ -123,7 +140,11 @@ abstract public class Component extends Element implements Comparable<Component>
 	 * @return true, if the component was removed, false otherwise
 	 */
 	public boolean removeChildQuietly(Component child) {
-		return child != null && children.remove(child);
+		if (child != null && children.remove(child)) {
+			childRemoved(child);
+			return true;
+		}
+		return false;
 	}
 
 	public void removeAllChildren() {
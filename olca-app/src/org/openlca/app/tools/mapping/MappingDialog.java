@@ -18,6 +18,7 @@ import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.eclipse.ui.forms.widgets.Hyperlink;
 import org.openlca.app.M;
 import org.openlca.app.db.Database;
+import org.openlca.app.db.PathIndex;
 import org.openlca.app.tools.mapping.model.DBProvider;
 import org.openlca.app.tools.mapping.model.FlowProvider;
 import org.openlca.app.util.Controls;
@@ -27,16 +28,13 @@ import org.openlca.app.util.MsgBox;
 import org.openlca.app.util.UI;
 import org.openlca.core.database.FlowDao;
 import org.openlca.core.database.IDatabase;
-import org.openlca.core.database.LocationDao;
 import org.openlca.core.database.ProcessDao;
 import org.openlca.core.io.maps.FlowMapEntry;
 import org.openlca.core.io.maps.FlowRef;
 import org.openlca.core.io.maps.MappingStatus;
 import org.openlca.core.model.Flow;
 import org.openlca.core.model.FlowType;
-import org.openlca.core.model.Location;
 import org.openlca.core.model.descriptors.ProcessDescriptor;
-import org.openlca.util.Categories;
 import org.openlca.util.Strings;
 
 class MappingDialog extends FormDialog {
@@ -384,19 +382,18 @@ class MappingDialog extends FormDialog {
 				return;
 			}
 			ref.provider = p;
+			var paths = PathIndex.of(Database.get());
 			if (p.category == null) {
 				ref.providerCategory = "";
 			} else {
-				ref.providerCategory = Categories.pathsOf(
-					Database.get()).pathOf(p.category);
+				ref.providerCategory = paths.pathOf(p.category);
 			}
 			if (p.location == null) {
 				ref.providerLocation = "";
 			} else {
-				Location loc = new LocationDao(
-					Database.get()).getForId(p.location);
-				ref.providerLocation = loc != null
-					? loc.code
+				var code = paths.locationCodeOf(p.location);
+				ref.providerLocation = code != null
+					? code
 					: "";
 			}
 		}
@@ -0,0 +1,204 @@
+package org.openlca.app.tools.mapping.generator;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.openlca.app.db.PathIndex;
+import org.openlca.app.tools.mapping.model.DBProvider;
+import org.openlca.app.tools.mapping.model.FlowProvider;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.io.maps.FlowRef;
+import org.openlca.core.model.FlowType;
+import org.openlca.text.CompartmentStemmer;
+import org.openlca.util.Strings;
+import org.slf4j.LoggerFactory;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TIntDoubleHashMap;
+
+/**
+ * A pre-built index of the flows of a target system. Instead of scoring all
+ * target flows for a source flow, only the target flows that share at least
+ * one stemmed name token with that source flow are taken as candidates. The
+ * candidates are ranked by the weights of the shared tokens (rare tokens have
+ * a higher weight) and the compartment and unit of the flows, and only the
+ * best of them are scored by the matcher.
+ * <p>
+ * The index is immutable after its creation and can be shared between the
+ * matchers of multiple threads.
+ */
+class CandidateIndex {
+
+	/** The maximum number of candidates that are scored for a source flow. */
+	static final int MAX_CANDIDATES = 500;
+
+	private static Set<String> stopwords;
+
+	final IDatabase db;
+	private final Map<String, FlowRef> byRefId = new HashMap<>();
+	private final FlowRef[] flows;
+	private final String[] compartments;
+	private final HashMap<String, TIntArrayList> postings = new HashMap<>();
+
+	// for collecting provider information
+	private final PathIndex paths;
+
+	CandidateIndex(FlowProvider targetSystem) {
+		db = targetSystem instanceof DBProvider
+				? ((DBProvider) targetSystem).db()
+				: null;
+		var refs = new ArrayList<FlowRef>();
+		for (var f : targetSystem.getFlowRefs()) {
+			if (f.flow == null || f.flow.refId == null)
+				continue;
+			if (byRefId.put(f.flow.refId, f) == null) {
+				refs.add(f);
+			}
+		}
+		paths = db != null
+				? PathIndex.of(db)
+				: null;
+		flows = refs.toArray(new FlowRef[0]);
+		compartments = new String[flows.length];
+		var stemmer = new CompartmentStemmer();
+		for (int i = 0; i < flows.length; i++) {
+			var f = flows[i];
+			compartments[i] = compartmentOf(stemmer, f);
+			for (var token : tokensOf(f.flow.name)) {
+				postings.computeIfAbsent(token, t -> new TIntArrayList()).add(i);
+			}
+		}
+	}
+
+	/** Returns the target flow with the given reference ID. */
+	FlowRef get(String refId) {
+		return refId != null
+				? byRefId.get(refId)
+				: null;
+	}
+
+	/**
+	 * Returns the most plausible candidates of the target flows for the given
+	 * source flow.
+	 */
+	List<FlowRef> candidatesOf(FlowRef s, CompartmentStemmer stemmer) {
+		if (s == null || s.flow == null)
+			return List.of();
+		var weights = new TIntDoubleHashMap();
+		for (var token : tokensOf(s.flow.name)) {
+			var list = postings.get(token);
+			if (list == null)
+				continue;
+			double w = Math.log(1.0 + (double) flows.length / list.size());
+			for (int i = 0; i < list.size(); i++) {
+				weights.adjustOrPutValue(list.get(i), w, w);
+			}
+		}
+		if (weights.isEmpty())
+			return List.of();
+
+		// add a small bonus for the same compartment and unit
+		var compartment = compartmentOf(stemmer, s);
+		var unit = s.unit != null ? s.unit.name : null;
+		var ranked = new ArrayList<Candidate>(weights.size());
+		weights.forEachEntry((i, w) -> {
+			var t = flows[i];
+			double weight = w;
+			if (compartment != null && compartment.equals(compartments[i])) {
+				weight += 0.5;
+			}
+			if (unit != null && t.unit != null
+					&& Objects.equals(unit, t.unit.name)) {
+				weight += 0.25;
+			}
+			ranked.add(new Candidate(i, weight));
+			return true;
+		});
+		ranked.sort((c1, c2) -> Double.compare(c2.weight, c1.weight));
+		int n = Math.min(MAX_CANDIDATES, ranked.size());
+		var candidates = new ArrayList<FlowRef>(n);
+		for (int i = 0; i < n; i++) {
+			candidates.add(flows[ranked.get(i).index]);
+		}
+		return candidates;
+	}
+
+	String categoryPathOf(Long categoryId) {
+		return paths != null
+				? paths.pathOf(categoryId)
+				: null;
+	}
+
+	String locationCodeOf(Long locationId) {
+		return paths != null
+				? paths.locationCodeOf(locationId)
+				: null;
+	}
+
+	private static String compartmentOf(CompartmentStemmer stemmer, FlowRef f) {
+		if (f.flow.flowType != FlowType.ELEMENTARY_FLOW
+				|| f.flowCategory == null)
+			return null;
+		var stems = stemmer.stem(f.flowCategory);
+		return stems.length > 0
+				? stems[0]
+				: null;
+	}
+
+	/**
+	 * Splits the given name into lower-cased, stemmed words; stopwords and
+	 * numbers are not included.
+	 */
+	static Set<String> tokensOf(String name) {
+		if (Strings.nullOrEmpty(name))
+			return Set.of();
+		var stops = stopwords();
+		var tokens = new HashSet<String>();
+		for (var word : name.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+			if (word.isEmpty() || stops.contains(word))
+				continue;
+			if (Character.isDigit(word.charAt(0)))
+				continue;
+			var stem = Stemmer.stem(word);
+			if (!stem.isEmpty()) {
+				tokens.add(stem);
+			}
+		}
+		return tokens;
+	}
+
+	private static synchronized Set<String> stopwords() {
+		if (stopwords != null)
+			return stopwords;
+		var words = new HashSet<String>();
+		var stream = CandidateIndex.class.getResourceAsStream("stopwords.txt");
+		if (stream != null) {
+			try (var reader = new BufferedReader(
+					new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					var word = line.strip().toLowerCase();
+					if (word.isEmpty() || word.startsWith("#"))
+						continue;
+					words.add(word);
+				}
+			} catch (Exception e) {
+				LoggerFactory.getLogger(CandidateIndex.class)
+						.error("failed to read stopwords", e);
+			}
+		}
+		stopwords = words;
+		return stopwords;
+	}
+
+	private record Candidate(int index, double weight) {
+	}
+}
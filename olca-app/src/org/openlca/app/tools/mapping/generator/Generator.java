@@ -1,8 +1,11 @@
 package org.openlca.app.tools.mapping.generator;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.openlca.app.tools.mapping.model.FlowProvider;
 import org.openlca.core.io.maps.FlowMap;
@@ -43,25 +46,52 @@ public class Generator implements Runnable {
 				return;
 			}
 
-			log.info("match unmapped flows");
-			var matcher = new Matcher(targetSystem);
-			for (var sourceFlow : sourceFlows) {
-				var source = sourceFlow.copy();
-				source.status = MappingStatus.ok();
-				FlowRef matched = matcher.find(source);
-				FlowRef target = null;
-				if (matched != null) {
-					target = matched.copy();
-					target.status = getStatus(source, target);
+			log.info("build candidate index of target flows");
+			var index = new CandidateIndex(targetSystem);
+
+			// match the source flows in parallel; each thread has its own
+			// matcher and the entries are added in the order of the source
+			// flows
+			int threads = Math.min(sourceFlows.size(),
+					Runtime.getRuntime().availableProcessors());
+			log.info("match {} unmapped flows in {} threads",
+					sourceFlows.size(), threads);
+			var entries = new FlowMapEntry[sourceFlows.size()];
+			var pool = Executors.newFixedThreadPool(threads);
+			var futures = new ArrayList<Future<?>>();
+			for (int t = 0; t < threads; t++) {
+				int offset = t;
+				futures.add(pool.submit(() -> {
+					var matcher = new Matcher(index);
+					for (int i = offset; i < entries.length; i += threads) {
+						entries[i] = match(matcher, sourceFlows.get(i));
+					}
+				}));
+			}
+			try {
+				for (var future : futures) {
+					future.get();
 				}
-				mapping.entries.add(new FlowMapEntry(source, target, 1.0));
+			} finally {
+				pool.shutdownNow();
 			}
+			mapping.entries.addAll(Arrays.asList(entries));
 
 		} catch (Exception e) {
 			log.error("Generation of flow mappings failed", e);
 		}
 	}
 
+	private FlowMapEntry match(Matcher matcher, FlowRef sourceFlow) {
+		var source = sourceFlow.copy();
+		source.status = MappingStatus.ok();
+		FlowRef target = matcher.find(source);
+		if (target != null) {
+			target.status = getStatus(source, target);
+		}
+		return new FlowMapEntry(source, target, 1.0);
+	}
+
 	private MappingStatus getStatus(FlowRef source, FlowRef target) {
 		if (differentUnits(source, target))
 			return MappingStatus.warn("different units");
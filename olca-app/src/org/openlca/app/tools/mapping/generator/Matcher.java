@@ -1,14 +1,8 @@
 package org.openlca.app.tools.mapping.generator;
 
-import java.util.Map;
-import java.util.stream.Collectors;
-
-import org.openlca.app.tools.mapping.model.DBProvider;
-import org.openlca.app.tools.mapping.model.FlowProvider;
 import org.openlca.app.util.Labels;
 import org.openlca.core.database.FlowDao;
 import org.openlca.core.database.IDatabase;
-import org.openlca.core.database.LocationDao;
 import org.openlca.core.database.ProcessDao;
 import org.openlca.core.io.maps.FlowRef;
 import org.openlca.core.model.FlowType;
@@ -17,12 +11,16 @@ import org.openlca.text.CompartmentStemmer;
 import org.openlca.text.PhraseParser;
 import org.openlca.text.PhraseSimilarity;
 import org.openlca.text.WordBuffer;
-import org.openlca.util.Categories;
 
+/**
+ * Finds the best matching target flow for a source flow. A matcher holds the
+ * buffers for the text comparison and is therefore not thread-safe; multiple
+ * matchers can share the same candidate index of the target flows.
+ */
 class Matcher {
 
 	private final IDatabase db;
-	private final Map<String, FlowRef> targetFlows;
+	private final CandidateIndex index;
 
 	final CompartmentStemmer compartmentStemmer;
 
@@ -31,19 +29,9 @@ class Matcher {
 	private final WordBuffer phrase1;
 	private final WordBuffer phrase2;
 
-
-	// helper structures for collecting provider information
-	private Categories.PathBuilder categories;
-	private Map<Long, String> locations;
-
-	Matcher(FlowProvider targetSystem) {
-		db = targetSystem instanceof DBProvider
-			? ((DBProvider) targetSystem).db()
-			: null;
-		this.targetFlows = targetSystem.getFlowRefs().stream()
-			.filter(f -> f.flow != null && f.flow.refId != null)
-			.collect(Collectors.toMap(f -> f.flow.refId, f -> f));
-
+	Matcher(CandidateIndex index) {
+		this.index = index;
+		this.db = index.db;
 		this.compartmentStemmer = new CompartmentStemmer();
 		this.similarity = new PhraseSimilarity();
 		this.parser = new PhraseParser();
@@ -59,6 +47,10 @@ class Matcher {
 		return similarity.get(phrase1, phrase2);
 	}
 
+	/**
+	 * Returns a copy of the best matching target flow for the given source flow
+	 * or `null` if no such flow could be found.
+	 */
 	FlowRef find(FlowRef s) {
 		if (s == null
 			|| s.flow == null
@@ -66,14 +58,15 @@ class Matcher {
 			return null;
 
 		// test whether there is a direct match based on the reference IDs
-		var t = targetFlows.get(s.flow.refId);
+		var t = index.get(s.flow.refId);
 		if (t != null) {
+			t = t.copy();
 			checkAddProvider(s, t);
 			return t;
 		}
 
 		var score = Score.noMatch();
-		for (var candidate : targetFlows.values()) {
+		for (var candidate : index.candidatesOf(s, compartmentStemmer)) {
 			var nextScore = Score.compute(this, s, candidate);
 			if (nextScore.betterThan(score)) {
 				score = nextScore;
@@ -84,6 +77,7 @@ class Matcher {
 		if (t == null)
 			return null;
 
+		t = t.copy();
 		checkAddProvider(s, t);
 		return t;
 	}
@@ -97,15 +91,9 @@ class Matcher {
 		if (prov == null)
 			return;
 		t.provider = prov;
-		if (categories == null) {
-			categories = Categories.pathsOf(db);
-		}
-		t.providerCategory = categories.pathOf(prov.category);
-		if (locations == null) {
-			locations = new LocationDao(db).getCodes();
-		}
+		t.providerCategory = index.categoryPathOf(prov.category);
 		if (prov.location != null) {
-			t.providerLocation = locations.get(prov.location);
+			t.providerLocation = index.locationCodeOf(prov.location);
 		}
 	}
 
@@ -7,11 +7,11 @@ import java.util.Objects;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.openlca.app.db.PathIndex;
 import org.openlca.app.util.Fn;
 import org.openlca.core.database.FlowDao;
 import org.openlca.core.database.FlowPropertyDao;
 import org.openlca.core.database.IDatabase;
-import org.openlca.core.database.LocationDao;
 import org.openlca.core.database.ProcessDao;
 import org.openlca.core.io.maps.FlowRef;
 import org.openlca.core.io.maps.MappingStatus;
@@ -40,18 +40,17 @@ public class DBProvider implements FlowProvider {
 	public List<FlowRef> getFlowRefs() {
 
 		// collect categories, properties, locations
-		var categories = Categories.pathsOf(db);
+		var paths = PathIndex.of(db);
 		Map<Long, FlowProperty> props = new FlowPropertyDao(db)
 			.getAll().stream()
 			.collect(Collectors.toMap(fp -> fp.id, fp -> fp));
-		Map<Long, String> locations = new LocationDao(db).getCodes();
 
 		List<FlowRef> refs = new ArrayList<>();
 		new FlowDao(db).getDescriptors().forEach(flow -> {
 			FlowRef ref = new FlowRef();
 			ref.flow = flow;
-			ref.flowCategory = categories.pathOf(flow.category);
-			ref.flowLocation = locations.get(flow.location);
+			ref.flowCategory = paths.pathOf(flow.category);
+			ref.flowLocation = paths.locationCodeOf(flow.location);
 			Fn.with(props.get(flow.refFlowPropertyId), prop -> {
 				if (prop == null)
 					return;
@@ -32,22 +32,20 @@ class AllocationCursor extends UpdatableCursor {
 				return;
 
 			update.setLong(1, entry.targetFlow().flow.id);
-
-			update.executeUpdate();
-			stats.inc(flowID, Stats.REPLACEMENT);
-			updatedModels.add(processID);
+			addUpdate(update, flowID, processID);
 		} catch (Exception e) {
 			stats.inc(flowID, Stats.FAILURE);
 		}
 	}
 
 	@Override
-	String querySQL() {
-		return "SELECT "
-				+ " f_process,"
-				+ " f_product"
-				+ " FROM tbl_allocation_factors"
-				+ " FOR UPDATE OF f_product";
+	String table() {
+		return "tbl_allocation_factors";
+	}
+
+	@Override
+	String columns() {
+		return "f_process, f_product";
 	}
 
 	@Override
@@ -99,33 +99,35 @@ class AmountCursor extends UpdatableCursor {
 				}
 			}
 
-			update.executeUpdate();
-			stats.inc(flowID, Stats.REPLACEMENT);
-			updatedModels.add(ownerID);
+			addUpdate(update, flowID, ownerID);
 		} catch (Exception e) {
 			stats.inc(flowID, Stats.FAILURE);
 		}
 	}
 
 	@Override
-	String querySQL() {
-		String table;
+	String table() {
+		return type == ModelType.PROCESS
+				? "tbl_exchanges"
+				: "tbl_impact_factors";
+	}
+
+	@Override
+	String columns() {
 		String owner;
 		String value;
 		String formula;
 		if (type == ModelType.PROCESS) {
-			table = "tbl_exchanges";
 			owner = "f_owner";
 			value = "resulting_amount_value";
 			formula = "resulting_amount_formula";
 		} else {
-			table = "tbl_impact_factors";
 			owner = "f_impact_category";
 			value = "value";
 			formula = "formula";
 		}
 
-		String query = "SELECT "
+		String columns = ""
 				/* 1 */ + owner + ", "
 				/* 2 */ + "f_flow, "
 				/* 3 */ + "f_unit, "
@@ -135,47 +137,27 @@ class AmountCursor extends UpdatableCursor {
 				/* 7 */ + "distribution_type, "
 				/* 8 */ + "parameter1_value, "
 				/* 9 */ + "parameter2_value, "
-				/* 10 */ + "parameter3_value ";
-
-		if (type == ModelType.PROCESS) {
-			query += ", f_default_provider ";
-		}
-
-		query += "FROM " + table + " "
-				+ "FOR UPDATE OF "
-				+ "f_flow, "
-				+ "f_unit, "
-				+ "f_flow_property_factor, "
-				+ value + " , "
-				+ formula + ", "
-				+ "distribution_type, "
-				+ "parameter1_value, "
-				+ "parameter2_value, "
-				+ "parameter3_value";
+				/* 10 */ + "parameter3_value";
 
 		if (type == ModelType.PROCESS) {
-			query += ", f_default_provider ";
+			columns += ", f_default_provider";
 		}
-
-		return query;
+		return columns;
 	}
 
 	@Override
 	String updateSQL() {
-		String table;
 		String value;
 		String formula;
 		if (type == ModelType.PROCESS) {
-			table = "tbl_exchanges";
 			value = "resulting_amount_value";
 			formula = "resulting_amount_formula";
 		} else {
-			table = "tbl_impact_factors";
 			value = "value";
 			formula = "formula";
 		}
 
-		String sql = "UPDATE " + table + " "
+		String sql = "UPDATE " + table() + " "
 		/* 1 */ + "SET f_flow = ? , "
 		/* 2 */ + "f_unit = ? , "
 		/* 3 */ + "f_flow_property_factor = ? , "
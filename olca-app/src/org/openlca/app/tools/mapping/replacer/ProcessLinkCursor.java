@@ -42,26 +42,35 @@ class ProcessLinkCursor extends UpdatableCursor {
 			update.setLong(1, provider);
 			update.setLong(2, entry.targetFlow().flow.id);
 			long systemID = cursor.getLong("f_product_system");
-
-			update.executeUpdate();
-			stats.inc(flowID, Stats.REPLACEMENT);
-			updatedModels.add(systemID);
+			addUpdate(update, flowID, systemID);
 		} catch (Exception e) {
 			stats.inc(flowID, Stats.FAILURE);
 		}
 	}
 
 	@Override
-	String querySQL() {
-		return "SELECT "
-				+ " f_product_system,"
+	String table() {
+		return "tbl_process_links";
+	}
+
+	@Override
+	String rangeColumn() {
+		return "f_product_system";
+	}
+
+	@Override
+	String[] keyColumns() {
+		// process links have no ID; a link is identified by the product
+		// system and the linked exchange
+		return new String[]{"f_product_system", "f_exchange"};
+	}
+
+	@Override
+	String columns() {
+		return "f_product_system,"
 				+ " f_provider,"
 				+ " f_flow,"
-				+ " f_process"
-				+ " FROM tbl_process_links"
-				+ " FOR UPDATE OF "
-				+ " f_provider, "
-				+ " f_flow";
+				+ " f_process";
 	}
 
 	@Override
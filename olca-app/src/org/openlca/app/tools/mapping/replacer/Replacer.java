@@ -8,18 +8,25 @@ import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import org.openlca.app.db.Cache;
 import org.openlca.app.db.Database;
 import org.openlca.app.tools.mapping.model.DBProvider;
+import org.openlca.app.util.ErrorReporter;
 import org.openlca.app.util.Labels;
 import org.openlca.core.database.FlowDao;
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.database.ImpactMethodDao;
+import org.openlca.core.database.NativeSql;
 import org.openlca.core.io.maps.FlowMapEntry;
 import org.openlca.core.io.maps.FlowRef;
 import org.openlca.core.io.maps.MappingStatus;
+import org.openlca.core.model.AllocationFactor;
+import org.openlca.core.model.Exchange;
 import org.openlca.core.model.Flow;
+import org.openlca.core.model.ImpactFactor;
 import org.openlca.core.model.ModelType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -80,18 +87,17 @@ public class Replacer implements Runnable {
 			// start and wait for the cursors to finish
 			log.info("start updatable cursors");
 			List<UpdatableCursor> cursors = createCursors();
-			ExecutorService pool = Executors.newFixedThreadPool(4);
+			int threads = Runtime.getRuntime().availableProcessors();
+			ExecutorService pool = Executors.newFixedThreadPool(threads);
 			for (UpdatableCursor c : cursors) {
 				pool.execute(c);
 			}
 			pool.shutdown();
-			int i = 0;
 			while (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
-				i++;
-				log.info("waiting for cursors to finish; {} seconds", i * 10);
+				logProgress(cursors);
 			}
 			log.info("cursors finished");
-			db.getEntityFactory().getCache().evictAll();
+			evictUpdated(cursors);
 
 			// TODO when products were replaced we also need to check
 			// whether these products are used in the quant. ref. of
@@ -107,6 +113,14 @@ public class Replacer implements Runnable {
 				stats.add(c.stats);
 				c.stats.log(c.getClass().getName(), flows);
 			}
+			// when a cursor stopped with an error, it is not known which
+			// flows were not replaced; all flows are handled as failed then
+			boolean cursorFailed = stats.error != null;
+			if (cursorFailed) {
+				ErrorReporter.on("Flow replacement stopped in a part of the"
+						+ " database; the mapped flows were not deleted",
+						stats.error);
+			}
 
 			// TODO: update the version and last-update fields
 			// of the changed models; also call the indexer
@@ -115,7 +129,7 @@ public class Replacer implements Runnable {
 			boolean deleteMapped = false;
 			Set<Long> usedFlows = null;
 			if (conf.deleteMapped) {
-				if (stats.failures > 0) {
+				if (stats.failures > 0 || cursorFailed) {
 					log.warn("Will not delete mapped flows because"
 							+ " there were {} failures in replacement process",
 							stats.failures);
@@ -126,43 +140,124 @@ public class Replacer implements Runnable {
 			}
 
 			// update the mapping entries
+			var removed = new ArrayList<Flow>();
 			for (Long flowID : entries.keySet()) {
 				FlowMapEntry e = entries.get(flowID);
 				if (flowID == null || e == null)
 					continue;
-				if (stats.hadFailures(flowID)) {
+				if (cursorFailed || stats.hadFailures(flowID)) {
 					e.sourceFlow().status = MappingStatus.error("Replacement error");
 					continue;
 				}
-				if (deleteMapped && !usedFlows.contains(flowID)) {
-					FlowDao dao = new FlowDao(db);
-					Flow flow = dao.getForId(flowID);
-					dao.delete(flow);
-					log.info("removed mapped flow {} uuid={}",
-							Labels.name(flow), flow.refId);
+				Flow flow = flows.get(flowID);
+				if (deleteMapped && flow != null && !usedFlows.contains(flowID)) {
+					removed.add(flow);
 					e.sourceFlow().status = MappingStatus.ok("Applied and removed");
 				} else {
 					e.sourceFlow().status = MappingStatus.ok("Applied (not removed)");
 				}
 			}
+
+			// delete the mapped flows in a single transaction
+			if (!removed.isEmpty()) {
+				new FlowDao(db).deleteAll(removed);
+				for (var flow : removed) {
+					log.trace("removed mapped flow {} uuid={}",
+							Labels.name(flow), flow.refId);
+				}
+				log.info("removed {} mapped flows", removed.size());
+			}
 		} catch (Exception e) {
 			log.error("Flow replacement failed", e);
+		} finally {
+			// the replacement changed exchanges, links, and factors via SQL
+			// and could have deleted flows; the application caches and
+			// indices do not know which models were changed
+			Cache.evictAll();
 		}
 	}
 
 	private List<UpdatableCursor> createCursors() {
 		List<UpdatableCursor> cursors = new ArrayList<>();
 		if (!processes.isEmpty()) {
-			cursors.add(new AmountCursor(ModelType.PROCESS, this));
-			cursors.add(new ProcessLinkCursor(this));
-			cursors.add(new AllocationCursor(this));
+			partition(cursors, () -> new AmountCursor(ModelType.PROCESS, this));
+			partition(cursors, () -> new ProcessLinkCursor(this));
+			partition(cursors, () -> new AllocationCursor(this));
 		}
 		if (!impacts.isEmpty()) {
-			cursors.add(new AmountCursor(ModelType.IMPACT_CATEGORY, this));
+			partition(cursors,
+					() -> new AmountCursor(ModelType.IMPACT_CATEGORY, this));
 		}
 		return cursors;
 	}
 
+	/**
+	 * Splits the table of the cursors of the given factory into ranges of
+	 * similar size and adds a cursor for each range to the given list.
+	 */
+	private void partition(
+			List<UpdatableCursor> cursors, Supplier<UpdatableCursor> factory) {
+		var first = factory.get();
+		var col = first.rangeColumn();
+		var range = new long[]{0, -1};
+		String sql = "SELECT MIN(" + col + "), MAX(" + col + ") FROM "
+				+ first.table();
+		NativeSql.on(db).query(sql, r -> {
+			range[0] = r.getLong(1);
+			range[1] = r.getLong(2);
+			return false;
+		});
+		if (range[1] < range[0])
+			return;
+		int n = Runtime.getRuntime().availableProcessors();
+		long size = Math.max(1, (range[1] - range[0] + 1) / n + 1);
+		var cursor = first;
+		for (long start = range[0]; start <= range[1]; start += size) {
+			if (cursor == null) {
+				cursor = factory.get();
+			}
+			cursors.add(cursor
+					.withRange(start, start + size)
+					.withBatchSize(conf.batchSize));
+			cursor = null;
+		}
+	}
+
+	private void logProgress(List<UpdatableCursor> cursors) {
+		long rows = 0;
+		double throughput = 0;
+		for (var c : cursors) {
+			rows += c.stats.rows();
+			if (c.stats.isRunning()) {
+				throughput += c.stats.throughput();
+				log.trace("cursor {} on {}: {} rows, {} rows/s",
+						c.getClass().getSimpleName(), c.table(), c.stats.rows(),
+						String.format("%.0f", c.stats.throughput()));
+			}
+		}
+		log.info("cursors visited {} rows; running with {} rows/s",
+				rows, String.format("%.0f", throughput));
+	}
+
+	/**
+	 * Evicts the updated models and the changed child entities from the
+	 * entity cache of the database instead of clearing the whole cache.
+	 */
+	private void evictUpdated(List<UpdatableCursor> cursors) {
+		var cache = db.getEntityFactory().getCache();
+		cache.evict(Exchange.class);
+		cache.evict(ImpactFactor.class);
+		cache.evict(AllocationFactor.class);
+		for (var c : cursors) {
+			var clazz = c.type.getModelClass();
+			if (clazz == null)
+				continue;
+			for (var id : c.updatedModels) {
+				cache.evict(clazz, id);
+			}
+		}
+	}
+
 	private void buildIndices() {
 
 		// first persist all target flows in the database that
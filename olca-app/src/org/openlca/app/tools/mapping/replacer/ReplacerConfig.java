@@ -26,6 +26,12 @@ public class ReplacerConfig {
 	public final List<RootDescriptor> models = new ArrayList<>();
 	public boolean deleteMapped;
 
+	/**
+	 * The number of updates that are executed and committed together in a
+	 * batch.
+	 */
+	public int batchSize = 1000;
+
 	public ReplacerConfig(FlowMap mapping, FlowProvider provider) {
 		this.mapping = mapping;
 		this.provider = provider;
@@ -2,6 +2,7 @@ package org.openlca.app.tools.mapping.replacer;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.openlca.app.util.Labels;
 import org.openlca.core.model.Flow;
@@ -18,11 +19,60 @@ class Stats {
 	final HashMap<Long, Integer> flowFailures = new HashMap<>();
 	final HashMap<Long, Integer> flowReplacements = new HashMap<>();
 
+	// the number of visited rows and the run time of a cursor; these fields
+	// can be read from other threads while the cursor is running
+	private final AtomicLong rows = new AtomicLong();
+	private volatile long startTime;
+	private volatile long endTime;
+
+	/** An error that stopped a cursor before it visited all of its rows. */
+	volatile Exception error;
+
+	void start() {
+		startTime = System.currentTimeMillis();
+		endTime = 0;
+	}
+
+	void stop() {
+		endTime = System.currentTimeMillis();
+	}
+
+	void fail(Exception e) {
+		error = e;
+	}
+
+	void row() {
+		rows.incrementAndGet();
+	}
+
+	long rows() {
+		return rows.get();
+	}
+
+	boolean isRunning() {
+		return startTime > 0 && endTime == 0;
+	}
+
+	/**
+	 * Returns the number of visited rows per second of the cursor.
+	 */
+	double throughput() {
+		if (startTime == 0)
+			return 0;
+		long end = endTime > 0 ? endTime : System.currentTimeMillis();
+		double seconds = Math.max(1, end - startTime) / 1000.0;
+		return rows.get() / seconds;
+	}
+
 	void add(Stats s) {
 		if (s == null)
 			return;
 		failures += s.failures;
 		replacements += s.replacements;
+		if (error == null) {
+			error = s.error;
+		}
+		rows.addAndGet(s.rows());
 		for (Long flowID : s.flowFailures.keySet()) {
 			int c = s.flowFailures.getOrDefault(flowID, 0);
 			flowFailures.put(flowID,
@@ -61,6 +111,9 @@ class Stats {
 
 	void log(String context, HashMap<Long, Flow> flows) {
 		Logger log = LoggerFactory.getLogger(getClass());
+		if (error != null) {
+			log.error("Cursor in " + context + " stopped with an error", error);
+		}
 		if (replacements == 0 && failures == 0) {
 			log.info("No flows replaced in {}", context);
 			return;
@@ -68,8 +121,9 @@ class Stats {
 		if (failures > 0) {
 			log.warn("There were failures while replacing flows in {}", context);
 		}
-		log.info("{} replacements and {} failures in {}",
-				replacements, failures, context);
+		log.info("{} replacements and {} failures in {} ({} rows, {} rows/s)",
+				replacements, failures, context, rows(),
+				String.format("%.0f", throughput()));
 		if (!log.isTraceEnabled())
 			return;
 		HashSet<Long> ids = new HashSet<>();
@@ -3,23 +3,25 @@ package org.openlca.app.tools.mapping.replacer;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.Statement;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.model.ModelType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gnu.trove.list.array.TLongArrayList;
 
 /**
- * A method template for implementing updatable cursors.
- * 
- * see: https://db.apache.org/derby/docs/10.0/manuals/develop/develop66.html
+ * A method template for implementing cursors that update the rows of a table
+ * in a range `[start, end)` of the range column (the ID by default). The rows
+ * are read with a plain query and the updates are collected in JDBC batches
+ * via the key columns of the rows. Each batch is executed and committed in its
+ * own transaction, so that no table wide locks are held while the cursor runs.
  */
 abstract class UpdatableCursor implements Runnable {
 
-	private static final AtomicInteger seq = new AtomicInteger(0);
-
 	final IDatabase db;
 	final Stats stats = new Stats();
 	/**
@@ -31,53 +33,150 @@ abstract class UpdatableCursor implements Runnable {
 	/** The type of the updated models. */
 	final ModelType type;
 
+	private long start;
+	private long end;
+	private int batchSize = 1000;
+
+	// the flow and model IDs of the updates in the current batch
+	private final TLongArrayList batchFlows = new TLongArrayList();
+	private final TLongArrayList batchModels = new TLongArrayList();
+
 	UpdatableCursor(IDatabase db, ModelType type) {
 		this.db = db;
 		this.type = type;
 	}
 
-	/** The SQL query for selecting the records. */
-	abstract String querySQL();
+	/**
+	 * Restricts this cursor to the rows with a value of the range column in
+	 * the range `[start, end)`.
+	 */
+	UpdatableCursor withRange(long start, long end) {
+		this.start = start;
+		this.end = end;
+		return this;
+	}
+
+	UpdatableCursor withBatchSize(int batchSize) {
+		if (batchSize > 0) {
+			this.batchSize = batchSize;
+		}
+		return this;
+	}
+
+	/** The table that is updated by this cursor. */
+	abstract String table();
+
+	/**
+	 * The columns that are selected by this cursor. The key columns are added
+	 * at the end of these columns.
+	 */
+	abstract String columns();
 
-	/** The SQL statement for updating a record. */
+	/**
+	 * The SQL statement for updating a record, without the `WHERE` clause. The
+	 * conditions on the key columns of the record are added as the last
+	 * parameters.
+	 */
 	abstract String updateSQL();
 
+	/** The column that is used to partition the table into ranges. */
+	String rangeColumn() {
+		return "id";
+	}
+
+	/** The columns that identify a row of the table. */
+	String[] keyColumns() {
+		return new String[]{"id"};
+	}
+
 	/**
 	 * This method is called when the cursor moved to the next row. The update
-	 * needs to be called within this method and possible errors should also be
-	 * handled and logged there.
+	 * needs to be prepared in this method and added via
+	 * {@link #addUpdate(PreparedStatement, long, long)}. Possible errors
+	 * should also be handled and logged there.
 	 */
 	abstract void next(ResultSet cursor, PreparedStatement update);
 
+	/**
+	 * Adds the prepared update of the current row to the current batch.
+	 */
+	void addUpdate(PreparedStatement update, long flowID, long modelID)
+			throws Exception {
+		update.addBatch();
+		batchFlows.add(flowID);
+		batchModels.add(modelID);
+	}
+
 	@Override
 	public final void run() {
-		try {
-			Connection con = db.createConnection();
+		stats.start();
+		try (Connection con = db.createConnection()) {
 			con.setAutoCommit(false);
-
-			// prepare the query and cursor
-			Statement query = con.createStatement();
-			String name = "UPDATE_CURSOR_" + seq.incrementAndGet();
-			query.setCursorName(name);
-			ResultSet cursor = query.executeQuery(querySQL());
-
-			// prepare the update statement
-			String usql = updateSQL() + " WHERE CURRENT OF " + name;
-			PreparedStatement update = con.prepareStatement(usql);
-
-			// run through the table
-			while (cursor.next()) {
-				next(cursor, update);
+			var keys = keyColumns();
+			String query = "SELECT " + columns() + ", " + String.join(", ", keys)
+					+ " FROM " + table()
+					+ " WHERE " + rangeColumn() + " >= " + start
+					+ " AND " + rangeColumn() + " < " + end;
+			String usql = updateSQL() + " WHERE "
+					+ String.join(" = ? AND ", keys) + " = ?";
+			int firstKeyParam = (int) usql.chars().filter(c -> c == '?').count()
+					- keys.length + 1;
+
+			try (var stmt = con.createStatement(
+					ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY,
+					ResultSet.HOLD_CURSORS_OVER_COMMIT);
+				 var cursor = stmt.executeQuery(query);
+				 var update = con.prepareStatement(usql)) {
+				int firstKeyColumn = cursor.getMetaData().getColumnCount()
+						- keys.length + 1;
+				while (cursor.next()) {
+					stats.row();
+					for (int i = 0; i < keys.length; i++) {
+						update.setLong(firstKeyParam + i,
+								cursor.getLong(firstKeyColumn + i));
+					}
+					next(cursor, update);
+					if (batchFlows.size() >= batchSize) {
+						executeBatch(con, update);
+					}
+				}
+				executeBatch(con, update);
 			}
+		} catch (Exception e) {
+			// the cursor runs in a thread pool where a thrown exception would
+			// be lost; it is reported by the replacer via the statistics
+			stats.fail(e);
+		} finally {
+			stats.stop();
+		}
+	}
 
-			// free and commit
-			cursor.close();
-			query.close();
-			update.close();
+	private void executeBatch(Connection con, PreparedStatement update) {
+		if (batchFlows.isEmpty())
+			return;
+		try {
+			update.executeBatch();
 			con.commit();
-			con.close();
+			for (int i = 0; i < batchFlows.size(); i++) {
+				stats.inc(batchFlows.get(i), Stats.REPLACEMENT);
+				updatedModels.add(batchModels.get(i));
+			}
 		} catch (Exception e) {
-			throw new RuntimeException(e);
+			Logger log = LoggerFactory.getLogger(getClass());
+			log.error("failed to execute update batch in " + table(), e);
+			try {
+				update.clearBatch();
+				con.rollback();
+			} catch (Exception re) {
+				log.error("failed to roll back update batch", re);
+			}
+			for (int i = 0; i < batchFlows.size(); i++) {
+				stats.inc(batchFlows.get(i), Stats.FAILURE);
+			}
+		} finally {
+			batchFlows.clear();
+			batchModels.clear();
 		}
 	}
 
@@ -0,0 +1,158 @@
+package org.openlca.app.wizards.io;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import org.openlca.app.util.Labels;
+import org.openlca.core.io.ImportLog;
+import org.openlca.core.io.ImportLog.Message;
+import org.openlca.core.io.ImportLog.State;
+import org.openlca.core.model.ModelType;
+
+import gnu.trove.list.array.TIntArrayList;
+
+/**
+ * An append-only index of the messages of an import log. Next to the messages
+ * in the order in which they were added, it stores the positions of the
+ * messages of each state and counts the messages per state and data set type
+ * when they are added. Thus, the counts are available without scanning the
+ * log and a filter only visits the messages of the selected states.
+ * <p>
+ * The index is filled once from a finished import and can then be read from
+ * multiple threads.
+ */
+class ImportLogIndex {
+
+	private final List<Message> messages = new ArrayList<>();
+	private final EnumMap<State, TIntArrayList> stateIndex =
+		new EnumMap<>(State.class);
+	private final int[] typeCounts = new int[ModelType.values().length];
+	private int descriptorCount;
+
+	private ImportLogIndex() {
+	}
+
+	static ImportLogIndex of(ImportLog log) {
+		var index = new ImportLogIndex();
+		if (log == null)
+			return index;
+		for (var message : log.messages()) {
+			index.add(message);
+		}
+		return index;
+	}
+
+	private void add(Message message) {
+		if (message == null)
+			return;
+		int pos = messages.size();
+		messages.add(message);
+		if (message.state() != null) {
+			stateIndex.computeIfAbsent(message.state(), s -> new TIntArrayList())
+				.add(pos);
+		}
+		var d = message.descriptor();
+		if (d != null) {
+			descriptorCount++;
+			if (d.type != null) {
+				typeCounts[d.type.ordinal()]++;
+			}
+		}
+	}
+
+	int size() {
+		return messages.size();
+	}
+
+	Message get(int pos) {
+		return messages.get(pos);
+	}
+
+	int countOf(State state) {
+		var positions = stateIndex.get(state);
+		return positions != null ? positions.size() : 0;
+	}
+
+	int countOf(ModelType type) {
+		return type != null ? typeCounts[type.ordinal()] : 0;
+	}
+
+	/** Returns the number of messages that are related to a data set. */
+	int descriptorCount() {
+		return descriptorCount;
+	}
+
+	/**
+	 * Returns the positions of the messages that match the given filter, in
+	 * the order in which the messages were added. An empty state set selects
+	 * messages of all states, a `null` type messages of all types, and the
+	 * given words (in lower case) must all occur in the message, the data set
+	 * name, or the state label. When the given cancel check returns true, the
+	 * filter stops and returns `null`.
+	 */
+	int[] filter(Set<State> states, ModelType type, List<String> words,
+		BooleanSupplier canceled) {
+
+		var candidates = positionsOf(states);
+		var result = new TIntArrayList();
+		int n = candidates != null ? candidates.size() : messages.size();
+		for (int i = 0; i < n; i++) {
+			if (i % 10_000 == 0 && canceled.getAsBoolean())
+				return null;
+			int pos = candidates != null ? candidates.get(i) : i;
+			var message = messages.get(pos);
+			if (type != null) {
+				var d = message.descriptor();
+				if (d == null || d.type != type)
+					continue;
+			}
+			if (matches(message, words)) {
+				result.add(pos);
+			}
+		}
+		return result.toArray();
+	}
+
+	/**
+	 * Returns the sorted positions of the messages with the given states, or
+	 * `null` if all messages are selected.
+	 */
+	private TIntArrayList positionsOf(Set<State> states) {
+		if (states == null || states.isEmpty())
+			return null;
+		var positions = new TIntArrayList();
+		for (var state : states) {
+			var statePositions = stateIndex.get(state);
+			if (statePositions != null) {
+				positions.addAll(statePositions);
+			}
+		}
+		if (states.size() > 1) {
+			positions.sort();
+		}
+		return positions;
+	}
+
+	private static boolean matches(Message message, List<String> words) {
+		if (words == null || words.isEmpty())
+			return true;
+		for (var word : words) {
+			var s = message.message();
+			if (s != null && s.toLowerCase().contains(word))
+				continue;
+			s = message.descriptor() != null
+				? Labels.name(message.descriptor())
+				: null;
+			if (s != null && s.toLowerCase().contains(word))
+				continue;
+			s = ImportLogView.labelOf(message.state());
+			if (s != null && s.toLowerCase().contains(word))
+				continue;
+			return false;
+		}
+		return true;
+	}
+}
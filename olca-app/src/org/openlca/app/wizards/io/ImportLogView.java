@@ -2,10 +2,7 @@ package org.openlca.app.wizards.io;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.Comparator;
-import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
@@ -13,7 +10,9 @@ import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 import org.eclipse.jface.viewers.BaseLabelProvider;
+import org.eclipse.jface.viewers.ILazyContentProvider;
 import org.eclipse.jface.viewers.ITableLabelProvider;
+import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.MenuEvent;
@@ -21,6 +20,7 @@ import org.eclipse.swt.events.MenuListener;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Menu;
 import org.eclipse.swt.widgets.MenuItem;
 import org.eclipse.ui.IEditorInput;
@@ -47,10 +47,14 @@ import org.openlca.util.Strings;
 
 public class ImportLogView extends SimpleFormEditor {
 
-	private Collection<Message> messages;
+	private ImportLogIndex index;
 
 	public static void open(ImportLog log) {
-		var id = Cache.getAppCache().put(log);
+		open(ImportLogIndex.of(log));
+	}
+
+	static void open(ImportLogIndex index) {
+		var id = Cache.getAppCache().put(index);
 		var input = new SimpleEditorInput(id, "Import details");
 		Editors.open(input, "ImportLogView");
 	}
@@ -62,9 +66,9 @@ public class ImportLogView extends SimpleFormEditor {
 		if (!(raw instanceof SimpleEditorInput input))
 			return;
 		var obj = Cache.getAppCache().remove(input.id);
-		messages = obj instanceof ImportLog log
-			? log.messages()
-			: Collections.emptySet();
+		index = obj instanceof ImportLogIndex i
+			? i
+			: ImportLogIndex.of(null);
 	}
 
 	@Override
@@ -86,20 +90,23 @@ public class ImportLogView extends SimpleFormEditor {
 			var body = UI.body(form, tk);
 
 			// filter
-			var filter = new Filter(messages);
+			var filter = new Filter(index);
 			filter.render(body, tk);
 
-			// table
+			// table; the rows are created lazily when they become visible
 			var table = Tables.createViewer(
 				body, "Status", "Data set", "Message");
 			table.setLabelProvider(new MessageLabel());
 			Tables.bindColumnWidths(table, 0.2, 0.4, 0.4);
-			filter.apply(table);
+			var content = new LazyContent(table, index);
+			table.setContentProvider(content);
+			table.setInput(index);
+			filter.apply(content);
 
 			// actions
 			var onOpen = Actions.onOpen(() -> {
 				Message message = Viewers.getFirstSelected(table);
-				if (!message.hasDescriptor())
+				if (message == null || !message.hasDescriptor())
 					return;
 				App.open(message.descriptor());
 			});
@@ -109,7 +116,7 @@ public class ImportLogView extends SimpleFormEditor {
 				@Override
 				public void menuShown(MenuEvent e) {
 					Message message = Viewers.getFirstSelected(table);
-					onOpen.setEnabled(message.hasDescriptor());
+					onOpen.setEnabled(message != null && message.hasDescriptor());
 				}
 
 				@Override
@@ -121,6 +128,55 @@ public class ImportLogView extends SimpleFormEditor {
 
 	}
 
+	static String labelOf(State state) {
+		if (state == null)
+			return null;
+		return switch (state) {
+			case IMPORTED -> "Imported";
+			case UPDATED -> "Updated";
+			case ERROR -> "Error";
+			case WARNING -> "Warning";
+			case INFO -> "Information";
+			case SKIPPED -> "Ignored";
+		};
+	}
+
+	/**
+	 * Provides the messages of the filtered rows of the virtual table. Only
+	 * the positions of these messages in the index are stored.
+	 */
+	private static class LazyContent implements ILazyContentProvider {
+
+		private final TableViewer table;
+		private final ImportLogIndex index;
+		private int[] rows = new int[0];
+
+		LazyContent(TableViewer table, ImportLogIndex index) {
+			this.table = table;
+			this.index = index;
+		}
+
+		void show(int[] rows) {
+			// the filter job could finish after the editor was closed
+			if (table.getTable().isDisposed())
+				return;
+			this.rows = rows;
+			table.setItemCount(rows.length);
+			table.refresh();
+		}
+
+		@Override
+		public void updateElement(int row) {
+			if (row < 0 || row >= rows.length)
+				return;
+			table.replace(index.get(rows[row]), row);
+		}
+
+		@Override
+		public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+		}
+	}
+
 	private static class MessageLabel extends BaseLabelProvider implements
 		ITableLabelProvider {
 
@@ -152,39 +208,31 @@ public class ImportLogView extends SimpleFormEditor {
 			if (!(obj instanceof Message message))
 				return null;
 			return switch (col) {
-				case 0 -> of(message.state());
+				case 0 -> labelOf(message.state());
 				case 1 -> Labels.name(message.descriptor());
 				case 2 -> message.message();
 				default -> null;
 			};
 		}
-
-		private static String of(State state) {
-			if (state == null)
-				return null;
-			return switch (state) {
-				case IMPORTED -> "Imported";
-				case UPDATED -> "Updated";
-				case ERROR -> "Error";
-				case WARNING -> "Warning";
-				case INFO -> "Information";
-				case SKIPPED -> "Ignored";
-			};
-		}
 	}
 
+	/**
+	 * Filters the messages of the index in a background job. When the filter
+	 * changes while a job is running, the result of that job is discarded.
+	 */
 	private static class Filter {
 
-		private final Collection<Message> messages;
+		private final ImportLogIndex index;
 
-		private TableViewer table;
-		private int maxCount = 1000;
+		private LazyContent content;
+		private Label countLabel;
 		private String text;
 		private ModelType type;
 		private final Set<State> states = EnumSet.noneOf(State.class);
+		private volatile int generation;
 
-		Filter(Collection<Message> messages) {
-			this.messages = messages;
+		Filter(ImportLogIndex index) {
+			this.index = index;
 		}
 
 		void render(Composite body, FormToolkit tk) {
@@ -209,7 +257,7 @@ public class ImportLogView extends SimpleFormEditor {
 
 			// type button
 			var typeBtn = UI.button(searchComp, tk, "All types");
-			var typeItems = TypeItem.allOf(messages);
+			var typeItems = TypeItem.allOf(index);
 			typeBtn.setImage(Icon.DOWN.get());
 			var typeMenu = new Menu(typeBtn);
 			for (var item : typeItems) {
@@ -230,7 +278,7 @@ public class ImportLogView extends SimpleFormEditor {
 			// checkboxes
 			UI.filler(comp, tk);
 			var optComp = UI.composite(comp, tk);
-			UI.gridLayout(optComp, 6, 10, 0);
+			UI.gridLayout(optComp, 5, 10, 0);
 			var errCheck = UI.button(optComp, tk, "Errors", SWT.CHECK);
 			var warnCheck = UI.button(optComp, tk, "Warnings", SWT.CHECK);
 			var allCheck = UI.button(optComp, tk, "All", SWT.CHECK);
@@ -263,93 +311,59 @@ public class ImportLogView extends SimpleFormEditor {
 			});
 
 			UI.label(optComp, tk, " | ");
-			UI.label(optComp, tk, "Max. number of messages");
-			var spinner = UI.spinner(optComp, tk, SWT.BORDER);
-			spinner.setValues(maxCount, 1000, 1_000_000, 0, 1000, 5000);
-			spinner.addModifyListener($ -> {
-				maxCount = spinner.getSelection();
-				update();
-			});
+			countLabel = UI.label(optComp, tk, "");
 		}
 
-		void apply(TableViewer table) {
-			this.table = table;
+		void apply(LazyContent content) {
+			this.content = content;
 			update();
 		}
 
 		private void update() {
-			if (table == null)
+			if (content == null)
 				return;
 
-			// states & type
-			var stream = messages.stream();
-			if (!states.isEmpty()) {
-				stream = stream.filter(
-					m -> m.state() != null && states.contains(m.state()));
-			}
-			if (type != null) {
-				stream = stream.filter(
-					m -> {
-						var d = m.descriptor();
-						return d != null && d.type == type;
-					});
-			}
-
-			// text filter
+			// copy the filter state for the background job
+			var states = this.states.isEmpty()
+				? EnumSet.noneOf(State.class)
+				: EnumSet.copyOf(this.states);
+			var type = this.type;
 			var phrase = text == null
 				? null
 				: text.trim();
-			if (Strings.notEmpty(phrase)) {
-				var words = Arrays.stream(phrase.split(" "))
-					.map(s -> s.trim().toLowerCase())
-					.filter(Strings::notEmpty)
-					.toList();
-				stream = stream.filter(m -> matches(m, words));
-			}
-
-			var list = stream.limit(maxCount).toList();
-			table.setInput(list);
-		}
-
-		private boolean matches(Message message, List<String> words) {
-			if(words.isEmpty())
-				return true;
-			for (var word : words) {
-				var s = message.message();
-				if (s != null && s.toLowerCase().contains(word))
-					continue;
-				s = message.descriptor() != null
-					? Labels.name(message.descriptor())
-					: null;
-				if (s != null && s.toLowerCase().contains(word))
-					continue;
-				s = MessageLabel.of(message.state());
-				if (s != null && s.toLowerCase().contains(word))
-					continue;
-				return false;
-			}
-			return true;
+			var words = Strings.notEmpty(phrase)
+				? Arrays.stream(phrase.split(" "))
+				.map(s -> s.trim().toLowerCase())
+				.filter(Strings::notEmpty)
+				.toList()
+				: List.<String>of();
+
+			int gen = ++generation;
+			var result = new int[1][];
+			App.run("Filter messages",
+				() -> result[0] = index.filter(
+					states, type, words, () -> gen != generation),
+				() -> {
+					if (gen != generation || result[0] == null)
+						return;
+					content.show(result[0]);
+					if (countLabel != null && !countLabel.isDisposed()) {
+						countLabel.setText(String.format(
+							"%d of %d messages", result[0].length, index.size()));
+						countLabel.getParent().layout();
+					}
+				});
 		}
-
 	}
 
 	private record TypeItem(ModelType type, int count) {
 
-		static List<TypeItem> allOf(Collection<Message> messages) {
-			var map = new EnumMap<ModelType, Integer>(ModelType.class);
-			for (var message : messages) {
-				var d = message.descriptor();
-				if (d == null || d.type == null)
-					continue;
-				map.compute(d.type,
-					(type, count) -> count != null ? count + 1 : 1);
-			}
-
-			var items = new ArrayList<TypeItem>(map.size() + 1);
-			items.add(new TypeItem(null, messages.size()));
-			map.entrySet().stream()
-				.filter(e -> e.getValue() != null)
-				.map(e -> new TypeItem(e.getKey(), e.getValue()))
+		static List<TypeItem> allOf(ImportLogIndex index) {
+			var items = new ArrayList<TypeItem>();
+			items.add(new TypeItem(null, index.size()));
+			Arrays.stream(ModelType.values())
+				.filter(type -> index.countOf(type) > 0)
+				.map(type -> new TypeItem(type, index.countOf(type)))
 				.sorted(Comparator.comparingInt(TypeItem::count).reversed())
 				.forEach(items::add);
 			return items;
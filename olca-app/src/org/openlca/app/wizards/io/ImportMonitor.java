@@ -1,6 +1,7 @@
 package org.openlca.app.wizards.io;
 
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.dialogs.IDialogConstants;
@@ -16,62 +17,98 @@ import org.openlca.app.util.UI;
 import org.openlca.core.io.ImportLog;
 import org.openlca.io.Import;
 
+/**
+ * Runs an import in a separate thread and shows its progress. The log messages
+ * of the import are not passed one by one to the progress monitor (which would
+ * post a UI update for each imported data set) but only the latest message is
+ * shown in fixed intervals, together with the number of handled data sets.
+ */
 record ImportMonitor(IProgressMonitor monitor) {
 
+	/** The interval of progress updates and cancel checks in milliseconds. */
+	private static final long UPDATE_INTERVAL = 250;
+
 	static ImportMonitor on(IProgressMonitor monitor) {
 		return new ImportMonitor(monitor);
 	}
 
 	void run(Import imp) {
 
+		var last = new AtomicReference<ImportLog.Message>();
+		var count = new AtomicInteger();
 		imp.log().listen(message -> {
 			if (message.state() == null)
 				return;
 			switch (message.state()) {
-				case IMPORTED, INFO, UPDATED -> {
-					if (message.hasMessage()) {
-						monitor.subTask(message.message());
-					} else if (message.hasDescriptor()) {
-						var d = message.descriptor();
-						monitor.subTask(Labels.of(d.type) + "; " + Labels.name(d));
-					}
+				case IMPORTED, UPDATED -> {
+					count.incrementAndGet();
+					last.set(message);
 				}
+				case INFO -> last.set(message);
 				default -> {}
 			}
 		});
 
 		monitor.beginTask("Import: ", IProgressMonitor.UNKNOWN);
-		var watcher = new Thread(imp);
-		watcher.start();
-
-		var wasCanceled = new AtomicBoolean(false);
-		while (watcher.isAlive()) {
+		var worker = new Thread(imp, "import");
+		worker.setUncaughtExceptionHandler(
+			(t, e) -> ErrorReporter.on("import failed", e));
+		worker.start();
+
+		// after a cancel request we still wait for the import to stop, so that
+		// the caller does not refresh the caches during a running write
+		boolean wasCanceled = false;
+		ImportLog.Message shown = null;
+		while (worker.isAlive()) {
 			try {
-				watcher.join(5000);
-				if (monitor.isCanceled() && !wasCanceled.get()) {
-					wasCanceled.set(true);
-					imp.cancel();
-					break;
-				}
+				worker.join(UPDATE_INTERVAL);
 			} catch (InterruptedException e) {
-				ErrorReporter.on("failed to join import thread", e);
+				Thread.currentThread().interrupt();
+				imp.cancel();
+				break;
+			}
+			var message = last.get();
+			if (message != null && message != shown) {
+				shown = message;
+				monitor.subTask(progressOf(message, count.get()));
+			}
+			if (monitor.isCanceled() && !wasCanceled) {
+				wasCanceled = true;
+				imp.cancel();
 			}
 		}
 		monitor.done();
 		InfoDialog.show(imp);
 	}
 
+	private static String progressOf(ImportLog.Message message, int count) {
+		String label;
+		if (message.hasMessage()) {
+			label = message.message();
+		} else if (message.hasDescriptor()) {
+			var d = message.descriptor();
+			label = Labels.of(d.type) + "; " + Labels.name(d);
+		} else {
+			label = "";
+		}
+		return count > 0
+			? count + " data sets | " + label
+			: label;
+	}
+
 	private static class InfoDialog extends FormDialog {
 
 		private final Import imp;
-		private final ImportLog log;
+		private final ImportLogIndex log;
 
 		static void show(Import imp) {
 			if (imp == null || imp.log() == null)
 				return;
+			// index the log outside of the UI thread
+			var index = ImportLogIndex.of(imp.log());
 			App.runInUI(
 				titleOf(imp),
-				() -> new InfoDialog(imp).open());
+				() -> new InfoDialog(imp, index).open());
 		}
 
 		private static String titleOf(Import imp) {
@@ -80,10 +117,10 @@ record ImportMonitor(IProgressMonitor monitor) {
 				: "Import finished";
 		}
 
-		private InfoDialog(Import imp) {
+		private InfoDialog(Import imp, ImportLogIndex log) {
 			super(UI.shell());
 			this.imp = imp;
-			this.log = imp.log();
+			this.log = log;
 		}
 
 		@Override
@@ -121,9 +158,7 @@ record ImportMonitor(IProgressMonitor monitor) {
 			var body = UI.dialogBody(mForm.getForm(), tk);
 			UI.gridLayout(body, 1, 10, 25);
 
-			long count = log.messages().stream()
-				.filter(ImportLog.Message::hasDescriptor)
-				.count();
+			int count = log.descriptorCount();
 			tk.createLabel(body, String.format("Handled %d data sets:", count))
 				.setFont(UI.boldFont());
 
@@ -17,6 +17,7 @@ import org.openlca.core.database.Daos;
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.model.Callback.Message;
 import org.openlca.core.model.ModelType;
+import org.openlca.core.model.RefEntity;
 import org.openlca.core.model.RootEntity;
 import org.openlca.core.model.descriptors.RootDescriptor;
 import org.openlca.jsonld.ZipStore;
@@ -26,6 +27,12 @@ import org.slf4j.LoggerFactory;
 
 public class JsonExportWizard extends Wizard implements IExportWizard {
 
+	/**
+	 * Exports with at least this number of models are executed in a parallel
+	 * pipeline; see {@link ParallelJsonExport}.
+	 */
+	private static final int PARALLEL_THRESHOLD = 500;
+
 	private ModelSelectionPage page;
 	private final Logger log = LoggerFactory.getLogger(getClass());
 
@@ -88,7 +95,13 @@ public class JsonExportWizard extends Wizard implements IExportWizard {
 
 		}
 
-		private void doExport(IProgressMonitor monitor, ZipStore store) {
+		private void doExport(IProgressMonitor monitor, ZipStore store)
+				throws Exception {
+			if (models.size() >= PARALLEL_THRESHOLD) {
+				new ParallelJsonExport(database, models, store, this::log)
+						.run(monitor);
+				return;
+			}
 			var export = new JsonExport(database, store);
 			for (var model : models) {
 				if (monitor.isCanceled())
@@ -104,17 +117,19 @@ public class JsonExportWizard extends Wizard implements IExportWizard {
 		}
 
 		private void doExport(JsonExport export, RootEntity entity) {
-			export.write(entity, (message, data) -> {
-				if (message == null)
-					return;
-				switch (message.type) {
-					case Message.INFO -> log.trace("{}: {}", data, message.text);
-					case Message.WARN -> log.warn("{}: {}", data, message.text);
-					case Message.ERROR -> log.error("{}: {}", data, message.text);
-					default -> {
-					}
+			export.write(entity, this::log);
+		}
+
+		private void log(Message message, RefEntity data) {
+			if (message == null)
+				return;
+			switch (message.type) {
+				case Message.INFO -> log.trace("{}: {}", data, message.text);
+				case Message.WARN -> log.warn("{}: {}", data, message.text);
+				case Message.ERROR -> log.error("{}: {}", data, message.text);
+				default -> {
 				}
-			});
+			}
 		}
 	}
 }
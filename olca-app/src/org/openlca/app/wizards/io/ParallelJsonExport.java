@@ -0,0 +1,278 @@
+package org.openlca.app.wizards.io;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.openlca.core.database.Daos;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.model.Callback;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.RootEntity;
+import org.openlca.core.model.descriptors.RootDescriptor;
+import org.openlca.jsonld.JsonStoreWriter;
+import org.openlca.jsonld.output.JsonExport;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Exports models to a JSON-LD store in a pipeline with three stages: a pool of
+ * loaders fetches the entities in batches from the database, a set of
+ * serializers converts them to JSON objects in parallel, and the calling
+ * thread writes these objects into the store. The stages are connected by
+ * bounded queues, so that only a limited number of entities is kept in
+ * memory.
+ * <p>
+ * Each serializer has its own {@link JsonExport}; thus, a model that is
+ * referenced from entities of different serializers can be converted more
+ * than once, but it is written only once into the store.
+ */
+class ParallelJsonExport {
+
+	/** The number of entities that are loaded at once. */
+	private static final int BATCH_SIZE = 100;
+
+	/** The number of JSON objects that can wait for the writer. */
+	private static final int OUT_QUEUE_SIZE = 1000;
+
+	private final IDatabase db;
+	private final List<RootDescriptor> models;
+	private final JsonStoreWriter store;
+	private final Callback callback;
+	private final int workers;
+
+	private final BlockingQueue<List<RootEntity>> loaded;
+	private final BlockingQueue<Item> out = new ArrayBlockingQueue<>(OUT_QUEUE_SIZE);
+	private final AtomicReference<Exception> error = new AtomicReference<>();
+	private volatile boolean stopped;
+
+	private final AtomicInteger loadedCount = new AtomicInteger();
+	private final AtomicInteger serializedCount = new AtomicInteger();
+	private int writtenCount;
+
+	ParallelJsonExport(IDatabase db, List<RootDescriptor> models,
+			JsonStoreWriter store, Callback callback) {
+		this.db = db;
+		this.models = models;
+		this.store = store;
+		this.callback = callback;
+		this.workers = Math.max(2,
+				Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+		this.loaded = new ArrayBlockingQueue<>(2 * workers);
+	}
+
+	/**
+	 * Runs the export and reports the progress to the given monitor; one unit
+	 * of work per model. Returns when all models are written or the export
+	 * was canceled.
+	 */
+	void run(IProgressMonitor monitor) throws Exception {
+		var loaders = Executors.newFixedThreadPool(workers);
+		var serializers = Executors.newFixedThreadPool(workers);
+		try {
+			for (var batch : batches()) {
+				loaders.execute(() -> load(batch));
+			}
+			loaders.shutdown();
+			for (int i = 0; i < workers; i++) {
+				serializers.execute(this::serialize);
+			}
+			serializers.shutdown();
+
+			// after all batches are loaded, an empty batch signals the end
+			// to each serializer
+			var closer = new Thread(() -> {
+				try {
+					loaders.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+					int ends = 0;
+					while (ends < workers && !stopped) {
+						if (loaded.offer(List.of(), 200, TimeUnit.MILLISECONDS)) {
+							ends++;
+						}
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}, "json-export-closer");
+			closer.setDaemon(true);
+			closer.start();
+
+			write(monitor);
+		} finally {
+			stopped = true;
+			loaders.shutdownNow();
+			serializers.shutdownNow();
+		}
+		var e = error.get();
+		if (e != null)
+			throw e;
+	}
+
+	/** Groups the models by type into batches that can be loaded at once. */
+	private List<Batch> batches() {
+		var ids = new EnumMap<ModelType, List<Long>>(ModelType.class);
+		for (var model : models) {
+			if (model == null || model.type == null)
+				continue;
+			ids.computeIfAbsent(model.type, t -> new ArrayList<>()).add(model.id);
+		}
+		var batches = new ArrayList<Batch>();
+		for (var e : ids.entrySet()) {
+			var list = e.getValue();
+			for (int i = 0; i < list.size(); i += BATCH_SIZE) {
+				var end = Math.min(i + BATCH_SIZE, list.size());
+				batches.add(new Batch(e.getKey(), new HashSet<>(list.subList(i, end))));
+			}
+		}
+		return batches;
+	}
+
+	private void load(Batch batch) {
+		if (error.get() != null)
+			return;
+		try {
+			var entities = new ArrayList<RootEntity>(batch.ids.size());
+			entities.addAll(Daos.root(db, batch.type).getForIds(batch.ids));
+			loadedCount.addAndGet(entities.size());
+			loaded.put(entities);
+			// models that were not found are counted as done
+			int missing = batch.ids.size() - entities.size();
+			if (missing > 0) {
+				out.put(new Done(missing));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	private void serialize() {
+		var export = new JsonExport(db, new QueueWriter());
+		try {
+			while (true) {
+				var entities = loaded.take();
+				if (entities.isEmpty())
+					break;
+				if (error.get() != null)
+					continue;
+				for (var entity : entities) {
+					export.write(entity, callback);
+					serializedCount.incrementAndGet();
+				}
+				out.put(new Done(entities.size()));
+			}
+			out.put(End.INSTANCE);
+		} catch (InterruptedException | CancellationException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			fail(e);
+			try {
+				out.put(End.INSTANCE);
+			} catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private void write(IProgressMonitor monitor) throws InterruptedException {
+		var written = new HashSet<String>();
+		int running = workers;
+		long start = System.currentTimeMillis();
+		long lastReport = 0;
+		while (running > 0) {
+			if (monitor.isCanceled() || error.get() != null)
+				return;
+			var item = out.poll(200, TimeUnit.MILLISECONDS);
+			if (item instanceof Json json) {
+				var refId = json.object.has("@id")
+						? json.object.get("@id").getAsString()
+						: null;
+				if (refId == null || written.add(json.type.name() + "/" + refId)) {
+					store.put(json.type, json.object);
+					writtenCount++;
+				}
+			} else if (item instanceof Bin bin) {
+				store.put(bin.path, bin.data);
+			} else if (item instanceof Done done) {
+				monitor.worked(done.models);
+			} else if (item instanceof End) {
+				running--;
+			}
+
+			long now = System.currentTimeMillis();
+			if (now - lastReport > 500) {
+				lastReport = now;
+				monitor.subTask(progressOf(now - start));
+			}
+		}
+	}
+
+	private String progressOf(long millis) {
+		double secs = Math.max(millis / 1000.0, 0.001);
+		return String.format("Loaded %d (%.0f/s), serialized %d (%.0f/s),"
+				+ " written %d (%.0f/s) data sets",
+				loadedCount.get(), loadedCount.get() / secs,
+				serializedCount.get(), serializedCount.get() / secs,
+				writtenCount, writtenCount / secs);
+	}
+
+	private void fail(Exception e) {
+		error.compareAndSet(null, e);
+	}
+
+	/**
+	 * Passes the JSON objects of a serializer to the writer. Blocks when the
+	 * writer cannot keep up.
+	 */
+	private class QueueWriter implements JsonStoreWriter {
+
+		@Override
+		public void put(ModelType type, JsonObject object) {
+			enqueue(new Json(type, object));
+		}
+
+		@Override
+		public void put(String path, byte[] data) {
+			enqueue(new Bin(path, data));
+		}
+
+		private void enqueue(Item item) {
+			try {
+				out.put(item);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CancellationException("export canceled");
+			}
+		}
+	}
+
+	private record Batch(ModelType type, Set<Long> ids) {
+	}
+
+	private interface Item {
+	}
+
+	private record Json(ModelType type, JsonObject object) implements Item {
+	}
+
+	private record Bin(String path, byte[] data) implements Item {
+	}
+
+	private record Done(int models) implements Item {
+	}
+
+	private enum End implements Item {
+		INSTANCE
+	}
+}